@@ -0,0 +1,139 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.log4j.Logger;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+import de.philippkatz.knime.jsondocgen.docs.SplashIconDoc;
+
+/**
+ * Forwards the events to a {@link DocSink} which runs on its own thread, so
+ * that the traversal does not wait for serialization and I/O, and several sinks
+ * can write in parallel. The events are buffered in a bounded queue. The docs
+ * are immutable, so they can safely be handed over to the writer thread.
+ *
+ * In case the sink fails, all following events are dropped and the exception
+ * is thrown from {@link #close()}.
+ *
+ * @author pk
+ */
+final class AsyncDocSink implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(AsyncDocSink.class);
+
+	private static final int QUEUE_CAPACITY = 1024;
+
+	@FunctionalInterface
+	private interface Event {
+		void sendTo(DocSink sink) throws IOException;
+	}
+
+	/** Marks the end of the queue. */
+	private static final Event END = sink -> {
+		// nothing
+	};
+
+	private final DocSink delegate;
+
+	private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+	private final Thread thread;
+
+	private volatile Throwable failure;
+
+	AsyncDocSink(DocSink delegate, String name) {
+		this.delegate = delegate;
+		thread = new Thread(this::run, "DocSink-" + name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void run() {
+		try {
+			for (;;) {
+				Event event = queue.take();
+				if (event == END) {
+					break;
+				}
+				if (failure == null) {
+					try {
+						event.sendTo(delegate);
+					} catch (Throwable t) {
+						LOGGER.error(String.format("%s failed", thread.getName()), t);
+						failure = t;
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			failure = e;
+		} finally {
+			try {
+				delegate.close();
+			} catch (Throwable t) {
+				if (failure == null) {
+					failure = t;
+				}
+			}
+		}
+	}
+
+	private void enqueue(Event event) throws IOException {
+		try {
+			queue.put(event);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for " + thread.getName());
+		}
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		enqueue(sink -> sink.node(categoryPath, node));
+	}
+
+	@Override
+	public void rootCategory(CategoryDoc rootCategory) throws IOException {
+		enqueue(sink -> sink.rootCategory(rootCategory));
+	}
+
+	@Override
+	public void portTypes(PortTypeDoc rootPortType) throws IOException {
+		enqueue(sink -> sink.portTypes(rootPortType));
+	}
+
+	@Override
+	public void splashIcons(List<SplashIconDoc> splashIcons) throws IOException {
+		enqueue(sink -> sink.splashIcons(splashIcons));
+	}
+
+	@Override
+	public void migrationRules(List<MigrationRuleDoc> migrationRules) throws IOException {
+		enqueue(sink -> sink.migrationRules(migrationRules));
+	}
+
+	/** Waits until all events have been written. */
+	@Override
+	public void close() throws IOException {
+		enqueue(END);
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for " + thread.getName());
+		}
+		if (failure instanceof IOException ioException) {
+			throw ioException;
+		} else if (failure != null) {
+			throw new IOException(thread.getName() + " failed", failure);
+		}
+	}
+
+}
@@ -0,0 +1,253 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix queries over node names and keywords, as written with
+ * <code>-format autocomplete</code> (see {@link AutocompleteWriter}). The file
+ * is memory-mapped; a query is a binary search over the blocks' first keys and
+ * a scan over the matching entries, so it only touches the part of the file
+ * which contains the prefix.
+ *
+ * Each node has the following keys, all {@link #normalize(String) normalized}:
+ * its name, the name without its first word(s) (so that "reader" finds "CSV
+ * Reader"), and its keywords. Each key has a static score: nodes which are
+ * not deprecated rank first, then names before inner words before keywords,
+ * then shorter names first.
+ *
+ * The format is as follows (all numbers big-endian; "vint" as described in
+ * {@link SearchIndexReader}):
+ *
+ * <pre>
+ * header:      magic "JDGC" (4 bytes), version (int)
+ * documents:   per node: ID (UTF-8), name (UTF-8)
+ * blocks:      the entries sorted by key bytes (unsigned), front-coded in blocks of
+ *              {@link #BLOCK_SIZE}; per entry: length of the prefix shared with the
+ *              previous key in the block (vint, 0 for the first), suffix length (vint),
+ *              suffix (UTF-8), document (vint), score (vint)
+ * doc table:   per node: ID offset (long), ID length (int), name offset (long), name length (int)
+ * block table: per block: offset (long), number of entries (int)
+ * footer:      doc table offset (long), number of nodes (int),
+ *              block table offset (long), number of blocks (int), magic "JDGC" (4 bytes)
+ * </pre>
+ *
+ * @author pk
+ */
+public final class AutocompleteReader implements Closeable {
+
+	/** A node matching a prefix query. */
+	public static final class Suggestion {
+		public final String nodeId;
+		public final String name;
+		/** The best matching key. */
+		public final String key;
+		public final int score;
+
+		Suggestion(String nodeId, String name, String key, int score) {
+			this.nodeId = nodeId;
+			this.name = name;
+			this.key = key;
+			this.score = score;
+		}
+	}
+
+	/** The best key of a node, before its strings are decoded. */
+	private static final class Match {
+		final int doc;
+		final byte[] key;
+		final int score;
+
+		Match(int doc, byte[] key, int score) {
+			this.doc = doc;
+			this.key = key;
+			this.score = score;
+		}
+	}
+
+	static final byte[] MAGIC = { 'J', 'D', 'G', 'C' };
+
+	static final int VERSION = 1;
+
+	/** Number of entries per front-coded block. */
+	static final int BLOCK_SIZE = 16;
+
+	private static final int FOOTER_SIZE = 2 * (Long.BYTES + Integer.BYTES) + MAGIC.length;
+
+	private static final int DOC_ENTRY_SIZE = 2 * (Long.BYTES + Integer.BYTES);
+
+	private static final int BLOCK_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer buffer;
+
+	private final int docTableOffset;
+
+	private final int numDocs;
+
+	private final int blockTableOffset;
+
+	private final int numBlocks;
+
+	/**
+	 * Open the given file.
+	 *
+	 * @param file
+	 *            The autocomplete file.
+	 * @throws IOException
+	 *             In case the file cannot be read or is not a valid file.
+	 */
+	public AutocompleteReader(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			buffer = BinaryFormat.map(channel, file, MAGIC, VERSION, FOOTER_SIZE, "an autocomplete file");
+			int footerOffset = buffer.capacity() - FOOTER_SIZE;
+			docTableOffset = (int) buffer.getLong(footerOffset);
+			numDocs = buffer.getInt(footerOffset + Long.BYTES);
+			blockTableOffset = (int) buffer.getLong(footerOffset + Long.BYTES + Integer.BYTES);
+			numBlocks = buffer.getInt(footerOffset + 2 * Long.BYTES + Integer.BYTES);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/** @return The number of nodes. */
+	public int getNumDocs() {
+		return numDocs;
+	}
+
+	/**
+	 * Find the nodes with a key starting with the given prefix.
+	 *
+	 * @param prefix
+	 *            The prefix as typed by the user; it is normalized.
+	 * @param limit
+	 *            The maximum number of suggestions.
+	 * @return The suggestions, one per node, by descending score.
+	 */
+	public List<Suggestion> complete(String prefix, int limit) {
+		if (limit <= 0) {
+			return List.of();
+		}
+		byte[] prefixBytes = normalize(prefix).getBytes(StandardCharsets.UTF_8);
+		Map<Integer, Match> best = new HashMap<>();
+		ByteBuffer entries = buffer.duplicate();
+		byte[] key = new byte[0];
+		scan: for (int block = findBlock(prefixBytes); block < numBlocks; block++) {
+			int blockOffset = blockTableOffset + block * BLOCK_ENTRY_SIZE;
+			entries.position((int) buffer.getLong(blockOffset));
+			int numEntries = buffer.getInt(blockOffset + Long.BYTES);
+			for (int i = 0; i < numEntries; i++) {
+				int sharedLength = BinaryFormat.readVInt(entries);
+				byte[] nextKey = Arrays.copyOf(key, sharedLength + BinaryFormat.readVInt(entries));
+				entries.get(nextKey, sharedLength, nextKey.length - sharedLength);
+				key = nextKey;
+				int doc = BinaryFormat.readVInt(entries);
+				int score = BinaryFormat.readVInt(entries);
+				if (startsWith(key, prefixBytes)) {
+					Match current = best.get(doc);
+					if (current == null || current.score < score) {
+						best.put(doc, new Match(doc, key, score));
+					}
+				} else if (Arrays.compareUnsigned(key, prefixBytes) > 0) {
+					break scan;
+				}
+			}
+		}
+		// only decode the matches which can make it into the result: the best
+		// ones by score, and those tied with the last one (ordered by name)
+		List<Match> matches = new ArrayList<>(best.values());
+		matches.sort(Comparator.comparingInt((Match match) -> match.score).reversed());
+		if (matches.size() > limit) {
+			int end = limit;
+			int lastScore = matches.get(limit - 1).score;
+			while (end < matches.size() && matches.get(end).score == lastScore) {
+				end++;
+			}
+			matches = matches.subList(0, end);
+		}
+		List<Suggestion> suggestions = new ArrayList<>(matches.size());
+		for (Match match : matches) {
+			suggestions.add(new Suggestion(getString(match.doc, 0), getString(match.doc, Long.BYTES + Integer.BYTES),
+					new String(match.key, StandardCharsets.UTF_8), match.score));
+		}
+		return suggestions.stream()
+				.sorted(Comparator.<Suggestion>comparingInt(suggestion -> suggestion.score).reversed()
+						.thenComparing(suggestion -> suggestion.name))
+				.limit(limit).toList();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Normalize a name, keyword or query: lower-case, trimmed, with single
+	 * spaces between words.
+	 *
+	 * @param string
+	 *            The string.
+	 * @return The normalized string.
+	 */
+	public static String normalize(String string) {
+		return string.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * @return The last block whose first key is less than the prefix (keys equal
+	 *         to the prefix can continue from the previous block), or the first
+	 *         block.
+	 */
+	private int findBlock(byte[] prefix) {
+		int low = 0;
+		int high = numBlocks - 1;
+		int result = 0;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (Arrays.compareUnsigned(getFirstKey(mid), prefix) < 0) {
+				result = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+
+	private byte[] getFirstKey(int block) {
+		ByteBuffer entry = buffer.duplicate();
+		entry.position((int) buffer.getLong(blockTableOffset + block * BLOCK_ENTRY_SIZE));
+		BinaryFormat.readVInt(entry); // shared length, always 0
+		byte[] key = new byte[BinaryFormat.readVInt(entry)];
+		entry.get(key);
+		return key;
+	}
+
+	private static boolean startsWith(byte[] key, byte[] prefix) {
+		return key.length >= prefix.length && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+	}
+
+	private String getString(int doc, int fieldOffset) {
+		int entryOffset = docTableOffset + doc * DOC_ENTRY_SIZE + fieldOffset;
+		byte[] bytes = new byte[buffer.getInt(entryOffset + Long.BYTES)];
+		buffer.duplicate().position((int) buffer.getLong(entryOffset)).get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,204 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+
+/**
+ * Collects the autocomplete keys of the nodes as they arrive and writes the
+ * sorted, front-coded structure when closing; see {@link AutocompleteReader}
+ * for the keys and the format.
+ *
+ * @author pk
+ */
+final class AutocompleteWriter implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(AutocompleteWriter.class);
+
+	/* package */ static final String AUTOCOMPLETE_FILE = "nodeDocumentation.autocomplete";
+
+	/** Score for a key which is the full name. */
+	private static final int NAME_SCORE = 3000;
+
+	/** Score for a key which starts at an inner word of the name. */
+	private static final int NAME_WORD_SCORE = 2000;
+
+	/** Score for a keyword. */
+	private static final int KEYWORD_SCORE = 1000;
+
+	/** Added for nodes which are not deprecated, so that these rank first. */
+	private static final int NOT_DEPRECATED_SCORE = 10000;
+
+	/** A key, before it is sorted and written. */
+	private static final class Entry {
+		final byte[] key;
+		final int doc;
+		final int score;
+
+		Entry(byte[] key, int doc, int score) {
+			this.key = key;
+			this.doc = doc;
+			this.score = score;
+		}
+	}
+
+	/**
+	 * Write the keys of the given nodes. In case an ID occurs multiple times,
+	 * only the first node is added.
+	 *
+	 * @param nodes
+	 *            The nodes.
+	 * @param file
+	 *            The destination file.
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	static void write(List<NodeDoc> nodes, File file) throws IOException {
+		try (AutocompleteWriter writer = new AutocompleteWriter(file)) {
+			for (NodeDoc node : nodes) {
+				writer.add(node);
+			}
+		}
+	}
+
+	private final List<Entry> entries = new ArrayList<>();
+
+	private final List<String> nodeIds = new ArrayList<>();
+
+	private final List<String> names = new ArrayList<>();
+
+	private final Set<String> addedIds = new HashSet<>();
+
+	private final File file;
+
+	AutocompleteWriter(File file) {
+		this.file = file;
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		add(node);
+	}
+
+	private void add(NodeDoc node) {
+		if (!BinaryFormat.isFirstOccurrence(addedIds, node.id)) {
+			return;
+		}
+		int doc = nodeIds.size();
+		String name = node.name != null ? node.name : node.id;
+		nodeIds.add(node.id);
+		names.add(name);
+
+		Set<String> keys = new HashSet<>();
+		// shorter names first; capped, so that it does not override the kind of key
+		int baseScore = (node.deprecated ? 0 : NOT_DEPRECATED_SCORE) + Math.max(0, 999 - name.length());
+		String normalizedName = AutocompleteReader.normalize(name);
+		addEntry(keys, normalizedName, doc, baseScore + NAME_SCORE);
+		for (int i = normalizedName.indexOf(' '); i >= 0; i = normalizedName.indexOf(' ', i + 1)) {
+			addEntry(keys, normalizedName.substring(i + 1), doc, baseScore + NAME_WORD_SCORE);
+		}
+		if (node.keywords != null) {
+			for (String keyword : node.keywords) {
+				addEntry(keys, AutocompleteReader.normalize(keyword), doc, baseScore + KEYWORD_SCORE);
+			}
+		}
+	}
+
+	private void addEntry(Set<String> keys, String key, int doc, int score) {
+		// the first occurrence has the highest score
+		if (!key.isEmpty() && keys.add(key)) {
+			entries.add(new Entry(key.getBytes(StandardCharsets.UTF_8), doc, score));
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		entries.sort(Comparator.<Entry, byte[]>comparing(entry -> entry.key, Arrays::compareUnsigned)
+				.thenComparingInt(entry -> entry.doc));
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+			out.write(AutocompleteReader.MAGIC);
+			out.writeInt(AutocompleteReader.VERSION);
+			long offset = out.size();
+
+			byte[][] ids = new byte[nodeIds.size()][];
+			byte[][] nameBytes = new byte[nodeIds.size()][];
+			long[] idOffsets = new long[nodeIds.size()];
+			long[] nameOffsets = new long[nodeIds.size()];
+			for (int i = 0; i < nodeIds.size(); i++) {
+				ids[i] = nodeIds.get(i).getBytes(StandardCharsets.UTF_8);
+				idOffsets[i] = offset;
+				out.write(ids[i]);
+				offset += ids[i].length;
+				nameBytes[i] = names.get(i).getBytes(StandardCharsets.UTF_8);
+				nameOffsets[i] = offset;
+				out.write(nameBytes[i]);
+				offset += nameBytes[i].length;
+			}
+
+			int numBlocks = (entries.size() + AutocompleteReader.BLOCK_SIZE - 1) / AutocompleteReader.BLOCK_SIZE;
+			long[] blockOffsets = new long[numBlocks];
+			for (int block = 0; block < numBlocks; block++) {
+				blockOffsets[block] = offset;
+				ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+				byte[] previous = new byte[0];
+				for (Entry entry : getBlock(block)) {
+					int mismatch = Arrays.mismatch(previous, entry.key);
+					int sharedLength = mismatch < 0 ? entry.key.length : mismatch;
+					BinaryFormat.writeVInt(blockBytes, sharedLength);
+					BinaryFormat.writeVInt(blockBytes, entry.key.length - sharedLength);
+					blockBytes.write(entry.key, sharedLength, entry.key.length - sharedLength);
+					BinaryFormat.writeVInt(blockBytes, entry.doc);
+					BinaryFormat.writeVInt(blockBytes, entry.score);
+					previous = entry.key;
+				}
+				blockBytes.writeTo(out);
+				offset += blockBytes.size();
+			}
+
+			long docTableOffset = offset;
+			for (int i = 0; i < ids.length; i++) {
+				out.writeLong(idOffsets[i]);
+				out.writeInt(ids[i].length);
+				out.writeLong(nameOffsets[i]);
+				out.writeInt(nameBytes[i].length);
+				offset += 2 * (Long.BYTES + Integer.BYTES);
+			}
+
+			long blockTableOffset = offset;
+			for (int block = 0; block < numBlocks; block++) {
+				out.writeLong(blockOffsets[block]);
+				out.writeInt(getBlock(block).size());
+			}
+
+			out.writeLong(docTableOffset);
+			out.writeInt(ids.length);
+			out.writeLong(blockTableOffset);
+			out.writeInt(numBlocks);
+			out.write(AutocompleteReader.MAGIC);
+		}
+		LOGGER.info(String.format("Wrote %s autocomplete keys for %s nodes to %s", entries.size(), nodeIds.size(),
+				file));
+	}
+
+	private List<Entry> getBlock(int block) {
+		int start = block * AutocompleteReader.BLOCK_SIZE;
+		return entries.subList(start, Math.min(entries.size(), start + AutocompleteReader.BLOCK_SIZE));
+	}
+
+}
@@ -0,0 +1,197 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+/**
+ * The parts which the memory-mapped binary outputs (node archive, search
+ * index, autocomplete, connectivity index) have in common: a header with magic
+ * bytes and version, a footer which ends with the magic bytes again, variable
+ * length ints, and one entry per node ID.
+ *
+ * @author pk
+ */
+final class BinaryFormat {
+
+	private static final Logger LOGGER = Logger.getLogger(BinaryFormat.class);
+
+	private BinaryFormat() {
+		// bits and bytes only
+	}
+
+	/**
+	 * Map a file which starts with the given magic bytes and version, and ends
+	 * with a footer of the given size whose last bytes are the magic bytes.
+	 *
+	 * @param channel
+	 *            The opened file.
+	 * @param file
+	 *            The file, for the messages.
+	 * @param magic
+	 *            The magic bytes.
+	 * @param version
+	 *            The supported version.
+	 * @param footerSize
+	 *            The size of the footer, including the magic bytes.
+	 * @param description
+	 *            What the file should be, e.g. "a search index".
+	 * @return The mapped file.
+	 * @throws IOException
+	 *             In case the file is too large, or has a different magic or
+	 *             version.
+	 */
+	static MappedByteBuffer map(FileChannel channel, File file, byte[] magic, int version, int footerSize,
+			String description) throws IOException {
+		long fileSize = channel.size();
+		if (fileSize > Integer.MAX_VALUE) {
+			throw new IOException(String.format("%s is too large (%s bytes)", file, fileSize));
+		}
+		if (fileSize < magic.length + Integer.BYTES + footerSize) {
+			throw new IOException(String.format("%s is not %s", file, description));
+		}
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+		if (!hasMagic(buffer, 0, magic) || !hasMagic(buffer, (int) fileSize - magic.length, magic)) {
+			throw new IOException(String.format("%s is not %s", file, description));
+		}
+		int fileVersion = buffer.getInt(magic.length);
+		if (fileVersion != version) {
+			throw new IOException(String.format("Unsupported version %s of %s in %s", fileVersion, description, file));
+		}
+		return buffer;
+	}
+
+	/**
+	 * Write a variable length int: 7 bits per byte, low bits first, high bit set
+	 * on all but the last byte.
+	 *
+	 * @param out
+	 *            The destination.
+	 * @param value
+	 *            The value; negative values take five bytes.
+	 */
+	static void writeVInt(ByteArrayOutputStream out, int value) {
+		while ((value & ~0x7f) != 0) {
+			out.write(value & 0x7f | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	/**
+	 * Read a variable length int as written by
+	 * {@link #writeVInt(ByteArrayOutputStream, int)}.
+	 *
+	 * @param buffer
+	 *            The buffer, positioned at the int.
+	 * @return The value.
+	 */
+	static int readVInt(ByteBuffer buffer) {
+		int value = 0;
+		int shift = 0;
+		byte current;
+		do {
+			current = buffer.get();
+			value |= (current & 0x7f) << shift;
+			shift += 7;
+		} while (current < 0);
+		return value;
+	}
+
+	/**
+	 * Binary search over a table of fixed size entries, sorted by their keys.
+	 * Each entry starts with the key's offset (long) and UTF-8 length (int); the
+	 * keys are compared unsigned byte by byte, i.e. like the writers sort them.
+	 *
+	 * @param buffer
+	 *            The mapped file.
+	 * @param tableOffset
+	 *            The offset of the table's first entry.
+	 * @param entrySize
+	 *            The size of an entry.
+	 * @param numEntries
+	 *            The number of entries.
+	 * @param key
+	 *            The UTF-8 key to look for.
+	 * @return The entry's index, or -1 in case there is no such key.
+	 */
+	static int find(ByteBuffer buffer, int tableOffset, int entrySize, int numEntries, byte[] key) {
+		int low = 0;
+		int high = numEntries - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int entryOffset = tableOffset + mid * entrySize;
+			int comparison = compare(buffer, (int) buffer.getLong(entryOffset), buffer.getInt(entryOffset + Long.BYTES),
+					key);
+			if (comparison < 0) {
+				low = mid + 1;
+			} else if (comparison > 0) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Decode a UTF-8 string from the buffer.
+	 *
+	 * @param buffer
+	 *            The mapped file; its position is not changed.
+	 * @param offset
+	 *            The string's offset.
+	 * @param length
+	 *            The string's length in bytes.
+	 * @return The string.
+	 */
+	static String decode(ByteBuffer buffer, int offset, int length) {
+		byte[] bytes = new byte[length];
+		buffer.get(offset, bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Each format has one entry per node ID; a node which occurs in several
+	 * categories is only written for its first occurrence.
+	 *
+	 * @param writtenIds
+	 *            The IDs which were added so far; the given one is added.
+	 * @param nodeId
+	 *            The node's ID.
+	 * @return <code>true</code> in case this is the first occurrence.
+	 */
+	static boolean isFirstOccurrence(Set<String> writtenIds, String nodeId) {
+		if (!writtenIds.add(nodeId)) {
+			LOGGER.debug(String.format("Skipping duplicate node %s", nodeId));
+			return false;
+		}
+		return true;
+	}
+
+	private static int compare(ByteBuffer buffer, int offset, int length, byte[] key) {
+		int commonLength = Math.min(length, key.length);
+		for (int i = 0; i < commonLength; i++) {
+			int comparison = Byte.compareUnsigned(buffer.get(offset + i), key[i]);
+			if (comparison != 0) {
+				return comparison;
+			}
+		}
+		return Integer.compare(length, key.length);
+	}
+
+	private static boolean hasMagic(ByteBuffer buffer, int offset, byte[] magic) {
+		byte[] bytes = new byte[magic.length];
+		buffer.duplicate().position(offset).get(bytes);
+		return Arrays.equals(bytes, magic);
+	}
+
+}
@@ -0,0 +1,149 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Platform;
+import org.osgi.framework.Bundle;
+
+/**
+ * Activates the contributing bundles and loads their node factory classes
+ * concurrently before the repository is traversed. Otherwise, this happens
+ * lazily and one bundle at a time when the traversal reaches a bundle's first
+ * node, which makes up a large part of the crawl's wall time.
+ *
+ * The factory classes are taken from the extension registry, and the bundles
+ * are resolved like in the generator (see
+ * {@link JsonNodeDocuGenerator#getBundle(String, Class)}). The bundles are
+ * warmed up independently, one task per bundle, which loads each of the
+ * bundle's factory classes through the bundle without creating any factory;
+ * the first class load activates the bundle. Failures are only logged, the
+ * traversal will report them again.
+ *
+ * @author pk
+ */
+final class BundleWarmUp {
+
+	private static final Logger LOGGER = Logger.getLogger(BundleWarmUp.class);
+
+	private static final String ELEMENT_FACTORY_CLASS = "factory-class";
+
+	/**
+	 * Warm up the bundles of all registered nodes and node sets.
+	 *
+	 * @param pluginIds
+	 *            Only warm up these bundles; all if empty.
+	 * @throws InterruptedException
+	 *             In case the thread was interrupted while waiting.
+	 */
+	static void warmUp(Set<String> pluginIds) throws InterruptedException {
+		Map<String, List<String>> factoryClassesByPlugin = new LinkedHashMap<>();
+		for (String extensionId : List.of(JsonNodeDocuGenerator.NODES_EXTENSION_ID,
+				JsonNodeDocuGenerator.NODE_SETS_EXTENSION_ID)) {
+			for (IConfigurationElement elem : Platform.getExtensionRegistry()
+					.getConfigurationElementsFor(extensionId)) {
+				String plugin = elem.getNamespaceIdentifier();
+				String factoryClass = elem.getAttribute(ELEMENT_FACTORY_CLASS);
+				if (factoryClass != null && (pluginIds.isEmpty() || pluginIds.contains(plugin))) {
+					factoryClassesByPlugin.computeIfAbsent(plugin, key -> new ArrayList<>()).add(factoryClass);
+				}
+			}
+		}
+		Map<Bundle, List<String>> factoryClassesByBundle = groupByBundle(factoryClassesByPlugin);
+
+		LOGGER.info(String.format("Warming up %s bundles", factoryClassesByBundle.size()));
+		long start = System.nanoTime();
+		int numThreads = Math.max(1, Math.min(factoryClassesByBundle.size(), Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			Map<Bundle, Future<Entry<Long, Integer>>> futures = new LinkedHashMap<>();
+			for (Entry<Bundle, List<String>> entry : factoryClassesByBundle.entrySet()) {
+				futures.put(entry.getKey(), executor.submit(() -> {
+					long bundleStart = System.nanoTime();
+					int numLoaded = loadClasses(entry.getKey(), entry.getValue()).size();
+					return Map.entry(System.nanoTime() - bundleStart, numLoaded);
+				}));
+			}
+			// duration in nanoseconds, number of loaded classes
+			List<Entry<Bundle, Entry<Long, Integer>>> results = new ArrayList<>();
+			for (Entry<Bundle, Future<Entry<Long, Integer>>> entry : futures.entrySet()) {
+				try {
+					results.add(Map.entry(entry.getKey(), entry.getValue().get()));
+				} catch (ExecutionException e) {
+					LOGGER.warn(String.format("Could not warm up %s", entry.getKey().getSymbolicName()), e.getCause());
+				}
+			}
+			// slowest first
+			results.sort(Comparator.comparing((Entry<Bundle, Entry<Long, Integer>> result) -> result.getValue().getKey())
+					.reversed());
+			for (Entry<Bundle, Entry<Long, Integer>> result : results) {
+				LOGGER.info(String.format("Warmed up %s in %s ms (%s of %s factories)", result.getKey().getSymbolicName(),
+						TimeUnit.NANOSECONDS.toMillis(result.getValue().getKey()), result.getValue().getValue(),
+						factoryClassesByBundle.get(result.getKey()).size()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		LOGGER.info(String.format("Warm-up took %s ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+	}
+
+	/**
+	 * Group the factory classes by their bundle; plugins without a bundle are
+	 * skipped (no factory class is loaded yet, so there is nothing to fall back
+	 * to), the traversal resolves them by the factory.
+	 *
+	 * @param factoryClassesByPlugin
+	 *            The factory class names by contributing plugin.
+	 * @return The factory class names by bundle.
+	 */
+	/* package */ static Map<Bundle, List<String>> groupByBundle(Map<String, List<String>> factoryClassesByPlugin) {
+		Map<Bundle, List<String>> result = new LinkedHashMap<>();
+		for (Entry<String, List<String>> entry : factoryClassesByPlugin.entrySet()) {
+			Bundle bundle = JsonNodeDocuGenerator.getBundle(entry.getKey(), null);
+			if (bundle == null) {
+				LOGGER.debug(String.format("No bundle for %s, not warming it up", entry.getKey()));
+				continue;
+			}
+			result.computeIfAbsent(bundle, key -> new ArrayList<>()).addAll(entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Load the given classes through the bundle, without initializing them.
+	 *
+	 * @param bundle
+	 *            The bundle.
+	 * @param classNames
+	 *            The class names.
+	 * @return The loaded classes; classes which could not be loaded are skipped.
+	 */
+	/* package */ static List<Class<?>> loadClasses(Bundle bundle, List<String> classNames) {
+		List<Class<?>> loadedClasses = new ArrayList<>();
+		for (String className : classNames) {
+			try {
+				loadedClasses.add(bundle.loadClass(className));
+			} catch (ClassNotFoundException | LinkageError e) {
+				LOGGER.debug(String.format("Could not load %s from %s", className, bundle.getSymbolicName()), e);
+			}
+		}
+		return loadedClasses;
+	}
+
+	private BundleWarmUp() {
+		// no instances, please
+	}
+
+}
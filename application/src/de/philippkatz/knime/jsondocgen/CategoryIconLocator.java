@@ -0,0 +1,86 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
+import org.osgi.framework.Bundle;
+
+/**
+ * Finds the icon files of the categories within the contributing bundles, so
+ * that their bytes can be used directly (see
+ * {@link Utils#getPngBase64(URL)}). The repository model only provides the
+ * already decoded SWT images.
+ *
+ * Based on org.knime.workbench.repository.RepositoryFactory
+ *
+ * @author pk
+ */
+final class CategoryIconLocator {
+
+	private static final String CATEGORY_EXTENSION_ID = "org.knime.workbench.repository.categories";
+
+	private static final String ELEMENT_LEVEL_ID = "level-id";
+
+	private static final String ELEMENT_PATH = "path";
+
+	private static final String ELEMENT_ICON = "icon";
+
+	/**
+	 * Read the icon locations of all registered categories.
+	 *
+	 * @return Map with the category path (e.g. <code>/io/read</code>) as key,
+	 *         and the icon URL as value.
+	 */
+	public static Map<String, URL> findCategoryIcons() {
+		Map<String, URL> icons = new HashMap<>();
+		for (IConfigurationElement elem : Platform.getExtensionRegistry()
+				.getConfigurationElementsFor(CATEGORY_EXTENSION_ID)) {
+			String iconPath = elem.getAttribute(ELEMENT_ICON);
+			String levelId = elem.getAttribute(ELEMENT_LEVEL_ID);
+			if (iconPath == null || iconPath.isEmpty() || levelId == null) {
+				continue;
+			}
+			Bundle bundle = Platform.getBundle(elem.getNamespaceIdentifier());
+			if (bundle == null) {
+				continue;
+			}
+			URL url = FileLocator.find(bundle, new Path(iconPath), null);
+			if (url != null) {
+				icons.putIfAbsent(getCategoryPath(elem.getAttribute(ELEMENT_PATH), levelId), url);
+			}
+		}
+		return icons;
+	}
+
+	/**
+	 * Get the normalized path of a category, as it is built by the generator.
+	 *
+	 * @param parentPath
+	 *            The <code>path</code> attribute, e.g. <code>/io/</code>, may be
+	 *            <code>null</code>.
+	 * @param levelId
+	 *            The <code>level-id</code> attribute, e.g. <code>read</code>.
+	 * @return The path, e.g. <code>/io/read</code>.
+	 */
+	/* package */ static String getCategoryPath(String parentPath, String levelId) {
+		StringBuilder path = new StringBuilder();
+		if (parentPath != null) {
+			for (String segment : parentPath.split("/")) {
+				if (!segment.isEmpty()) {
+					path.append('/').append(segment);
+				}
+			}
+		}
+		return path.append('/').append(levelId).toString();
+	}
+
+	private CategoryIconLocator() {
+		// not for you
+	}
+
+}
@@ -0,0 +1,280 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.log4j.Logger;
+
+import com.google.gson.stream.JsonReader;
+
+import de.philippkatz.knime.jsondocgen.docs.ChangesDoc;
+import de.philippkatz.knime.jsondocgen.docs.ChangesDoc.ChangesDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.ChangesDoc.Delta;
+
+/**
+ * Compares the outputs of two runs. The JSON files are read with a streaming
+ * parser which only keeps the IDs and content hashes of the entries (see
+ * {@link ContentHashTypeAdapterFactory}), so the full trees are never loaded.
+ *
+ * @author pk
+ */
+final class ChangeDetector {
+
+	private static final Logger LOGGER = Logger.getLogger(ChangeDetector.class);
+
+	/**
+	 * IDs and hashes of all entries of one output directory. A map is
+	 * <code>null</code> in case the corresponding file does not exist.
+	 */
+	static final class Snapshot {
+		final Map<String, String> nodes;
+		final Map<String, String> categories;
+		final Map<String, String> portTypes;
+		final Map<String, String> migrationRules;
+
+		private Snapshot(Map<String, String> nodes, Map<String, String> categories, Map<String, String> portTypes,
+				Map<String, String> migrationRules) {
+			this.nodes = nodes;
+			this.categories = categories;
+			this.portTypes = portTypes;
+			this.migrationRules = migrationRules;
+		}
+	}
+
+	/**
+	 * Read the IDs and hashes from the output files in the given directory.
+	 *
+	 * @param directory
+	 *            The output directory of a run.
+	 * @return The snapshot.
+	 * @throws IOException
+	 *             In case reading fails.
+	 */
+	static Snapshot readSnapshot(File directory) throws IOException {
+		return readSnapshot(directory, true, true, true);
+	}
+
+	/**
+	 * Read the IDs and hashes from the output files in the given directory, but
+	 * only consider the given sections (e.g. the ones which have been generated in
+	 * the current run, as the directory might still contain outdated files).
+	 *
+	 * @param directory
+	 *            The output directory of a run.
+	 * @param includeNodes
+	 *            Read nodes and categories.
+	 * @param includePortTypes
+	 *            Read port types.
+	 * @param includeMigrationRules
+	 *            Read migration rules.
+	 * @return The snapshot.
+	 * @throws IOException
+	 *             In case reading fails.
+	 */
+	static Snapshot readSnapshot(File directory, boolean includeNodes, boolean includePortTypes,
+			boolean includeMigrationRules) throws IOException {
+		Map<String, String> nodes = null;
+		Map<String, String> categories = null;
+		File nodeFile = new File(directory, OutputRenderer.NODE_DOCUMENTATION_FILE);
+		if (includeNodes && nodeFile.isFile()) {
+			nodes = new HashMap<>();
+			categories = new HashMap<>();
+			try (JsonReader reader = openReader(nodeFile)) {
+				readRootCategory(reader, nodes, categories);
+			}
+		}
+		Map<String, String> portTypes = null;
+		File portFile = new File(directory, OutputRenderer.PORT_DOCUMENTATION_FILE);
+		if (includePortTypes && portFile.isFile()) {
+			portTypes = new HashMap<>();
+			try (JsonReader reader = openReader(portFile)) {
+				readPortType(reader, portTypes);
+			}
+		}
+		Map<String, String> migrationRules = null;
+		File migrationsFile = new File(directory, OutputRenderer.MIGRATIONS_FILE);
+		if (includeMigrationRules && migrationsFile.isFile()) {
+			try (JsonReader reader = openReader(migrationsFile)) {
+				migrationRules = readMigrationRules(reader);
+			}
+		}
+		return new Snapshot(nodes, categories, portTypes, migrationRules);
+	}
+
+	/**
+	 * Compare two snapshots. Sections which are not present in both snapshots are
+	 * <code>null</code> in the result.
+	 *
+	 * @param previous
+	 *            The snapshot of the previous run.
+	 * @param current
+	 *            The snapshot of the current run.
+	 * @return The changes.
+	 */
+	static ChangesDoc compare(Snapshot previous, Snapshot current) {
+		return new ChangesDocBuilder() //
+				.setNodes(compare(previous.nodes, current.nodes)) //
+				.setCategories(compare(previous.categories, current.categories)) //
+				.setPortTypes(compare(previous.portTypes, current.portTypes)) //
+				.setMigrationRules(compare(previous.migrationRules, current.migrationRules)) //
+				.build();
+	}
+
+	/* package */ static Delta compare(Map<String, String> previous, Map<String, String> current) {
+		if (previous == null || current == null) {
+			return null;
+		}
+		Set<String> added = new TreeSet<>();
+		Set<String> modified = new TreeSet<>();
+		for (Map.Entry<String, String> entry : current.entrySet()) {
+			if (!previous.containsKey(entry.getKey())) {
+				added.add(entry.getKey());
+			} else if (!Objects.equals(previous.get(entry.getKey()), entry.getValue())) {
+				modified.add(entry.getKey());
+			}
+		}
+		Set<String> removed = new TreeSet<>(previous.keySet());
+		removed.removeAll(current.keySet());
+		LOGGER.debug(String.format("%s added, %s removed, %s modified", added.size(), removed.size(),
+				modified.size()));
+		return new Delta(new ArrayList<>(added), new ArrayList<>(removed), new ArrayList<>(modified));
+	}
+
+	private static JsonReader openReader(File file) throws IOException {
+		Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+		return new JsonReader(reader);
+	}
+
+	/**
+	 * Categories are keyed by their path starting from the root (which is
+	 * <code>/</code>), as category IDs are only unique among their siblings.
+	 */
+	private static void readRootCategory(JsonReader reader, Map<String, String> nodes,
+			Map<String, String> categories) throws IOException {
+		Map<String, String> relativeToRoot = new HashMap<>();
+		readCategory(reader, nodes, relativeToRoot);
+		relativeToRoot.forEach((path, hash) -> categories.put("/" + path, hash));
+	}
+
+	/**
+	 * Read a category object. As the ID comes after the children in the JSON, the
+	 * paths are collected relative to the current category and prefixed by the
+	 * caller.
+	 *
+	 * @param categories
+	 *            Receives the hashes keyed by the path relative to this category
+	 *            (the empty string for the category itself).
+	 * @return The ID of the category.
+	 */
+	private static String readCategory(JsonReader reader, Map<String, String> nodes,
+			Map<String, String> categories) throws IOException {
+		String id = null;
+		String hash = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+			case "id" -> id = reader.nextString();
+			case ContentHashTypeAdapterFactory.CONTENT_HASH -> hash = reader.nextString();
+			case "children" -> {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					Map<String, String> relativeToChild = new HashMap<>();
+					String childId = readCategory(reader, nodes, relativeToChild);
+					relativeToChild.forEach((path, childHash) -> categories
+							.put(path.isEmpty() ? childId : childId + "/" + path, childHash));
+				}
+				reader.endArray();
+			}
+			case "nodes" -> {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					readNode(reader, nodes);
+				}
+				reader.endArray();
+			}
+			default -> reader.skipValue();
+			}
+		}
+		reader.endObject();
+		categories.put("", hash);
+		return id;
+	}
+
+	private static void readNode(JsonReader reader, Map<String, String> nodes) throws IOException {
+		String id = null;
+		String hash = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+			case "id" -> id = reader.nextString();
+			case ContentHashTypeAdapterFactory.CONTENT_HASH -> hash = reader.nextString();
+			default -> reader.skipValue();
+			}
+		}
+		reader.endObject();
+		nodes.put(id, hash);
+	}
+
+	private static void readPortType(JsonReader reader, Map<String, String> portTypes) throws IOException {
+		String objectClass = null;
+		String hash = null;
+		reader.beginObject();
+		while (reader.hasNext()) {
+			switch (reader.nextName()) {
+			case "objectClass" -> objectClass = reader.nextString();
+			case ContentHashTypeAdapterFactory.CONTENT_HASH -> hash = reader.nextString();
+			case "children" -> {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					readPortType(reader, portTypes);
+				}
+				reader.endArray();
+			}
+			default -> reader.skipValue();
+			}
+		}
+		reader.endObject();
+		portTypes.put(objectClass, hash);
+	}
+
+	/**
+	 * Migration rules have no hash; they are keyed by the original factory and the
+	 * value is the (sorted) replacement factories.
+	 */
+	private static Map<String, String> readMigrationRules(JsonReader reader) throws IOException {
+		Map<String, Set<String>> replacements = new HashMap<>();
+		reader.beginArray();
+		while (reader.hasNext()) {
+			String original = null;
+			String replacement = null;
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+				case "originalNodeFactoryClass" -> original = reader.nextString();
+				case "replacementNodeFactoryClass" -> replacement = reader.nextString();
+				default -> reader.skipValue();
+				}
+			}
+			reader.endObject();
+			replacements.computeIfAbsent(original, key -> new TreeSet<>()).add(replacement);
+		}
+		reader.endArray();
+		Map<String, String> result = new HashMap<>();
+		replacements.forEach((original, replacementSet) -> result.put(original, String.join(",", replacementSet)));
+		return result;
+	}
+
+	private ChangeDetector() {
+		// static helpers only
+	}
+
+}
@@ -0,0 +1,319 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Answers structural questions about classes (super types, declared methods)
+ * by parsing their class files, which are read as resources through a class
+ * loader. The classes are not loaded or initialized, so no static initializers
+ * or constructors run.
+ *
+ * Class names are given in binary form (<code>org.example.Foo$Bar</code>),
+ * method descriptors in JVM form (<code>(I)Ljava/lang/String;</code>). In case
+ * a class file in the hierarchy cannot be read, the answers are empty, so that
+ * callers can fall back to reflection.
+ *
+ * @author pk
+ */
+final class ClassFileAnalyzer {
+
+	private static final Logger LOGGER = Logger.getLogger(ClassFileAnalyzer.class);
+
+	private static final int MAGIC = 0xCAFEBABE;
+
+	private static final int ACC_BRIDGE = 0x0040;
+
+	private static final int ACC_SYNTHETIC = 0x1000;
+
+	/** The parts of a class file which are needed here. */
+	static final class ClassInfo {
+		final String name;
+		final int access;
+		/** <code>null</code> for <code>java.lang.Object</code>. */
+		final String superName;
+		final List<String> interfaces;
+		/** Non-bridge, non-synthetic methods: name + descriptor → access flags. */
+		final Map<String, Integer> methods;
+
+		ClassInfo(String name, int access, String superName, List<String> interfaces, Map<String, Integer> methods) {
+			this.name = name;
+			this.access = access;
+			this.superName = superName;
+			this.interfaces = interfaces;
+			this.methods = methods;
+		}
+
+		boolean isFinal() {
+			return Modifier.isFinal(access);
+		}
+	}
+
+	private final ClassLoader classLoader;
+
+	/** Parsed classes by name; empty in case a class file could not be read. */
+	private final Map<String, Optional<ClassInfo>> classes = new HashMap<>();
+
+	/**
+	 * @param classLoader
+	 *            The class loader through which the class files are read, e.g.
+	 *            the bundle class loader of a node factory.
+	 */
+	ClassFileAnalyzer(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	/**
+	 * Parse the given class.
+	 *
+	 * @param className
+	 *            The class name.
+	 * @return The class info, or an empty optional in case the class file cannot
+	 *         be read.
+	 */
+	synchronized Optional<ClassInfo> getClassInfo(String className) {
+		return classes.computeIfAbsent(className, this::readClassInfo);
+	}
+
+	/**
+	 * Check whether a class extends or implements the given type, directly or
+	 * transitively.
+	 *
+	 * @param className
+	 *            The class to check.
+	 * @param superType
+	 *            The class or interface.
+	 * @return The result, or an empty optional in case the hierarchy cannot be
+	 *         read completely and the type was not found in the readable part.
+	 */
+	Optional<Boolean> isSubtypeOf(String className, String superType) {
+		if (className.equals(superType)) {
+			return Optional.of(true);
+		}
+		Optional<ClassInfo> classInfo = getClassInfo(className);
+		if (classInfo.isEmpty()) {
+			return Optional.empty();
+		}
+		boolean complete = true;
+		List<String> superTypes = new ArrayList<>(classInfo.get().interfaces);
+		if (classInfo.get().superName != null) {
+			superTypes.add(classInfo.get().superName);
+		}
+		for (String type : superTypes) {
+			Optional<Boolean> result = isSubtypeOf(type, superType);
+			if (result.isEmpty()) {
+				complete = false;
+			} else if (result.get()) {
+				return result;
+			}
+		}
+		return complete ? Optional.of(false) : Optional.empty();
+	}
+
+	/**
+	 * Find the class which declares the given method, i.e. the implementation
+	 * which is used for instances of the given class, searching the superclass
+	 * chain (as {@link Class#getMethod(String, Class...)} would do for classes).
+	 *
+	 * @param className
+	 *            The class to start with.
+	 * @param methodName
+	 *            The method name.
+	 * @param descriptor
+	 *            The method descriptor.
+	 * @return The name of the declaring class, or an empty optional in case the
+	 *         method was not found or the hierarchy cannot be read.
+	 */
+	Optional<String> findDeclaringClass(String className, String methodName, String descriptor) {
+		String current = className;
+		while (current != null) {
+			Optional<ClassInfo> classInfo = getClassInfo(current);
+			if (classInfo.isEmpty()) {
+				return Optional.empty();
+			}
+			if (classInfo.get().methods.containsKey(methodName + descriptor)) {
+				return Optional.of(current);
+			}
+			current = classInfo.get().superName;
+		}
+		return Optional.empty();
+	}
+
+	/**
+	 * Find all classes and interfaces in the hierarchy of the given class which
+	 * declare the given method, including default methods of interfaces.
+	 *
+	 * @param className
+	 *            The class to start with.
+	 * @param methodName
+	 *            The method name.
+	 * @param descriptor
+	 *            The method descriptor.
+	 * @return The names of the declaring types, or an empty optional in case the
+	 *         hierarchy cannot be read completely.
+	 */
+	Optional<Set<String>> findDeclaringTypes(String className, String methodName, String descriptor) {
+		Set<String> visited = new HashSet<>();
+		Set<String> declaringTypes = new LinkedHashSet<>();
+		Deque<String> pending = new ArrayDeque<>(List.of(className));
+		while (!pending.isEmpty()) {
+			String current = pending.removeFirst();
+			if (!visited.add(current)) {
+				continue;
+			}
+			Optional<ClassInfo> classInfo = getClassInfo(current);
+			if (classInfo.isEmpty()) {
+				return Optional.empty();
+			}
+			if (classInfo.get().methods.containsKey(methodName + descriptor)) {
+				declaringTypes.add(current);
+			}
+			if (classInfo.get().superName != null) {
+				pending.add(classInfo.get().superName);
+			}
+			pending.addAll(classInfo.get().interfaces);
+		}
+		return Optional.of(declaringTypes);
+	}
+
+	/**
+	 * Get the declared return type of the most specific implementation of a
+	 * method with the given parameters; this considers covariant return types,
+	 * which the compiler emits in addition to bridge methods.
+	 *
+	 * @param className
+	 *            The class to start with.
+	 * @param methodName
+	 *            The method name.
+	 * @param parameterDescriptor
+	 *            The parameters part of the descriptor, e.g. <code>()</code>.
+	 * @return The return type's class name, or an empty optional in case the
+	 *         method was not found, does not return an object, or the hierarchy
+	 *         cannot be read.
+	 */
+	Optional<String> getReturnType(String className, String methodName, String parameterDescriptor) {
+		String prefix = methodName + parameterDescriptor;
+		String current = className;
+		while (current != null) {
+			Optional<ClassInfo> classInfo = getClassInfo(current);
+			if (classInfo.isEmpty()) {
+				return Optional.empty();
+			}
+			for (String method : classInfo.get().methods.keySet()) {
+				if (method.startsWith(prefix)) {
+					String returnType = method.substring(prefix.length());
+					if (returnType.startsWith("L") && returnType.endsWith(";")) {
+						return Optional.of(returnType.substring(1, returnType.length() - 1).replace('/', '.'));
+					}
+					return Optional.empty();
+				}
+			}
+			current = classInfo.get().superName;
+		}
+		return Optional.empty();
+	}
+
+	private Optional<ClassInfo> readClassInfo(String className) {
+		String resourceName = className.replace('.', '/') + ".class";
+		try (InputStream stream = classLoader.getResourceAsStream(resourceName)) {
+			if (stream == null) {
+				LOGGER.debug(String.format("Class file %s not found", resourceName));
+				return Optional.empty();
+			}
+			return Optional.of(parse(new DataInputStream(stream)));
+		} catch (IOException | RuntimeException e) {
+			LOGGER.debug(String.format("Could not parse class file %s", resourceName), e);
+			return Optional.empty();
+		}
+	}
+
+	/* package */ static ClassInfo parse(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a class file");
+		}
+		in.readUnsignedShort(); // minor version
+		in.readUnsignedShort(); // major version
+
+		int constantPoolCount = in.readUnsignedShort();
+		String[] utf8 = new String[constantPoolCount];
+		int[] classNameIndex = new int[constantPoolCount];
+		for (int i = 1; i < constantPoolCount; i++) {
+			int tag = in.readUnsignedByte();
+			switch (tag) {
+			case 1 -> utf8[i] = in.readUTF();
+			case 7 -> classNameIndex[i] = in.readUnsignedShort();
+			case 8, 16, 19, 20 -> in.skipNBytes(2);
+			case 15 -> in.skipNBytes(3);
+			case 3, 4, 9, 10, 11, 12, 17, 18 -> in.skipNBytes(4);
+			case 5, 6 -> {
+				// takes two entries
+				in.skipNBytes(8);
+				i++;
+			}
+			default -> throw new IOException("Unknown constant pool tag " + tag);
+			}
+		}
+
+		int access = in.readUnsignedShort();
+		String name = className(utf8, classNameIndex, in.readUnsignedShort());
+		int superIndex = in.readUnsignedShort();
+		String superName = superIndex != 0 ? className(utf8, classNameIndex, superIndex) : null;
+
+		int interfacesCount = in.readUnsignedShort();
+		List<String> interfaces = new ArrayList<>(interfacesCount);
+		for (int i = 0; i < interfacesCount; i++) {
+			interfaces.add(className(utf8, classNameIndex, in.readUnsignedShort()));
+		}
+
+		int fieldsCount = in.readUnsignedShort();
+		for (int i = 0; i < fieldsCount; i++) {
+			in.skipNBytes(6); // access, name, descriptor
+			skipAttributes(in);
+		}
+
+		int methodsCount = in.readUnsignedShort();
+		Map<String, Integer> methods = new LinkedHashMap<>();
+		for (int i = 0; i < methodsCount; i++) {
+			int methodAccess = in.readUnsignedShort();
+			String methodName = utf8[in.readUnsignedShort()];
+			String descriptor = utf8[in.readUnsignedShort()];
+			skipAttributes(in);
+			if ((methodAccess & (ACC_BRIDGE | ACC_SYNTHETIC)) == 0) {
+				methods.put(methodName + descriptor, methodAccess);
+			}
+		}
+		// class attributes are not needed
+
+		return new ClassInfo(name, access, superName, Collections.unmodifiableList(interfaces),
+				Collections.unmodifiableMap(methods));
+	}
+
+	private static String className(String[] utf8, int[] classNameIndex, int index) {
+		return utf8[classNameIndex[index]].replace('/', '.');
+	}
+
+	private static void skipAttributes(DataInputStream in) throws IOException {
+		int attributesCount = in.readUnsignedShort();
+		for (int i = 0; i < attributesCount; i++) {
+			in.skipNBytes(2);
+			in.skipNBytes(in.readInt() & 0xffffffffL);
+		}
+	}
+
+}
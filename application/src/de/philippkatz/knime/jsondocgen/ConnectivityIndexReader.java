@@ -0,0 +1,191 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Answers "which nodes can consume (or produce) a port object class" from the
+ * connectivity index written with <code>-format connectivity</code> (see
+ * {@link ConnectivityIndexWriter}). For each port object class, the index
+ * contains two sets of nodes, as bitsets over the node numbers:
+ *
+ * <ul>
+ * <li>consumers: nodes with an input port (or dynamic input port) which
+ * accepts the class, i.e. whose class is the class itself or one of its
+ * ancestors</li>
+ * <li>producers: nodes with an output port (or dynamic output port) whose
+ * class is the class itself or one of its descendants</li>
+ * </ul>
+ *
+ * So the nodes which can be connected downstream of a node are the union of
+ * the consumers of its output port classes. The file is memory-mapped; a
+ * lookup is a binary search over the class table and only decodes the
+ * requested bitset.
+ *
+ * The format is as follows (all numbers big-endian; "vint" as described in
+ * {@link SearchIndexReader}):
+ *
+ * <pre>
+ * header:      magic "JDGN" (4 bytes), version (int)
+ * documents:   the node IDs (UTF-8), in node number order
+ * classes:     the port object classes (UTF-8)
+ * bitsets:     per class: consumers, producers; each compressed as a sequence of runs:
+ *              number of zero words (vint), number of literal words (vint),
+ *              literal words (long each); the words as in {@link BitSet#toLongArray()}
+ * doc table:   per node: ID offset (long), ID length (int)
+ * class table: per class, sorted by class bytes (unsigned): class offset (long),
+ *              class length (int), consumers offset (long), consumers length (int),
+ *              producers offset (long), producers length (int)
+ * footer:      doc table offset (long), number of nodes (int),
+ *              class table offset (long), number of classes (int), magic "JDGN" (4 bytes)
+ * </pre>
+ *
+ * @author pk
+ */
+public final class ConnectivityIndexReader implements Closeable {
+
+	static final byte[] MAGIC = { 'J', 'D', 'G', 'N' };
+
+	static final int VERSION = 1;
+
+	private static final int FOOTER_SIZE = 2 * (Long.BYTES + Integer.BYTES) + MAGIC.length;
+
+	private static final int DOC_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+	private static final int CLASS_ENTRY_SIZE = 3 * (Long.BYTES + Integer.BYTES);
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer buffer;
+
+	private final int docTableOffset;
+
+	private final int numDocs;
+
+	private final int classTableOffset;
+
+	private final int numClasses;
+
+	/**
+	 * Open the given index.
+	 *
+	 * @param file
+	 *            The connectivity index file.
+	 * @throws IOException
+	 *             In case the file cannot be read or is not a valid index.
+	 */
+	public ConnectivityIndexReader(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			buffer = BinaryFormat.map(channel, file, MAGIC, VERSION, FOOTER_SIZE, "a connectivity index");
+			int footerOffset = buffer.capacity() - FOOTER_SIZE;
+			docTableOffset = (int) buffer.getLong(footerOffset);
+			numDocs = buffer.getInt(footerOffset + Long.BYTES);
+			classTableOffset = (int) buffer.getLong(footerOffset + Long.BYTES + Integer.BYTES);
+			numClasses = buffer.getInt(footerOffset + 2 * Long.BYTES + Integer.BYTES);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/** @return The number of nodes. */
+	public int getNumDocs() {
+		return numDocs;
+	}
+
+	/**
+	 * Get the node ID for a node number.
+	 *
+	 * @param doc
+	 *            The node number, between 0 and {@link #getNumDocs()}
+	 *            (exclusive).
+	 * @return The node ID.
+	 */
+	public String getNodeId(int doc) {
+		if (doc < 0 || doc >= numDocs) {
+			throw new IndexOutOfBoundsException(doc);
+		}
+		int entryOffset = docTableOffset + doc * DOC_ENTRY_SIZE;
+		return BinaryFormat.decode(buffer, (int) buffer.getLong(entryOffset),
+				buffer.getInt(entryOffset + Long.BYTES));
+	}
+
+	/** @return All port object classes in the index, sorted. */
+	public List<String> getPortObjectClasses() {
+		List<String> result = new ArrayList<>(numClasses);
+		for (int i = 0; i < numClasses; i++) {
+			int entryOffset = classTableOffset + i * CLASS_ENTRY_SIZE;
+			result.add(BinaryFormat.decode(buffer, (int) buffer.getLong(entryOffset),
+					buffer.getInt(entryOffset + Long.BYTES)));
+		}
+		return result;
+	}
+
+	/**
+	 * Get the nodes which accept the given class on an input port.
+	 *
+	 * @param portObjectClass
+	 *            The fully qualified port object class.
+	 * @return The node numbers; empty in case the class is unknown.
+	 */
+	public BitSet getConsumers(String portObjectClass) {
+		return getBitSet(portObjectClass, 1);
+	}
+
+	/**
+	 * Get the nodes which provide the given class on an output port.
+	 *
+	 * @param portObjectClass
+	 *            The fully qualified port object class.
+	 * @return The node numbers; empty in case the class is unknown.
+	 */
+	public BitSet getProducers(String portObjectClass) {
+		return getBitSet(portObjectClass, 2);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private BitSet getBitSet(String portObjectClass, int field) {
+		int index = BinaryFormat.find(buffer, classTableOffset, CLASS_ENTRY_SIZE, numClasses,
+				portObjectClass.getBytes(StandardCharsets.UTF_8));
+		if (index < 0) {
+			return new BitSet();
+		}
+		int entryOffset = classTableOffset + index * CLASS_ENTRY_SIZE + field * (Long.BYTES + Integer.BYTES);
+		ByteBuffer bitSet = buffer.duplicate();
+		bitSet.position((int) buffer.getLong(entryOffset));
+		bitSet.limit(bitSet.position() + buffer.getInt(entryOffset + Long.BYTES));
+		return decodeBitSet(bitSet);
+	}
+
+	/* package */ static BitSet decodeBitSet(ByteBuffer bytes) {
+		long[] words = new long[0];
+		int numWords = 0;
+		while (bytes.hasRemaining()) {
+			numWords += BinaryFormat.readVInt(bytes);
+			int numLiterals = BinaryFormat.readVInt(bytes);
+			if (words.length < numWords + numLiterals) {
+				words = Arrays.copyOf(words, Math.max(2 * words.length, numWords + numLiterals));
+			}
+			for (int i = 0; i < numLiterals; i++) {
+				words[numWords++] = bytes.getLong();
+			}
+		}
+		return BitSet.valueOf(Arrays.copyOf(words, numWords));
+	}
+
+}
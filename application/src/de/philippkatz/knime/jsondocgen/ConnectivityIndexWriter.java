@@ -0,0 +1,258 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.DynamicPortGroup;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+
+/**
+ * Collects the port object classes of the nodes as they arrive, and once the
+ * port type hierarchy is known, precomputes for each class the nodes which can
+ * consume and produce it; see {@link ConnectivityIndexReader} for the
+ * semantics and the format.
+ *
+ * In case the port types were skipped, each class is only compatible with
+ * itself.
+ *
+ * @author pk
+ */
+final class ConnectivityIndexWriter implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(ConnectivityIndexWriter.class);
+
+	/* package */ static final String CONNECTIVITY_INDEX_FILE = "nodeConnectivity.index";
+
+	/**
+	 * Write the index for the given nodes. In case an ID occurs multiple times,
+	 * only the first node is added.
+	 *
+	 * @param nodes
+	 *            The nodes.
+	 * @param rootPortType
+	 *            The root of the port type hierarchy, or <code>null</code>.
+	 * @param file
+	 *            The destination file.
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	static void write(List<NodeDoc> nodes, PortTypeDoc rootPortType, File file) throws IOException {
+		try (ConnectivityIndexWriter writer = new ConnectivityIndexWriter(file)) {
+			for (NodeDoc node : nodes) {
+				writer.add(node);
+			}
+			writer.portTypes(rootPortType);
+		}
+	}
+
+	private final List<String> nodeIds = new ArrayList<>();
+
+	private final Set<String> addedIds = new HashSet<>();
+
+	/** node number -> classes of the input ports */
+	private final List<Set<String>> inPortClasses = new ArrayList<>();
+
+	/** node number -> classes of the output ports */
+	private final List<Set<String>> outPortClasses = new ArrayList<>();
+
+	private final File file;
+
+	private PortTypeDoc rootPortType;
+
+	ConnectivityIndexWriter(File file) {
+		this.file = file;
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		add(node);
+	}
+
+	private void add(NodeDoc node) {
+		if (!BinaryFormat.isFirstOccurrence(addedIds, node.id)) {
+			return;
+		}
+		nodeIds.add(node.id);
+		inPortClasses.add(getPortObjectClasses(node.inPorts, node.dynamicInPorts));
+		outPortClasses.add(getPortObjectClasses(node.outPorts, node.dynamicOutPorts));
+	}
+
+	private static Set<String> getPortObjectClasses(List<Port> ports, List<DynamicPortGroup> portGroups) {
+		Set<String> result = new LinkedHashSet<>();
+		if (ports != null) {
+			for (Port port : ports) {
+				if (port.portObjectClass != null) {
+					result.add(port.portObjectClass);
+				}
+			}
+		}
+		if (portGroups != null) {
+			for (DynamicPortGroup portGroup : portGroups) {
+				if (portGroup.portObjectClasses != null) {
+					result.addAll(portGroup.portObjectClasses);
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void portTypes(PortTypeDoc rootPortType) throws IOException {
+		this.rootPortType = rootPortType;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (rootPortType == null) {
+			LOGGER.warn("No port types available, ports are only connectable to ports of the same class");
+		}
+		PortTypeHierarchy hierarchy = new PortTypeHierarchy(rootPortType);
+		Set<String> nodeClasses = new HashSet<>();
+		inPortClasses.forEach(nodeClasses::addAll);
+		outPortClasses.forEach(nodeClasses::addAll);
+		Map<String, Set<String>> descendants = hierarchy.getDescendants(nodeClasses);
+
+		Map<String, BitSet> consumers = new HashMap<>();
+		Map<String, BitSet> producers = new HashMap<>();
+		for (String portObjectClass : descendants.keySet()) {
+			consumers.put(portObjectClass, new BitSet());
+			producers.put(portObjectClass, new BitSet());
+		}
+		for (int doc = 0; doc < nodeIds.size(); doc++) {
+			// an input port accepts its class and all subclasses
+			for (String inPortClass : inPortClasses.get(doc)) {
+				for (String portObjectClass : descendants.get(inPortClass)) {
+					consumers.get(portObjectClass).set(doc);
+				}
+			}
+			// an output port provides its class and all superclasses
+			for (String outPortClass : outPortClasses.get(doc)) {
+				for (String portObjectClass : hierarchy.getAncestors(outPortClass)) {
+					producers.get(portObjectClass).set(doc);
+				}
+			}
+		}
+
+		List<byte[]> classes = new ArrayList<>();
+		for (String portObjectClass : descendants.keySet()) {
+			classes.add(portObjectClass.getBytes(StandardCharsets.UTF_8));
+		}
+		Collections.sort(classes, Arrays::compareUnsigned);
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+			out.write(ConnectivityIndexReader.MAGIC);
+			out.writeInt(ConnectivityIndexReader.VERSION);
+			long offset = out.size();
+
+			long[] idOffsets = new long[nodeIds.size()];
+			byte[][] ids = new byte[nodeIds.size()][];
+			for (int i = 0; i < nodeIds.size(); i++) {
+				ids[i] = nodeIds.get(i).getBytes(StandardCharsets.UTF_8);
+				idOffsets[i] = offset;
+				out.write(ids[i]);
+				offset += ids[i].length;
+			}
+
+			long[] classOffsets = new long[classes.size()];
+			for (int i = 0; i < classes.size(); i++) {
+				classOffsets[i] = offset;
+				out.write(classes.get(i));
+				offset += classes.get(i).length;
+			}
+
+			long[][] bitSetOffsets = new long[classes.size()][2];
+			int[][] bitSetLengths = new int[classes.size()][2];
+			long uncompressedSize = 2L * classes.size() * ((ids.length + 63) / 64) * Long.BYTES;
+			for (int i = 0; i < classes.size(); i++) {
+				String portObjectClass = new String(classes.get(i), StandardCharsets.UTF_8);
+				List<BitSet> bitSets = Arrays.asList(consumers.get(portObjectClass), producers.get(portObjectClass));
+				for (int j = 0; j < bitSets.size(); j++) {
+					ByteArrayOutputStream bytes = encodeBitSet(bitSets.get(j));
+					bitSetOffsets[i][j] = offset;
+					bitSetLengths[i][j] = bytes.size();
+					bytes.writeTo(out);
+					offset += bytes.size();
+				}
+			}
+
+			long docTableOffset = offset;
+			for (int i = 0; i < ids.length; i++) {
+				out.writeLong(idOffsets[i]);
+				out.writeInt(ids[i].length);
+				offset += Long.BYTES + Integer.BYTES;
+			}
+
+			long classTableOffset = offset;
+			for (int i = 0; i < classes.size(); i++) {
+				out.writeLong(classOffsets[i]);
+				out.writeInt(classes.get(i).length);
+				for (int j = 0; j < 2; j++) {
+					out.writeLong(bitSetOffsets[i][j]);
+					out.writeInt(bitSetLengths[i][j]);
+				}
+			}
+
+			out.writeLong(docTableOffset);
+			out.writeInt(ids.length);
+			out.writeLong(classTableOffset);
+			out.writeInt(classes.size());
+			out.write(ConnectivityIndexReader.MAGIC);
+
+			LOGGER.info(String.format("Wrote connectivity index for %s port object classes and %s nodes to %s "
+					+ "(bitsets: %s bytes, uncompressed %s bytes)", classes.size(), ids.length, file,
+					Arrays.stream(bitSetLengths).flatMapToInt(Arrays::stream).sum(), uncompressedSize));
+		}
+	}
+
+	/**
+	 * Encode a bitset as runs of zero words followed by literal words. Most
+	 * sets are sparse (a port class which only the nodes of one extension
+	 * accept), so the zero runs make up most of the uncompressed size; dense
+	 * sets are not larger than uncompressed.
+	 */
+	/* package */ static ByteArrayOutputStream encodeBitSet(BitSet bitSet) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		long[] words = bitSet.toLongArray();
+		int i = 0;
+		while (i < words.length) {
+			int zeroStart = i;
+			while (i < words.length && words[i] == 0) {
+				i++;
+			}
+			int literalStart = i;
+			while (i < words.length && words[i] != 0) {
+				i++;
+			}
+			BinaryFormat.writeVInt(bytes, literalStart - zeroStart);
+			BinaryFormat.writeVInt(bytes, i - literalStart);
+			for (int j = literalStart; j < i; j++) {
+				long word = words[j];
+				for (int shift = 56; shift >= 0; shift -= 8) {
+					bytes.write((int) (word >>> shift));
+				}
+			}
+		}
+		return bytes;
+	}
+
+}
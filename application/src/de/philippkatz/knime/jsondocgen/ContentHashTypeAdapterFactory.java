@@ -0,0 +1,386 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import de.philippkatz.knime.jsondocgen.docs.AbstractDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+
+/**
+ * Adds a <code>contentHash</code> property to every serialized
+ * {@link AbstractDoc} (i.e. nodes and categories) and {@link PortTypeDoc}.
+ *
+ * The hash is a SHA-256 over a canonical form of the serialized doc: object
+ * keys sorted, no whitespace, <code>null</code>s omitted. Nested docs are
+ * represented in the canonical form only by their own hash, so that every
+ * element is hashed exactly once (similar to a Merkle tree). Consumers can
+ * therefore compare two runs by ID and hash only.
+ *
+ * The hash is calculated while the doc is written: the canonical form of each
+ * doc's own properties is collected alongside, and the hash is written as the
+ * doc's last property. Thus no doc is buffered or serialized twice, only the
+ * canonical form of the doc which is currently written, without its nested
+ * docs.
+ *
+ * @author pk
+ */
+final class ContentHashTypeAdapterFactory implements TypeAdapterFactory {
+
+	/** Name of the property which holds the hash in the JSON output. */
+	static final String CONTENT_HASH = "contentHash";
+
+	@Override
+	public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+		Class<? super T> rawType = type.getRawType();
+		if (!AbstractDoc.class.isAssignableFrom(rawType) && !PortTypeDoc.class.isAssignableFrom(rawType)) {
+			return null;
+		}
+		TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+		return new TypeAdapter<T>() {
+			@Override
+			public void write(JsonWriter out, T value) throws IOException {
+				if (value == null) {
+					out.nullValue();
+					return;
+				}
+				// nested docs are written through the outermost doc's writer
+				HashingJsonWriter hashingWriter = out instanceof HashingJsonWriter hashing ? hashing
+						: new HashingJsonWriter(out);
+				hashingWriter.beginDoc();
+				delegate.write(hashingWriter, value);
+			}
+
+			@Override
+			public T read(JsonReader in) throws IOException {
+				// the hash is not part of the model; the reflective adapter
+				// simply ignores the unknown property
+				return delegate.read(in);
+			}
+		};
+	}
+
+	/** The canonical form of an object or array which is currently written. */
+	private static final class Frame {
+		/** Members by name, <code>null</code> for an array. */
+		final Map<String, String> members;
+		final StringJoiner items;
+		final boolean doc;
+		String name;
+
+		Frame(boolean object, boolean doc) {
+			members = object ? new TreeMap<>() : null;
+			items = object ? null : new StringJoiner(",", "[", "]");
+			this.doc = doc;
+		}
+
+		void add(String canonicalValue) {
+			if (members != null) {
+				// nulls are omitted from objects
+				if (canonicalValue != null) {
+					members.put(name, canonicalValue);
+				}
+				name = null;
+			} else {
+				items.add(canonicalValue != null ? canonicalValue : "null");
+			}
+		}
+
+		String toCanonical() throws IOException {
+			if (members == null) {
+				return items.toString();
+			}
+			StringJoiner joiner = new StringJoiner(",", "{", "}");
+			for (Map.Entry<String, String> member : members.entrySet()) {
+				joiner.add(quote(member.getKey()) + ':' + member.getValue());
+			}
+			return joiner.toString();
+		}
+	}
+
+	/**
+	 * Forwards to the actual writer, and collects the canonical form of the docs
+	 * which are currently written; ends each doc with its
+	 * {@value #CONTENT_HASH}.
+	 */
+	private static final class HashingJsonWriter extends JsonWriter {
+
+		private static final Writer UNWRITABLE_WRITER = new Writer() {
+			@Override
+			public void write(char[] buffer, int offset, int length) {
+				throw new AssertionError();
+			}
+
+			@Override
+			public void flush() {
+				throw new AssertionError();
+			}
+
+			@Override
+			public void close() {
+				throw new AssertionError();
+			}
+		};
+
+		private final JsonWriter target;
+
+		private final Deque<Frame> frames = new ArrayDeque<>();
+
+		/** The next object is a doc. */
+		private boolean docStarted;
+
+		HashingJsonWriter(JsonWriter target) {
+			super(UNWRITABLE_WRITER);
+			this.target = target;
+			setSerializeNulls(target.getSerializeNulls());
+			setLenient(target.isLenient());
+			setHtmlSafe(target.isHtmlSafe());
+		}
+
+		void beginDoc() {
+			docStarted = true;
+		}
+
+		private void add(String canonicalValue) {
+			Frame frame = frames.peek();
+			if (frame != null) {
+				frame.add(canonicalValue);
+			}
+		}
+
+		@Override
+		public JsonWriter beginArray() throws IOException {
+			frames.push(new Frame(false, false));
+			target.beginArray();
+			return this;
+		}
+
+		@Override
+		public JsonWriter endArray() throws IOException {
+			Frame frame = frames.pop();
+			target.endArray();
+			add(frame.toCanonical());
+			return this;
+		}
+
+		@Override
+		public JsonWriter beginObject() throws IOException {
+			frames.push(new Frame(true, docStarted));
+			docStarted = false;
+			target.beginObject();
+			return this;
+		}
+
+		@Override
+		public JsonWriter endObject() throws IOException {
+			Frame frame = frames.pop();
+			if (frame.doc) {
+				String contentHash = contentHash(frame.toCanonical());
+				target.name(CONTENT_HASH).value(contentHash);
+				target.endObject();
+				add(quote(contentHash));
+			} else {
+				target.endObject();
+				add(frame.toCanonical());
+			}
+			return this;
+		}
+
+		@Override
+		public JsonWriter name(String name) throws IOException {
+			target.name(name);
+			frames.element().name = name;
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(String value) throws IOException {
+			target.value(value);
+			add(value != null ? quote(value) : null);
+			return this;
+		}
+
+		@Override
+		public JsonWriter jsonValue(String value) throws IOException {
+			target.jsonValue(value);
+			add(value);
+			return this;
+		}
+
+		@Override
+		public JsonWriter nullValue() throws IOException {
+			target.nullValue();
+			add(null);
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(boolean value) throws IOException {
+			target.value(value);
+			add(String.valueOf(value));
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(Boolean value) throws IOException {
+			target.value(value);
+			add(value != null ? value.toString() : null);
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(float value) throws IOException {
+			target.value(value);
+			add(Float.toString(value));
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(double value) throws IOException {
+			target.value(value);
+			add(Double.toString(value));
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(long value) throws IOException {
+			target.value(value);
+			add(Long.toString(value));
+			return this;
+		}
+
+		@Override
+		public JsonWriter value(Number value) throws IOException {
+			target.value(value);
+			add(value != null ? value.toString() : null);
+			return this;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			target.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			// the writer is owned by the outermost doc's caller
+		}
+
+	}
+
+	/** @return The string as JSON string literal, as written by {@link JsonWriter}. */
+	private static String quote(String value) throws IOException {
+		StringWriter stringWriter = new StringWriter();
+		new JsonWriter(stringWriter).value(value);
+		return stringWriter.toString();
+	}
+
+	/**
+	 * Calculate the hash over the canonical form of the given object. Nested
+	 * objects which already carry a {@value #CONTENT_HASH} are represented by
+	 * that hash.
+	 *
+	 * @param object
+	 *            The serialized doc.
+	 * @return The hex-encoded SHA-256 hash.
+	 */
+	static String contentHash(JsonObject object) {
+		StringWriter canonical = new StringWriter();
+		try (JsonWriter writer = new JsonWriter(canonical)) {
+			writeCanonical(writer, object, true);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return contentHash(canonical.toString());
+	}
+
+	/**
+	 * Calculate the hash over a canonical form.
+	 *
+	 * @param canonical
+	 *            The canonical form; fragments in a {@link TextArena} are
+	 *            hashed with their content, not their handle.
+	 * @return The hex-encoded SHA-256 hash.
+	 */
+	private static String contentHash(String canonical) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		try (Writer writer = TextArena.resolving(new OutputStreamWriter(
+				new DigestOutputStream(OutputStream.nullOutputStream(), digest), StandardCharsets.UTF_8))) {
+			writer.write(canonical);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static void writeCanonical(JsonWriter writer, JsonElement element, boolean root) throws IOException {
+		if (element.isJsonObject()) {
+			JsonObject object = element.getAsJsonObject();
+			JsonElement nestedHash = object.get(CONTENT_HASH);
+			if (!root && nestedHash != null) {
+				writer.value(nestedHash.getAsString());
+				return;
+			}
+			List<Map.Entry<String, JsonElement>> entries = new ArrayList<>(object.entrySet());
+			entries.sort(Map.Entry.comparingByKey());
+			writer.beginObject();
+			for (Map.Entry<String, JsonElement> entry : entries) {
+				if (entry.getKey().equals(CONTENT_HASH) || entry.getValue().isJsonNull()) {
+					continue;
+				}
+				writer.name(entry.getKey());
+				writeCanonical(writer, entry.getValue(), false);
+			}
+			writer.endObject();
+		} else if (element.isJsonArray()) {
+			JsonArray array = element.getAsJsonArray();
+			writer.beginArray();
+			for (JsonElement item : array) {
+				writeCanonical(writer, item, false);
+			}
+			writer.endArray();
+		} else if (element.isJsonPrimitive()) {
+			JsonPrimitive primitive = element.getAsJsonPrimitive();
+			if (primitive.isBoolean()) {
+				writer.value(primitive.getAsBoolean());
+			} else if (primitive.isNumber()) {
+				writer.value(primitive.getAsNumber());
+			} else {
+				writer.value(primitive.getAsString());
+			}
+		} else {
+			writer.nullValue();
+		}
+	}
+
+}
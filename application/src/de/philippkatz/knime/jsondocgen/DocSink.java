@@ -0,0 +1,76 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+import de.philippkatz.knime.jsondocgen.docs.SplashIconDoc;
+
+/**
+ * Receives the docs while they are collected, so that several output formats
+ * can be rendered from a single traversal. The events arrive in the following
+ * order: {@link #node(String, NodeDoc)} for every node (while the repository
+ * is traversed), then {@link #rootCategory(CategoryDoc)},
+ * {@link #portTypes(PortTypeDoc)}, {@link #splashIcons(List)} and
+ * {@link #migrationRules(List)} (each only in case the corresponding part was
+ * not skipped), and finally {@link #close()}.
+ *
+ * All methods do nothing by default, so that sinks only need to implement the
+ * events they are interested in.
+ *
+ * @author pk
+ */
+public interface DocSink extends Closeable {
+
+	/**
+	 * A node was added.
+	 * 
+	 * @param categoryPath
+	 *            The path of the category which contains the node, e.g.
+	 *            <code>/community/selenium</code>.
+	 * @param node
+	 *            The node.
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	default void node(String categoryPath, NodeDoc node) throws IOException {
+		// nothing by default
+	}
+
+	/**
+	 * The traversal is complete.
+	 * 
+	 * @param rootCategory
+	 *            The root of the category tree, containing all nodes.
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	default void rootCategory(CategoryDoc rootCategory) throws IOException {
+		// nothing by default
+	}
+
+	default void portTypes(PortTypeDoc rootPortType) throws IOException {
+		// nothing by default
+	}
+
+	default void splashIcons(List<SplashIconDoc> splashIcons) throws IOException {
+		// nothing by default
+	}
+
+	default void migrationRules(List<MigrationRuleDoc> migrationRules) throws IOException {
+		// nothing by default
+	}
+
+	/**
+	 * All events have been sent; finish writing.
+	 */
+	@Override
+	default void close() throws IOException {
+		// nothing by default
+	}
+
+}
@@ -0,0 +1,315 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.log4j.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Keeps the generator running and accepts generation requests via HTTP on the
+ * loopback interface, so that the platform start-up and the loading of the node
+ * repository only need to be paid once.
+ *
+ * Endpoints:
+ * <ul>
+ * <li><code>POST /generate</code>: The body contains the command line options,
+ * one argument per line (e.g. <code>-destination</code>,
+ * <code>/tmp/docs</code>, <code>-plugin</code>, <code>org.example</code>);
+ * only the allowed options are accepted. Responds when the generation has
+ * finished.</li>
+ * <li><code>POST /shutdown</code>: Stops the daemon after the queued
+ * requests.</li>
+ * <li><code>GET /status</code>: Whether a request is running, and how many are
+ * queued; responds immediately.</li>
+ * </ul>
+ *
+ * Every request must carry the token, which is written to a file only readable
+ * by the current user (see {@link #getTokenFile()}), as
+ * <code>Authorization: Bearer &lt;token&gt;</code>. Requests with an
+ * <code>Origin</code> header or a non-loopback <code>Host</code> header are
+ * rejected, so that web pages cannot send requests (or rebind a DNS name to the
+ * loopback interface).
+ *
+ * The requests are executed one after another on the thread which calls
+ * {@link #run()}; for the generator, this is the application's main thread,
+ * which is also the SWT display thread. The HTTP exchanges are handled on a
+ * separate pool, so that waiting for a generation does not block other
+ * requests.
+ *
+ * @author pk
+ */
+final class GeneratorDaemon {
+
+	private static final Logger LOGGER = Logger.getLogger(GeneratorDaemon.class);
+
+	private static final Set<String> LOOPBACK_HOSTS = Set.of("localhost", "127.0.0.1", "[::1]");
+
+	/** Executes a request with the given arguments. */
+	@FunctionalInterface
+	interface RequestHandler {
+		void handle(String[] args) throws Exception;
+	}
+
+	/** A queued request; <code>args == null</code> means shutdown. */
+	private static final class Request {
+		final String[] args;
+		final CompletableFuture<Void> result = new CompletableFuture<>();
+
+		Request(String[] args) {
+			this.args = args;
+		}
+	}
+
+	private final RequestHandler handler;
+
+	private final Set<String> allowedFlags;
+
+	private final Set<String> allowedOptions;
+
+	private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+	private final HttpServer server;
+
+	private final ExecutorService executor;
+
+	private final byte[] token;
+
+	private final File tokenFile;
+
+	private volatile boolean running;
+
+	/**
+	 * Create the daemon and start listening.
+	 *
+	 * @param port
+	 *            The port on the loopback interface, or <code>0</code> to choose
+	 *            a free port.
+	 * @param tokenDirectory
+	 *            Directory where the token file is written.
+	 * @param allowedFlags
+	 *            The options without value which are allowed in a request.
+	 * @param allowedOptions
+	 *            The options with a value which are allowed in a request.
+	 * @param handler
+	 *            Executes the generation requests.
+	 * @throws IOException
+	 *             In case the port cannot be bound or the token file cannot be
+	 *             written.
+	 */
+	GeneratorDaemon(int port, File tokenDirectory, Set<String> allowedFlags, Set<String> allowedOptions,
+			RequestHandler handler) throws IOException {
+		this.handler = handler;
+		this.allowedFlags = allowedFlags;
+		this.allowedOptions = allowedOptions;
+		byte[] randomBytes = new byte[32];
+		new SecureRandom().nextBytes(randomBytes);
+		token = HexFormat.of().formatHex(randomBytes).getBytes(StandardCharsets.US_ASCII);
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		tokenFile = new File(tokenDirectory, "jsondocgen-daemon-" + getPort() + ".token");
+		try {
+			writeTokenFile(tokenFile.toPath(), token);
+		} catch (IOException e) {
+			server.stop(0);
+			throw e;
+		}
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "GeneratorDaemon-http");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.createContext("/generate", exchange -> handle(exchange, "POST", () -> enqueue(exchange, true)));
+		server.createContext("/shutdown", exchange -> handle(exchange, "POST", () -> enqueue(exchange, false)));
+		server.createContext("/status", exchange -> handle(exchange, "GET",
+				() -> respond(exchange, 200, (running ? "running" : "idle") + ", " + queue.size() + " queued")));
+		server.start();
+		LOGGER.info(String.format("Listening on http://%s:%s/, token in %s",
+				InetAddress.getLoopbackAddress().getHostAddress(), getPort(), tokenFile));
+	}
+
+	/** @return The port on which the daemon listens. */
+	int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/** @return The file which contains the token; deleted when stopping. */
+	File getTokenFile() {
+		return tokenFile;
+	}
+
+	/**
+	 * Execute the incoming requests on the calling thread until a shutdown
+	 * request arrives.
+	 *
+	 * @throws InterruptedException
+	 *             In case the thread was interrupted while waiting.
+	 */
+	void run() throws InterruptedException {
+		try {
+			for (;;) {
+				Request request = queue.take();
+				if (request.args == null) {
+					request.result.complete(null);
+					break;
+				}
+				long start = System.currentTimeMillis();
+				running = true;
+				try {
+					handler.handle(request.args);
+					LOGGER.info(String.format("Finished request in %s ms", System.currentTimeMillis() - start));
+					request.result.complete(null);
+				} catch (Throwable t) {
+					// same as in the generator: never let anything escape
+					LOGGER.error("Request failed", t);
+					request.result.completeExceptionally(t);
+				} finally {
+					running = false;
+				}
+			}
+		} finally {
+			// give the shutdown response a moment to be sent
+			server.stop(1);
+			executor.shutdownNow();
+			if (!tokenFile.delete()) {
+				LOGGER.warn("Could not delete " + tokenFile);
+			}
+			LOGGER.info("Stopped");
+		}
+	}
+
+	/** Handles an exchange after it was checked. */
+	@FunctionalInterface
+	private interface ExchangeHandler {
+		void handle() throws IOException;
+	}
+
+	private void handle(HttpExchange exchange, String method, ExchangeHandler exchangeHandler) throws IOException {
+		try (exchange) {
+			String error = checkOrigin(exchange.getRequestHeaders().getFirst("Origin"),
+					exchange.getRequestHeaders().getFirst("Host"));
+			if (error != null) {
+				LOGGER.warn(String.format("Rejected request to %s: %s", exchange.getRequestURI(), error));
+				respond(exchange, 403, error);
+			} else if (!checkToken(exchange.getRequestHeaders().getFirst("Authorization"))) {
+				LOGGER.warn(String.format("Rejected request to %s without valid token", exchange.getRequestURI()));
+				respond(exchange, 401, "Missing or wrong token");
+			} else if (!method.equals(exchange.getRequestMethod())) {
+				respond(exchange, 405, "Use " + method);
+			} else {
+				exchangeHandler.handle();
+			}
+		}
+	}
+
+	/** @return The reason to reject a request, or <code>null</code> if it is allowed. */
+	/* package */ static String checkOrigin(String origin, String host) {
+		if (origin != null) {
+			return "Cross-origin requests are not allowed";
+		}
+		if (host == null || !LOOPBACK_HOSTS.contains(host.replaceFirst(":\\d+$", "").toLowerCase())) {
+			return "Host must be a loopback address";
+		}
+		return null;
+	}
+
+	private boolean checkToken(String authorization) {
+		String prefix = "Bearer ";
+		return authorization != null && authorization.startsWith(prefix) && MessageDigest.isEqual(token,
+				authorization.substring(prefix.length()).trim().getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private void enqueue(HttpExchange exchange, boolean generate) throws IOException {
+		Request request;
+		try (InputStream body = exchange.getRequestBody()) {
+			String[] args = null;
+			if (generate) {
+				args = parseArgs(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+				String error = checkArgs(args);
+				if (error != null) {
+					respond(exchange, 400, error);
+					return;
+				}
+			}
+			request = new Request(args);
+		}
+		queue.add(request);
+		try {
+			request.result.get();
+			respond(exchange, 200, "OK");
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			int status = cause instanceof IllegalArgumentException ? 400 : 500;
+			respond(exchange, status, String.valueOf(cause));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			respond(exchange, 503, "Interrupted");
+		}
+	}
+
+	/* package */ static String[] parseArgs(String body) {
+		return body.lines().map(String::trim).filter(line -> !line.isEmpty()).toArray(String[]::new);
+	}
+
+	/** @return The reason to reject the arguments, or <code>null</code> if they are allowed. */
+	/* package */ String checkArgs(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			if (allowedOptions.contains(args[i])) {
+				if (i + 1 >= args.length) {
+					return "Missing value for " + args[i];
+				}
+				i++;
+			} else if (!allowedFlags.contains(args[i])) {
+				return "Argument not allowed: " + args[i];
+			}
+		}
+		return null;
+	}
+
+	private static void writeTokenFile(Path path, byte[] token) throws IOException {
+		Files.deleteIfExists(path);
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+		} else {
+			Files.createFile(path);
+			File file = path.toFile();
+			// remove the permissions for everybody, then grant them to the owner
+			if (!(file.setReadable(false, false) && file.setReadable(true, true) && file.setWritable(false, false)
+					&& file.setWritable(true, true))) {
+				LOGGER.warn("Could not restrict the permissions of " + path);
+			}
+		}
+		Files.write(path, token);
+	}
+
+	private static void respond(HttpExchange exchange, int status, String message) throws IOException {
+		byte[] bytes = (message + "\n").getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+}
@@ -0,0 +1,279 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+
+import javax.imageio.ImageIO;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Re-encodes PNG icons losslessly with the smallest encoding found: palette
+ * with the lowest possible bit depth, RGB instead of RGBA for opaque images,
+ * per-row filter selection and maximum deflate compression. Every result is
+ * decoded again and only used when the pixels are identical and it is actually
+ * smaller; otherwise the original is kept.
+ *
+ * Each distinct icon is only optimized once, the results are cached by the
+ * original's Base64 string. Instances are thread-safe.
+ *
+ * @author pk
+ */
+final class IconOptimizer {
+
+	private static final Logger LOGGER = Logger.getLogger(IconOptimizer.class);
+
+	private final Map<String, String> cache = new ConcurrentHashMap<>();
+
+	private final AtomicLong originalBytes = new AtomicLong();
+
+	private final AtomicLong optimizedBytes = new AtomicLong();
+
+	/**
+	 * Optimize the given icon.
+	 *
+	 * @param pngBase64
+	 *            The Base64-encoded PNG, may be <code>null</code>.
+	 * @return The optimized icon, or the given one in case it could not be
+	 *         improved.
+	 */
+	String optimize(String pngBase64) {
+		if (pngBase64 == null) {
+			return null;
+		}
+		return cache.computeIfAbsent(pngBase64, key -> {
+			byte[] original = Base64.getDecoder().decode(key);
+			byte[] optimized = optimize(original);
+			originalBytes.addAndGet(original.length);
+			optimizedBytes.addAndGet(optimized.length);
+			return optimized == original ? key : Base64.getEncoder().encodeToString(optimized);
+		});
+	}
+
+	/** Log the savings. */
+	void logStatistics() {
+		LOGGER.info(String.format("Optimized %s distinct icons from %s to %s bytes", cache.size(), originalBytes.get(),
+				optimizedBytes.get()));
+	}
+
+	/**
+	 * Optimize the given PNG.
+	 *
+	 * @param png
+	 *            The PNG file's bytes.
+	 * @return The optimized bytes, or the given array in case it could not be
+	 *         improved.
+	 */
+	static byte[] optimize(byte[] png) {
+		try {
+			BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+			if (!isExact(image)) {
+				return png;
+			}
+			int width = image.getWidth();
+			int height = image.getHeight();
+			int[] argb = getArgb(image);
+
+			byte[] best = png;
+			byte[] candidate = encodePalette(argb, width, height);
+			if (candidate != null && candidate.length < best.length) {
+				best = candidate;
+			}
+			candidate = encodeTrueColor(argb, width, height);
+			if (candidate.length < best.length) {
+				best = candidate;
+			}
+			if (best != png && !Arrays.equals(argb, getArgb(ImageIO.read(new ByteArrayInputStream(best))))) {
+				LOGGER.warn("Optimized icon differs from the original, keeping the original");
+				return png;
+			}
+			return best;
+		} catch (IOException | RuntimeException e) {
+			LOGGER.debug("Could not optimize icon", e);
+			return png;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> in case the image can be represented exactly as
+	 *         8-bit sRGB (i.e. not 16 bit, grayscale, or with an ICC profile).
+	 */
+	private static boolean isExact(BufferedImage image) {
+		if (image == null) {
+			return false;
+		}
+		ColorModel colorModel = image.getColorModel();
+		if (!colorModel.getColorSpace().isCS_sRGB()) {
+			return false;
+		}
+		for (int size : colorModel.getComponentSize()) {
+			if (size > 8) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int[] getArgb(BufferedImage image) {
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
+	private static byte[] encodePalette(int[] argb, int width, int height) throws IOException {
+		// transparent colors first, so that the tRNS chunk is as short as possible
+		Map<Integer, Integer> indices = new LinkedHashMap<>();
+		int[] colors = Arrays.stream(argb).distinct().boxed()
+				.sorted((color1, color2) -> Integer.compare(color1 >>> 24 == 0xff ? 1 : 0, color2 >>> 24 == 0xff ? 1 : 0))
+				.mapToInt(Integer::intValue).toArray();
+		if (colors.length > 256) {
+			return null;
+		}
+		int numTransparent = 0;
+		for (int i = 0; i < colors.length; i++) {
+			indices.put(colors[i], i);
+			if (colors[i] >>> 24 != 0xff) {
+				numTransparent = i + 1;
+			}
+		}
+		int bitDepth = colors.length <= 2 ? 1 : colors.length <= 4 ? 2 : colors.length <= 16 ? 4 : 8;
+
+		int rowBytes = (width * bitDepth + 7) / 8;
+		byte[][] rows = new byte[height][rowBytes];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int index = indices.get(argb[y * width + x]);
+				int bit = x * bitDepth;
+				rows[y][bit / 8] |= index << (8 - bitDepth - bit % 8);
+			}
+		}
+
+		byte[] palette = new byte[colors.length * 3];
+		byte[] transparency = new byte[numTransparent];
+		for (int i = 0; i < colors.length; i++) {
+			palette[i * 3] = (byte) (colors[i] >>> 16);
+			palette[i * 3 + 1] = (byte) (colors[i] >>> 8);
+			palette[i * 3 + 2] = (byte) colors[i];
+			if (i < numTransparent) {
+				transparency[i] = (byte) (colors[i] >>> 24);
+			}
+		}
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PngEncoder.writeHeader(out, width, height, bitDepth, PngEncoder.COLOR_TYPE_PALETTE);
+		PngEncoder.writeChunk(out, "PLTE", palette);
+		if (numTransparent > 0) {
+			PngEncoder.writeChunk(out, "tRNS", transparency);
+		}
+		writeData(out, rows, 1);
+		return out.toByteArray();
+	}
+
+	private static byte[] encodeTrueColor(int[] argb, int width, int height) throws IOException {
+		boolean opaque = Arrays.stream(argb).allMatch(pixel -> pixel >>> 24 == 0xff);
+		int bytesPerPixel = opaque ? 3 : 4;
+		byte[][] rows = new byte[height][width * bytesPerPixel];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int pixel = argb[y * width + x];
+				int offset = x * bytesPerPixel;
+				rows[y][offset] = (byte) (pixel >>> 16);
+				rows[y][offset + 1] = (byte) (pixel >>> 8);
+				rows[y][offset + 2] = (byte) pixel;
+				if (!opaque) {
+					rows[y][offset + 3] = (byte) (pixel >>> 24);
+				}
+			}
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PngEncoder.writeHeader(out, width, height, 8, opaque ? PngEncoder.COLOR_TYPE_RGB : PngEncoder.COLOR_TYPE_RGBA);
+		writeData(out, rows, bytesPerPixel);
+		return out.toByteArray();
+	}
+
+	/** Write the smaller of unfiltered and adaptively filtered data. */
+	private static void writeData(ByteArrayOutputStream out, byte[][] rows, int bytesPerPixel) throws IOException {
+		byte[] unfiltered = PngEncoder.deflate(filter(rows, bytesPerPixel, false), Deflater.BEST_COMPRESSION);
+		byte[] filtered = PngEncoder.deflate(filter(rows, bytesPerPixel, true), Deflater.BEST_COMPRESSION);
+		PngEncoder.writeChunk(out, "IDAT", filtered.length < unfiltered.length ? filtered : unfiltered);
+		PngEncoder.writeChunk(out, "IEND", new byte[0]);
+	}
+
+	/**
+	 * Prefix each row with its filter type; with <code>adaptive</code>, choose
+	 * the filter with the minimum sum of absolute differences for each row.
+	 */
+	private static byte[] filter(byte[][] rows, int bytesPerPixel, boolean adaptive) {
+		int rowBytes = rows.length > 0 ? rows[0].length : 0;
+		ByteArrayOutputStream result = new ByteArrayOutputStream(rows.length * (rowBytes + 1));
+		byte[] previous = new byte[rowBytes];
+		byte[] filtered = new byte[rowBytes];
+		byte[] best = new byte[rowBytes];
+		for (byte[] row : rows) {
+			int bestType = 0;
+			System.arraycopy(row, 0, best, 0, rowBytes);
+			if (adaptive) {
+				long bestSum = sum(row);
+				for (int type = 1; type <= 4; type++) {
+					applyFilter(type, row, previous, bytesPerPixel, filtered);
+					long sum = sum(filtered);
+					if (sum < bestSum) {
+						bestSum = sum;
+						bestType = type;
+						System.arraycopy(filtered, 0, best, 0, rowBytes);
+					}
+				}
+			}
+			result.write(bestType);
+			result.write(best, 0, rowBytes);
+			previous = row;
+		}
+		return result.toByteArray();
+	}
+
+	private static void applyFilter(int type, byte[] row, byte[] previous, int bytesPerPixel, byte[] result) {
+		for (int i = 0; i < row.length; i++) {
+			int current = row[i] & 0xff;
+			int left = i >= bytesPerPixel ? row[i - bytesPerPixel] & 0xff : 0;
+			int up = previous[i] & 0xff;
+			int upLeft = i >= bytesPerPixel ? previous[i - bytesPerPixel] & 0xff : 0;
+			int predicted = switch (type) {
+			case 1 -> left;
+			case 2 -> up;
+			case 3 -> (left + up) >>> 1;
+			case 4 -> paeth(left, up, upLeft);
+			default -> 0;
+			};
+			result[i] = (byte) (current - predicted);
+		}
+	}
+
+	private static int paeth(int left, int up, int upLeft) {
+		int estimate = left + up - upLeft;
+		int distanceLeft = Math.abs(estimate - left);
+		int distanceUp = Math.abs(estimate - up);
+		int distanceUpLeft = Math.abs(estimate - upLeft);
+		if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft) {
+			return left;
+		}
+		return distanceUp <= distanceUpLeft ? up : upLeft;
+	}
+
+	/** Sum of the bytes interpreted as signed values, the usual heuristic. */
+	private static long sum(byte[] bytes) {
+		long sum = 0;
+		for (byte value : bytes) {
+			sum += Math.abs(value);
+		}
+		return sum;
+	}
+
+}
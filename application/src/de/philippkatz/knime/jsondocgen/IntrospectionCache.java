@@ -0,0 +1,258 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.DynamicPortGroup;
+
+/**
+ * Persists everything the generator determines by instantiating a node's
+ * factory, {@link org.knime.core.node.Node} and
+ * {@link org.knime.core.node.NodeModel} (ports, streamability, dynamic port
+ * groups, keywords, dialog types). This only changes when the contributing
+ * bundle changes, so an entry is valid as long as the factory class, bundle
+ * symbolic name and bundle version match.
+ *
+ * @author pk
+ */
+final class IntrospectionCache {
+
+	private static final Logger LOGGER = Logger.getLogger(IntrospectionCache.class);
+
+	/** Increment when the structure of {@link Entry} changes. */
+	private static final int VERSION = 1;
+
+	/** A port as determined from the node's implementation. */
+	static final class PortInfo {
+		final String portObjectClass;
+		final boolean optional;
+
+		PortInfo(String portObjectClass, boolean optional) {
+			this.portObjectClass = portObjectClass;
+			this.optional = optional;
+		}
+	}
+
+	/** The introspection results for one node. */
+	static final class Entry {
+		final String factoryClass;
+		final String bundle;
+		final String bundleVersion;
+		/** <code>null</code> in case the NodeModel could not be created. */
+		final List<PortInfo> inPorts;
+		/** <code>null</code> in case the NodeModel could not be created. */
+		final List<PortInfo> outPorts;
+		final Boolean streamable;
+		final List<DynamicPortGroup> dynamicInPorts;
+		final List<DynamicPortGroup> dynamicOutPorts;
+		final List<String> keywords;
+		final String sinceVersion;
+		final boolean hasModernDialog;
+		final boolean hasKaiInterface;
+
+		Entry(String factoryClass, String bundle, String bundleVersion, List<PortInfo> inPorts,
+				List<PortInfo> outPorts, Boolean streamable, List<DynamicPortGroup> dynamicInPorts,
+				List<DynamicPortGroup> dynamicOutPorts, List<String> keywords, String sinceVersion,
+				boolean hasModernDialog, boolean hasKaiInterface) {
+			this.factoryClass = factoryClass;
+			this.bundle = bundle;
+			this.bundleVersion = bundleVersion;
+			this.inPorts = inPorts;
+			this.outPorts = outPorts;
+			this.streamable = streamable;
+			this.dynamicInPorts = dynamicInPorts;
+			this.dynamicOutPorts = dynamicOutPorts;
+			this.keywords = keywords;
+			this.sinceVersion = sinceVersion;
+			this.hasModernDialog = hasModernDialog;
+			this.hasKaiInterface = hasKaiInterface;
+		}
+
+		/**
+		 * @return <code>false</code> in case the NodeModel could not be created;
+		 *         such entries are not cached, so that the introspection is
+		 *         retried with the next run.
+		 */
+		boolean isComplete() {
+			return inPorts != null && outPorts != null && streamable != null;
+		}
+	}
+
+	/** The file's content. */
+	private static final class CacheFile {
+		int version;
+		Map<String, Entry> entries;
+	}
+
+	/** The backing file, or <code>null</code> for a cache which is only kept in memory. */
+	private final File file;
+
+	/** Entries by node ID. */
+	private final Map<String, Entry> entries;
+
+	private final AtomicInteger hits = new AtomicInteger();
+
+	private final AtomicInteger misses = new AtomicInteger();
+
+	private IntrospectionCache(File file, Map<String, Entry> entries) {
+		this.file = file;
+		this.entries = entries;
+	}
+
+	/**
+	 * Create an empty cache which is only kept in memory, e.g. across the
+	 * requests of the {@link GeneratorDaemon}.
+	 *
+	 * @return The cache.
+	 */
+	static IntrospectionCache inMemory() {
+		return new IntrospectionCache(null, new TreeMap<>());
+	}
+
+	/**
+	 * Read the cache from the given file.
+	 *
+	 * @param file
+	 *            The cache file; in case it does not exist or cannot be read, an
+	 *            empty cache is returned.
+	 * @return The cache.
+	 */
+	static IntrospectionCache read(File file) {
+		Map<String, Entry> entries = new TreeMap<>();
+		if (file.isFile()) {
+			try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+				CacheFile cacheFile = new Gson().fromJson(reader, CacheFile.class);
+				if (cacheFile != null && cacheFile.version == VERSION && cacheFile.entries != null) {
+					entries.putAll(cacheFile.entries);
+				} else {
+					LOGGER.info(String.format("Ignoring introspection cache %s with different version", file));
+				}
+			} catch (IOException | JsonParseException e) {
+				LOGGER.warn(String.format("Could not read introspection cache %s, starting empty", file), e);
+			}
+		}
+		LOGGER.info(String.format("Read %s entries from introspection cache %s", entries.size(), file));
+		return new IntrospectionCache(file, entries);
+	}
+
+	/**
+	 * Get the cached entry for a node.
+	 *
+	 * @param nodeId
+	 *            The node's ID.
+	 * @param factoryClass
+	 *            The factory class name.
+	 * @param bundle
+	 *            The symbolic name of the bundle which contains the factory.
+	 * @param bundleVersion
+	 *            The bundle's version.
+	 * @return The entry, or <code>null</code> in case there is none, it was
+	 *         created for a different factory or bundle version, or it is
+	 *         incomplete.
+	 */
+	synchronized Entry get(String nodeId, String factoryClass, String bundle, String bundleVersion) {
+		Entry entry = entries.get(nodeId);
+		if (entry != null && entry.isComplete() && entry.factoryClass.equals(factoryClass) && Objects.equals(entry.bundle, bundle)
+				&& Objects.equals(entry.bundleVersion, bundleVersion)) {
+			hits.incrementAndGet();
+			return entry;
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Add or replace the entry for a node. An incomplete entry is not added, but
+	 * removes the previous one.
+	 *
+	 * @param nodeId
+	 *            The node's ID.
+	 * @param entry
+	 *            The entry.
+	 */
+	synchronized void put(String nodeId, Entry entry) {
+		if (entry.isComplete()) {
+			entries.put(nodeId, entry);
+		} else {
+			entries.remove(nodeId);
+		}
+	}
+
+	/**
+	 * Write the cache back to its file. It is written to a temporary file first
+	 * and then moved, so that the file is never left half-written. Does nothing
+	 * but logging for a cache which is only kept in memory.
+	 *
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	synchronized void write() throws IOException {
+		if (file == null) {
+			LOGGER.info(String.format("Introspection cache: %s hits, %s misses; keeping %s entries in memory",
+					hits.get(), misses.get(), entries.size()));
+			return;
+		}
+		LOGGER.info(String.format("Introspection cache: %s hits, %s misses; writing %s entries to %s", hits.get(),
+				misses.get(), entries.size(), file));
+		CacheFile cacheFile = new CacheFile();
+		cacheFile.version = VERSION;
+		cacheFile.entries = entries;
+		File directory = file.getAbsoluteFile().getParentFile();
+		Path temporaryFile = Files.createTempFile(directory.toPath(), file.getName(), ".tmp");
+		try {
+			try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+				new Gson().toJson(cacheFile, writer);
+			}
+			Files.move(temporaryFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Merge the caches which were written by the shard processes of a
+	 * {@link ShardedCrawl} back into the cache they were copied from. As each
+	 * shard introspects a disjoint set of nodes, only the entries which a shard
+	 * added or changed compared to the original are taken over.
+	 *
+	 * @param file
+	 *            The original cache file, which is overwritten.
+	 * @param shardFiles
+	 *            The shards' cache files.
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	static void merge(File file, List<File> shardFiles) throws IOException {
+		Gson gson = new Gson();
+		IntrospectionCache merged = read(file);
+		Map<String, Entry> original = new TreeMap<>(merged.entries);
+		for (File shardFile : shardFiles) {
+			for (Map.Entry<String, Entry> shardEntry : read(shardFile).entries.entrySet()) {
+				Entry originalEntry = original.get(shardEntry.getKey());
+				if (originalEntry == null
+						|| !gson.toJsonTree(originalEntry).equals(gson.toJsonTree(shardEntry.getValue()))) {
+					merged.entries.put(shardEntry.getKey(), shardEntry.getValue());
+				}
+			}
+		}
+		merged.write();
+	}
+
+}
@@ -0,0 +1,99 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import com.google.gson.Gson;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+import de.philippkatz.knime.jsondocgen.docs.SplashIconDoc;
+
+/**
+ * Writes the classic JSON files (<code>nodeDocumentation.json</code>,
+ * <code>portDocumentation.json</code>, …); either indented, or compact with a
+ * <code>.min.json</code> suffix.
+ *
+ * @author pk
+ */
+final class JsonDocSink implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(JsonDocSink.class);
+
+	private final File directory;
+
+	private final boolean prettyPrinting;
+
+	private final PluginStatistics pluginStatistics;
+
+	/**
+	 * @param directory
+	 *            The destination directory.
+	 * @param prettyPrinting
+	 *            <code>true</code> for the indented files,
+	 *            <code>false</code> for the compact <code>.min.json</code>
+	 *            files.
+	 */
+	JsonDocSink(File directory, boolean prettyPrinting) {
+		this.directory = directory;
+		this.prettyPrinting = prettyPrinting;
+		pluginStatistics = new PluginStatistics();
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		pluginStatistics.add(node);
+	}
+
+	@Override
+	public void rootCategory(CategoryDoc rootCategory) throws IOException {
+		File file = getFile(OutputRenderer.NODE_DOCUMENTATION_FILE);
+		LOGGER.info(String.format("Writing nodes to %s", file));
+		// the nodes' sizes are counted while writing
+		Gson gson = Utils.createGsonBuilder(prettyPrinting)
+				.registerTypeAdapterFactory(pluginStatistics.serializedBytes()).create();
+		try (Writer writer = pluginStatistics
+				.counting(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+			gson.toJson(rootCategory, TextArena.resolving(writer));
+		}
+		write(pluginStatistics.getStatistics(), OutputRenderer.PLUGINS_FILE, "plugin statistics");
+	}
+
+	@Override
+	public void portTypes(PortTypeDoc rootPortType) throws IOException {
+		write(rootPortType, OutputRenderer.PORT_DOCUMENTATION_FILE, "port types");
+		write(new PortTypeHierarchy(rootPortType).getAncestry(), OutputRenderer.PORT_ANCESTRY_FILE,
+				"port type ancestry");
+	}
+
+	@Override
+	public void splashIcons(List<SplashIconDoc> splashIcons) throws IOException {
+		write(splashIcons, OutputRenderer.SPLASH_ICONS_FILE, "splash icons");
+	}
+
+	@Override
+	public void migrationRules(List<MigrationRuleDoc> migrationRules) throws IOException {
+		write(migrationRules, OutputRenderer.MIGRATIONS_FILE, "migrations");
+		write(MigrationChainResolver.resolve(migrationRules), OutputRenderer.MIGRATION_CHAINS_FILE,
+				"migration chains");
+	}
+
+	private void write(Object doc, String fileName, String description) throws IOException {
+		File file = getFile(fileName);
+		LOGGER.info(String.format("Writing %s to %s", description, file));
+		Utils.writeJson(doc, file, prettyPrinting);
+	}
+
+	private File getFile(String fileName) {
+		return new File(directory, prettyPrinting ? fileName : fileName.replace(".json", ".min.json"));
+	}
+
+}
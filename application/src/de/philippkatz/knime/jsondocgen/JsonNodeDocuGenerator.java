@@ -48,13 +48,14 @@
 package de.philippkatz.knime.jsondocgen;
 
 import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.URL;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -68,6 +69,8 @@ import javax.xml.transform.TransformerException;
 
 import org.apache.log4j.Logger;
 import org.apache.log4j.xml.DOMConfigurator;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.equinox.app.IApplication;
 import org.eclipse.equinox.app.IApplicationContext;
 import org.eclipse.swt.widgets.Display;
@@ -96,10 +99,14 @@ import org.knime.workbench.repository.model.IContainerObject;
 import org.knime.workbench.repository.model.IRepositoryObject;
 import org.knime.workbench.repository.model.NodeTemplate;
 import org.knime.workbench.repository.model.Root;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
 import org.w3c.dom.Element;
 
 import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
 import de.philippkatz.knime.jsondocgen.docs.CategoryDoc.CategoryDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
 import de.philippkatz.knime.jsondocgen.docs.NodeDoc.DynamicPortGroup;
 import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
 import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
@@ -121,21 +128,66 @@ public class JsonNodeDocuGenerator implements IApplication {
 
 	private static final Logger LOGGER = Logger.getLogger(JsonNodeDocuGenerator.class);
 
-	private static final String DESTINATION_ARG = "-destination";
+	/* package */ static final String DESTINATION_ARG = "-destination";
 
 	private static final String CATEGORY_ARG = "-category";
 
-	private static final String PLUGIN_ARG = "-plugin";
+	/* package */ static final String PLUGIN_ARG = "-plugin";
 
 	private static final String INCLUDE_DEPRECATED_ARG = "-includeDeprecated";
 
 	private static final String SKIP_NODE_DOCUMENTATION = "-skipNodeDocumentation";
 
-	private static final String SKIP_PORT_DOCUMENTATION = "-skipPortDocumentation";
+	/* package */ static final String SKIP_PORT_DOCUMENTATION = "-skipPortDocumentation";
 
-	private static final String SKIP_SPLASH_ICONS = "-skipSplashIcons";
+	/* package */ static final String SKIP_SPLASH_ICONS = "-skipSplashIcons";
 
-	private static final String SKIP_MIGRATION_RULES = "-skipMigrationRules";
+	/* package */ static final String SKIP_MIGRATION_RULES = "-skipMigrationRules";
+
+	/* package */ static final String PREVIOUS_ARG = "-previous";
+
+	/* package */ static final String NODE_ARCHIVE_ARG = "-nodeArchive";
+
+	/* package */ static final String SNAPSHOT_ARG = "-snapshot";
+
+	/* package */ static final String FORMAT_ARG = "-format";
+
+	private static final String DAEMON_ARG = "-daemon";
+
+	private static final String OPTIMIZE_ICONS_ARG = "-optimizeIcons";
+
+	/* package */ static final String INTROSPECTION_CACHE_ARG = "-introspectionCache";
+
+	private static final String DOCS_ONLY_ARG = "-docsOnly";
+
+	private static final String WARM_UP_ARG = "-warmUp";
+
+	private static final String TEXT_ARENA_ARG = "-textArena";
+
+	/* package */ static final String PROCESSES_ARG = "-processes";
+
+	/* the options without value which may be passed in a daemon request */
+	private static final Set<String> DAEMON_FLAGS = Set.of(INCLUDE_DEPRECATED_ARG, SKIP_NODE_DOCUMENTATION,
+			SKIP_PORT_DOCUMENTATION, SKIP_SPLASH_ICONS, SKIP_MIGRATION_RULES, NODE_ARCHIVE_ARG, DOCS_ONLY_ARG,
+			WARM_UP_ARG, TEXT_ARENA_ARG, OPTIMIZE_ICONS_ARG);
+
+	/* the options with a value which may be passed in a daemon request */
+	private static final Set<String> DAEMON_OPTIONS = Set.of(DESTINATION_ARG, CATEGORY_ARG, PLUGIN_ARG, PREVIOUS_ARG,
+			FORMAT_ARG);
+
+	/* package */ static final String NODES_EXTENSION_ID = "org.knime.workbench.repository.nodes";
+
+	/* package */ static final String NODE_SETS_EXTENSION_ID = "org.knime.workbench.repository.nodesets";
+
+	/* the node fields which are not determined with -docsOnly, unless the class files are conclusive */
+	private static final List<String> DOCS_ONLY_MISSING_FIELDS = List.of("iconBase64", "inPorts.portObjectClass",
+			"outPorts.portObjectClass", "dynamicInPorts.portObjectClasses", "dynamicOutPorts.portObjectClasses",
+			"streamable", "hasModernDialog", "hasKaiInterface", "sinceVersion");
+
+	/* descriptor of NodeModel#createStreamableOperator(PartitionInfo, PortObjectSpec[]) */
+	private static final String CREATE_STREAMABLE_OPERATOR = "(Lorg/knime/core/node/streamable/PartitionInfo;[Lorg/knime/core/node/port/PortObjectSpec;)Lorg/knime/core/node/streamable/StreamableOperator;";
+
+	/* package */ static final String FORMAT_HELP = "One of json, compact, ndjson, sharded, archive, index, autocomplete, related, connectivity (specify multiple formats by repeating this option). If not specified, json is used.";
 
 	/** Return code in case an error occurs during execution. */
 	private static final Integer EXIT_EXECUTION_ERROR = Integer.valueOf(1);
@@ -154,6 +206,30 @@ public class JsonNodeDocuGenerator implements IApplication {
 		System.err.println("\t" + SKIP_NODE_DOCUMENTATION + " : Skip generating node documentation");
 		System.err.println("\t" + SKIP_PORT_DOCUMENTATION + " : Skip generating port documentation");
 		System.err.println("\t" + SKIP_SPLASH_ICONS + " : Skip extracting splash screen icons");
+		System.err.println("\t" + PREVIOUS_ARG
+				+ " dir : Output directory of a previous run; write the added, removed and modified entries to "
+				+ OutputRenderer.CHANGES_FILE);
+		System.err.println("\t" + NODE_ARCHIVE_ARG + " : Additionally write the nodes to "
+				+ OutputRenderer.NODE_ARCHIVE_FILE + " which allows random access by node ID (see NodeDocArchiveReader)");
+		System.err.println("\t" + SNAPSHOT_ARG
+				+ " file : Additionally write the collected data to a snapshot file, from which the outputs can be rendered again without KNIME (see OutputRenderer)");
+		System.err.println("\t" + FORMAT_ARG + " format : " + FORMAT_HELP);
+		System.err.println("\t" + DAEMON_ARG
+				+ " port : Keep running and accept generation requests on the given local port (see GeneratorDaemon); 0 chooses a free port. The requests must carry the token from jsondocgen-daemon-<port>.token in the home directory. The introspection results are kept in memory across the requests, and in the "
+				+ INTROSPECTION_CACHE_ARG + " file if given");
+		System.err.println("\t" + OPTIMIZE_ICONS_ARG
+				+ " : Re-encode the icons losslessly with the smallest PNG encoding (see IconOptimizer)");
+		System.err.println("\t" + INTROSPECTION_CACHE_ARG
+				+ " file : Cache the information determined by instantiating the nodes in the given file; it is reused as long as the contributing bundle's version is unchanged");
+		System.err.println("\t" + DOCS_ONLY_ARG
+				+ " : Only use the nodes' XML descriptions and never instantiate them (much faster, e.g. for search indexes); the fields which are not determined are listed in each node's missingFields");
+		System.err.println("\t" + WARM_UP_ARG
+				+ " : Activate the contributing bundles and load their node factory classes concurrently before traversing the repository, and log the time per bundle (see BundleWarmUp)");
+		System.err.println("\t" + TEXT_ARENA_ARG
+				+ " : Keep the HTML descriptions in a memory-mapped temporary file instead of on the heap until they are written (see TextArena)");
+		System.err.println("\t" + PROCESSES_ARG
+				+ " n : Divide the contributing plugins into n shards, generate each one in its own process, and merge the results (see ShardedCrawl and ShardMerger); only for the json format, and not together with "
+				+ PREVIOUS_ARG + " or " + SNAPSHOT_ARG);
 
 	}
 
@@ -174,8 +250,54 @@ public class JsonNodeDocuGenerator implements IApplication {
 
 	private boolean m_skipMigrationRules = false;
 
+	/* output directory of a previous run to compare against */
+	private File m_previousDirectory;
+
+	private final Set<OutputFormat> m_formats = EnumSet.noneOf(OutputFormat.class);
+
+	private File m_snapshotFile;
+
+	/* file for the introspection cache, or null */
+	private File m_introspectionCacheFile;
+
+	/* only parse the XML descriptions, don't instantiate the nodes */
+	private boolean m_docsOnly = false;
+
+	/* warm up the bundles concurrently before the traversal */
+	private boolean m_warmUp = false;
+
+	/* store the descriptions in a text arena */
+	private boolean m_useTextArena = false;
+
+	/* the arena during generation, or null */
+	private TextArena m_textArena;
+
+	/* number of shard processes, or null */
+	private Integer m_processes;
+
+	/* deduplicates the repeating strings of the doc model */
+	private final StringPool m_stringPool = new StringPool();
+
+	/* cached node introspection results, or null */
+	private IntrospectionCache m_introspectionCache;
+
+	/* reads the class files of factories and models, by class loader */
+	private final Map<ClassLoader, ClassFileAnalyzer> m_classFileAnalyzers = new HashMap<>();
+
+	/* re-encodes the icons, or null */
+	private IconOptimizer m_iconOptimizer;
+
+	/* port for the daemon mode, or null */
+	private Integer m_daemonPort;
+
+	/* receives the docs while they are generated */
+	private DocSink m_sink;
+
 	private CategoryDocBuilder rootCategoryDoc;
 
+	/* icon files of the categories by path */
+	private Map<String, URL> m_categoryIcons = Collections.emptyMap();
+
 	@Override
 	public Object start(final IApplicationContext context) throws Exception {
 		// attention: magic potion, do not remove!
@@ -190,37 +312,31 @@ public class JsonNodeDocuGenerator implements IApplication {
 		Object o = context.getArguments().get(IApplicationContext.APPLICATION_ARGS);
 		Display.getDefault();
 		if (o != null && o instanceof String[] args) {
-			for (int i = 0; i < args.length; i++) {
-				if (args[i].equals(DESTINATION_ARG)) {
-					m_directory = new File(args[i + 1]);
-				} else if (args[i].equals(CATEGORY_ARG)) {
-					m_catPath = args[i + 1];
-				} else if (args[i].equals(PLUGIN_ARG)) {
-					m_pluginIds.add(args[i + 1]);
-				} else if (args[i].equals(INCLUDE_DEPRECATED_ARG)) {
-					m_includeDeprecated = true;
-				} else if (args[i].equals(SKIP_NODE_DOCUMENTATION)) {
-					m_skipNodeDocumentation = true;
-				} else if (args[i].equals(SKIP_PORT_DOCUMENTATION)) {
-					m_skipPortDocumentation = true;
-				} else if (args[i].equals(SKIP_SPLASH_ICONS)) {
-					m_skipSplashIcons = true;
-				} else if (args[i].equals(SKIP_MIGRATION_RULES)) {
-					m_skipMigrationRules = true;
-				} else if (args[i].equals("-help")) {
+			try {
+				if (!parseArgs(args)) {
 					printUsage();
 					return EXIT_OK;
 				}
+			} catch (IllegalArgumentException e) {
+				System.err.println(e.getMessage());
+				printUsage();
+				return EXIT_EXECUTION_ERROR;
 			}
 		}
 
-		if (m_directory == null) {
-			System.err.println("No output directory specified");
+		if (m_daemonPort != null) {
+			return runDaemon();
+		}
+
+		String error = prepare();
+		if (error != null) {
+			System.err.println(error);
 			printUsage();
 			return EXIT_EXECUTION_ERROR;
-		} else if (!m_directory.exists() && !m_directory.mkdirs()) {
-			System.err.println("Could not create output directory '" + m_directory.getAbsolutePath() + "'.");
-			return EXIT_EXECUTION_ERROR;
+		}
+
+		if (m_processes != null) {
+			return runShards();
 		}
 
 		try {
@@ -244,22 +360,212 @@ public class JsonNodeDocuGenerator implements IApplication {
 
 	}
 
+	/**
+	 * Read the command line arguments into this instance's fields.
+	 *
+	 * @param args
+	 *            The arguments.
+	 * @return <code>false</code> in case the usage was requested.
+	 * @throws IllegalArgumentException
+	 *             In case an argument is invalid.
+	 */
+	private boolean parseArgs(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals(DESTINATION_ARG)) {
+				m_directory = new File(args[i + 1]);
+			} else if (args[i].equals(CATEGORY_ARG)) {
+				m_catPath = args[i + 1];
+			} else if (args[i].equals(PLUGIN_ARG)) {
+				m_pluginIds.add(args[i + 1]);
+			} else if (args[i].equals(INCLUDE_DEPRECATED_ARG)) {
+				m_includeDeprecated = true;
+			} else if (args[i].equals(SKIP_NODE_DOCUMENTATION)) {
+				m_skipNodeDocumentation = true;
+			} else if (args[i].equals(SKIP_PORT_DOCUMENTATION)) {
+				m_skipPortDocumentation = true;
+			} else if (args[i].equals(SKIP_SPLASH_ICONS)) {
+				m_skipSplashIcons = true;
+			} else if (args[i].equals(SKIP_MIGRATION_RULES)) {
+				m_skipMigrationRules = true;
+			} else if (args[i].equals(PREVIOUS_ARG)) {
+				m_previousDirectory = new File(args[i + 1]);
+			} else if (args[i].equals(NODE_ARCHIVE_ARG)) {
+				m_formats.add(OutputFormat.ARCHIVE);
+			} else if (args[i].equals(SNAPSHOT_ARG)) {
+				m_snapshotFile = new File(args[i + 1]);
+			} else if (args[i].equals(FORMAT_ARG)) {
+				m_formats.add(OutputFormat.fromArgName(args[i + 1]));
+			} else if (args[i].equals(INTROSPECTION_CACHE_ARG)) {
+				m_introspectionCacheFile = new File(args[i + 1]);
+			} else if (args[i].equals(DOCS_ONLY_ARG)) {
+				m_docsOnly = true;
+			} else if (args[i].equals(WARM_UP_ARG)) {
+				m_warmUp = true;
+			} else if (args[i].equals(TEXT_ARENA_ARG)) {
+				m_useTextArena = true;
+			} else if (args[i].equals(PROCESSES_ARG)) {
+				m_processes = parseInt(args[i], args[i + 1]);
+			} else if (args[i].equals(OPTIMIZE_ICONS_ARG)) {
+				m_iconOptimizer = new IconOptimizer();
+			} else if (args[i].equals(DAEMON_ARG)) {
+				m_daemonPort = parseInt(args[i], args[i + 1]);
+			} else if (args[i].equals("-help")) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int parseInt(String arg, String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("%s expects a number, but was '%s'", arg, value));
+		}
+	}
+
+	/**
+	 * Check the arguments and create the output directory.
+	 *
+	 * @return An error message, or <code>null</code> in case everything is fine.
+	 */
+	private String prepare() {
+		if (m_directory == null) {
+			return "No output directory specified";
+		} else if (!m_directory.exists() && !m_directory.mkdirs()) {
+			return "Could not create output directory '" + m_directory.getAbsolutePath() + "'.";
+		}
+		if (m_formats.isEmpty() || m_formats.equals(EnumSet.of(OutputFormat.ARCHIVE))) {
+			m_formats.add(OutputFormat.JSON);
+		}
+		if (m_processes != null) {
+			if (m_processes < 1) {
+				return PROCESSES_ARG + " must be at least 1";
+			}
+			if (!m_formats.equals(EnumSet.of(OutputFormat.JSON))) {
+				return "Only the json format can be merged from shards";
+			}
+			if (m_previousDirectory != null || m_snapshotFile != null) {
+				return PREVIOUS_ARG + " and " + SNAPSHOT_ARG + " cannot be combined with " + PROCESSES_ARG;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Keep running and execute the requests received by the
+	 * {@link GeneratorDaemon}; each request gets a fresh generator instance with
+	 * its own arguments, but the platform and the node repository are only loaded
+	 * once, and the introspection results are shared by all requests (backed by
+	 * the daemon's introspection cache file, if given).
+	 */
+	private Object runDaemon() {
+		try {
+			LOGGER.info("Loading node repository");
+			RepositoryManager.INSTANCE.getCompleteRoot();
+			IntrospectionCache introspectionCache = m_introspectionCacheFile != null
+					? IntrospectionCache.read(m_introspectionCacheFile)
+					: IntrospectionCache.inMemory();
+			GeneratorDaemon.RequestHandler handler = args -> {
+				JsonNodeDocuGenerator generator = new JsonNodeDocuGenerator();
+				generator.parseArgs(args);
+				generator.m_introspectionCache = introspectionCache;
+				String error = generator.prepare();
+				if (error != null) {
+					throw new IllegalArgumentException(error);
+				}
+				generator.generate();
+			};
+			// the token file is only readable by the current user
+			File tokenDirectory = new File(System.getProperty("user.home"));
+			GeneratorDaemon daemon = new GeneratorDaemon(m_daemonPort, tokenDirectory, DAEMON_FLAGS, DAEMON_OPTIONS,
+					handler);
+			daemon.run();
+		} catch (Throwable t) {
+			// see comment in #start
+			LOGGER.error("Encountered error", t);
+			return EXIT_EXECUTION_ERROR;
+		}
+		return EXIT_OK;
+	}
+
+	/**
+	 * Divide the contributing plugins into shards and run a generator process for
+	 * each of them (see {@link ShardedCrawl}).
+	 */
+	private Object runShards() {
+		try {
+			Map<String, Integer> nodesByPlugin = countNodesByPlugin();
+			List<List<String>> shards = ShardedCrawl.partition(nodesByPlugin, m_processes);
+			LOGGER.info(String.format("Dividing %s plugins into %s shards", nodesByPlugin.size(), shards.size()));
+			ShardedCrawl.run(shards, m_directory, m_introspectionCacheFile);
+		} catch (Throwable t) {
+			// see comment in #start
+			LOGGER.error("Encountered error", t);
+			return EXIT_EXECUTION_ERROR;
+		}
+		return EXIT_OK;
+	}
+
+	/**
+	 * Count the node extensions by contributing plugin; this only reads the
+	 * extension registry and does not load any node classes, so a node set
+	 * counts as one node.
+	 */
+	private Map<String, Integer> countNodesByPlugin() {
+		Map<String, Integer> nodesByPlugin = new HashMap<>();
+		for (String extensionId : List.of(NODES_EXTENSION_ID, NODE_SETS_EXTENSION_ID)) {
+			for (IConfigurationElement elem : Platform.getExtensionRegistry()
+					.getConfigurationElementsFor(extensionId)) {
+				String plugin = elem.getNamespaceIdentifier();
+				if (m_pluginIds.isEmpty() || m_pluginIds.contains(plugin)) {
+					nodesByPlugin.merge(plugin, 1, Integer::sum);
+				}
+			}
+		}
+		return nodesByPlugin;
+	}
+
 	/**
 	 * Starts generating the node reference documents.
 	 *
 	 * @throws Exception
 	 */
 	private void generate() throws Exception {
+		// all outputs are written while traversing, each one on its own thread;
+		// the arena must stay open until the renderer has written everything
+		try (TextArena textArena = m_useTextArena ? new TextArena() : null;
+				OutputRenderer renderer = new OutputRenderer(m_directory, m_formats, m_previousDirectory)) {
+			m_textArena = textArena;
+			m_sink = renderer;
+			RepositorySnapshot snapshot = generateParts();
+			if (m_snapshotFile != null) {
+				LOGGER.info("Writing snapshot to " + m_snapshotFile);
+				snapshot.write(m_snapshotFile);
+			}
+		} finally {
+			m_sink = null;
+			m_textArena = null;
+		}
+	}
+
+	private RepositorySnapshot generateParts() throws Exception {
+
+		CategoryDoc rootCategory = null;
+		PortTypeDoc rootPortType = null;
+		List<SplashIconDoc> splashIcons = null;
+		List<MigrationRuleDoc> migrationRules = null;
 
 		if (!m_skipNodeDocumentation) {
 
 			LOGGER.info("Reading node repository");
 
 			IRepositoryObject root = RepositoryManager.INSTANCE.getCompleteRoot();
+			m_categoryIcons = CategoryIconLocator.findCategoryIcons();
 			rootCategoryDoc = new CategoryDocBuilder();
 			rootCategoryDoc.setId(root.getID());
 			rootCategoryDoc.setName(root.getName());
-			rootCategoryDoc.setContributingPlugin(root.getContributingPlugin());
+			rootCategoryDoc.setContributingPlugin(m_stringPool.intern(root.getContributingPlugin()));
 
 			// replace '/' with points and remove leading '/'
 			if (m_catPath.startsWith("/")) {
@@ -267,15 +573,25 @@ public class JsonNodeDocuGenerator implements IApplication {
 			}
 			m_catPath = m_catPath.replaceAll("/", ".");
 
+			if (m_warmUp) {
+				BundleWarmUp.warmUp(m_pluginIds);
+			}
+
+			// in daemon mode, the cache is already given
+			if (m_introspectionCache == null && m_introspectionCacheFile != null && !m_docsOnly) {
+				m_introspectionCache = IntrospectionCache.read(m_introspectionCacheFile);
+			}
+
 			// recursively generate the node reference and the node description
 			// pages
 			generate(m_directory, root, null, rootCategoryDoc);
 
-			CategoryDoc rootCategory = rootCategoryDoc.build();
-			String resultJson = rootCategory.toJson();
-			File resultFile = new File(m_directory, "nodeDocumentation.json");
-			LOGGER.info("Writing nodes to " + resultFile);
-			Files.writeString(resultFile.toPath(), resultJson);
+			if (m_introspectionCache != null) {
+				m_introspectionCache.write();
+			}
+
+			rootCategory = rootCategoryDoc.build();
+			m_sink.rootCategory(rootCategory);
 
 		}
 
@@ -300,14 +616,11 @@ public class JsonNodeDocuGenerator implements IApplication {
 
 			LOGGER.info(String.format("Found %s ports to process", portTypes.size()));
 
-			processPorts(portTypes.keySet(), portTypes, builders);
+			processPorts(portTypes.keySet(), portTypes, builders, m_stringPool);
 
 			// get the root element (all PortObjects inherit from this interface).
-			PortTypeDoc rootElement = builders.get(PortObject.class).build();
-
-			File portTypeResultFile = new File(m_directory, "portDocumentation.json");
-			LOGGER.info("Writing port types to " + portTypeResultFile);
-			Files.writeString(portTypeResultFile.toPath(), Utils.toJson(rootElement));
+			rootPortType = builders.get(PortObject.class).build();
+			m_sink.portTypes(rootPortType);
 
 		}
 
@@ -315,20 +628,26 @@ public class JsonNodeDocuGenerator implements IApplication {
 
 			LOGGER.info("Generating splash icons");
 
-			List<SplashIconDoc> splashIcons = SplashIconReader.readSplashIcons();
+			splashIcons = SplashIconReader.readSplashIcons(this::optimizeIcon);
 			LOGGER.info(String.format("Found %s splash icons", splashIcons.size()));
-
-			File splashIconsResultFile = new File(m_directory, "splashIcons.json");
-			LOGGER.info("Writing splash icons to " + splashIconsResultFile);
-			Files.writeString(splashIconsResultFile.toPath(), Utils.toJson(splashIcons));
+			m_sink.splashIcons(splashIcons);
 		}
 
 		if (!m_skipMigrationRules) {
-			var migrationRuleDocs = MigrationRuleExtractor.extractMigrationRules();
-			var migrationsResultFile = new File(m_directory, "migrations.json");
-			LOGGER.info("Writing migrations to " + migrationsResultFile);
-			Files.writeString(migrationsResultFile.toPath(), Utils.toJson(migrationRuleDocs));
+			migrationRules = MigrationRuleExtractor.extractMigrationRules();
+			m_sink.migrationRules(migrationRules);
 		}
+
+		if (m_iconOptimizer != null) {
+			m_iconOptimizer.logStatistics();
+		}
+		LOGGER.info("String pool: " + m_stringPool);
+
+		return new RepositorySnapshot(rootCategory, rootPortType, splashIcons, migrationRules);
+	}
+
+	private String optimizeIcon(String iconBase64) {
+		return m_iconOptimizer != null ? m_iconOptimizer.optimize(iconBase64) : iconBase64;
 	}
 
 	/**
@@ -341,10 +660,12 @@ public class JsonNodeDocuGenerator implements IApplication {
 	 *            All *registered* port types.
 	 * @param builders
 	 *            Map with builders for appending the children.
+	 * @param stringPool
+	 *            Pool for the class names.
 	 */
 	private static void processPorts(Collection<Class<? extends PortObject>> portObjectClasses,
 			Map<Class<? extends PortObject>, PortType> registeredPortTypes,
-			Map<Class<? extends PortObject>, PortTypeDocBuilder> builders) {
+			Map<Class<? extends PortObject>, PortTypeDocBuilder> builders, StringPool stringPool) {
 
 		portObjectClasses.forEach(portObjectClass -> {
 
@@ -354,15 +675,15 @@ public class JsonNodeDocuGenerator implements IApplication {
 
 			List<Class<? extends PortObject>> parentPortObjectClasses = getParentPortObjectClasses(portObjectClass);
 
-			processPorts(parentPortObjectClasses, registeredPortTypes, builders);
+			processPorts(parentPortObjectClasses, registeredPortTypes, builders, stringPool);
 
 			if (builder == null) { // haven't processed this type yet
 				PortType parent = registeredPortTypes.get(portObjectClass);
 				if (parent != null) {
 					// parent port type is registered via extension point
-					builder = PortTypeDoc.builderForObjectClass(parent.getPortObjectClass().getName());
+					builder = PortTypeDoc.builderForObjectClass(stringPool.intern(parent.getPortObjectClass().getName()));
 					builder.setName(parent.getName());
-					builder.setSpecClass(parent.getPortObjectSpecClass().getName());
+					builder.setSpecClass(stringPool.intern(parent.getPortObjectSpecClass().getName()));
 					builder.setColor(makeHexColor(parent.getColor()));
 					builder.setHidden(parent.isHidden());
 					builder.setRegistered(true);
@@ -370,7 +691,7 @@ public class JsonNodeDocuGenerator implements IApplication {
 					// not registered -- only create dummy intermediate; this is e.g. the case for
 					// org.knime.core.node.port.AbstractPortObject which only serve as
 					// implementation helper and are not supposed to be used directly
-					builder = PortTypeDoc.builderForObjectClass(portObjectClass.getName());
+					builder = PortTypeDoc.builderForObjectClass(stringPool.intern(portObjectClass.getName()));
 					builder.setHidden(true);
 					builder.setRegistered(false);
 				}
@@ -423,7 +744,7 @@ public class JsonNodeDocuGenerator implements IApplication {
 	 * @return true, if the element was added to the documentation, false if it has
 	 *         been skipped
 	 */
-	@SuppressWarnings({ "restriction", "unchecked" })
+	@SuppressWarnings("restriction")
 	private boolean generate(final File directory, final IRepositoryObject current, final IRepositoryObject parent,
 			CategoryDocBuilder parentCategory) throws TransformerException, Exception {
 
@@ -453,49 +774,69 @@ public class JsonNodeDocuGenerator implements IApplication {
 			// get additional information from the node XML description
 			Element xmlDescription = factory.getXMLDescription();
 			if (xmlDescription != null) {
-				NodeDocJsonParser.parse(xmlDescription, builder);
+				NodeDocJsonParser.parse(xmlDescription, builder, m_stringPool, m_textArena);
 			}
 			
-			builder.setContributingPlugin(contributingPlugin);
-			if (nodeTemplate.getIcon() != null) {
-				builder.setIconBase64(Utils.getImageBase64(nodeTemplate.getIcon()));
-			}
+			builder.setContributingPlugin(m_stringPool.intern(contributingPlugin));
 			builder.setAfterId(Utils.stringOrNull(nodeTemplate.getAfterID()));
 			boolean deprecated = nodeTemplate.isDeprecated();
-			try {
-				NodeModel nodeModel = createNodeModel(factory);
-				PortType[] outPorts = getPorts(factory, PortDirection.Out);
-				builder.setOutPorts(mergePortInfo(builder.build().outPorts, outPorts, current.getID()));
-				PortType[] inPorts = getPorts(factory, PortDirection.In);
-				builder.setInPorts(mergePortInfo(builder.build().inPorts, inPorts, current.getID()));
-				builder.setStreamable(isStreamable(nodeModel));
-				// merge this “dynamic port” shit here
-				List<DynamicPortGroup> dynamicInPorts = getDynamicPorts(factory, PortDirection.In);
-				List<DynamicPortGroup> dynamicOutPorts = getDynamicPorts(factory, PortDirection.Out);
-				builder.setDynamicInPorts(mergeDynamicPortInfo(builder.build().dynamicInPorts, dynamicInPorts, current.getID()));
-				builder.setDynamicOutPorts(mergeDynamicPortInfo(builder.build().dynamicOutPorts, dynamicOutPorts, current.getID()));
-			} catch (Throwable t) {
-				LOGGER.warn(String.format("Could not create NodeModel for %s", factory.getClass().getName()), t);
+
+			if (m_docsOnly) {
+				// no NodeModel is created, but the class files may still answer some of the fields
+				ClassFileAnalyzer analyzer = getClassFileAnalyzer(factory);
+				String factoryClass = factory.getClass().getName();
+				List<String> missingFields = new ArrayList<>(DOCS_ONLY_MISSING_FIELDS);
+				isStreamable(analyzer, factoryClass).ifPresent(streamable -> {
+					builder.setStreamable(streamable);
+					missingFields.remove("streamable");
+				});
+				hasModernDialog(analyzer, factoryClass).ifPresent(modernDialog -> {
+					builder.setHasModernDialog(modernDialog);
+					missingFields.remove("hasModernDialog");
+				});
+				hasKaiInterface(analyzer, factoryClass).ifPresent(kaiInterface -> {
+					builder.setHasKaiInterface(kaiInterface);
+					missingFields.remove("hasKaiInterface");
+				});
+				builder.setMissingFields(missingFields);
+				addNode(parent, parentCategory, builder, deprecated);
+				return true;
 			}
-			
-			Node node = new Node((NodeFactory<NodeModel>) factory);
-			var nodeDescription = node.invokeGetNodeDescription();
-			builder.setKeywords(Arrays.asList(nodeDescription.getKeywords()));
-			builder.setSinceVersion(nodeDescription.getSinceVersion().map(v -> v.toString()).orElse(null));
-
-			builder.setHasModernDialog(hasModernDialog(factory));
-			// since KNIME 5.5; https://github.com/knime/knime-core-ui/commit/8769e99ab4df0a435fb90936d664fdc6c6ac2b6d
-			builder.setHasKaiInterface(factory instanceof KaiNodeInterfaceFactory);
-
-			if (deprecated) {
-				// there are two locations, where nodes can be set to deprecated:
-				// so, do not overwrite with false, if already set to true
-				builder.setDeprecated(true);
+
+			// prefer the icon file's bytes, only re-encode if it's no PNG
+			String iconBase64 = Utils.getPngBase64(factory.getIcon());
+			if (iconBase64 == null && nodeTemplate.getIcon() != null) {
+				iconBase64 = Utils.getImageBase64(nodeTemplate.getIcon());
+			}
+			builder.setIconBase64(optimizeIcon(iconBase64));
+
+			IntrospectionCache.Entry introspection = getIntrospection(factory, current.getID(), contributingPlugin);
+			if (introspection.outPorts != null) {
+				builder.setOutPorts(mergePortInfo(builder.getOutPorts(), introspection.outPorts, current.getID(),
+						m_stringPool));
+			}
+			if (introspection.inPorts != null) {
+				builder.setInPorts(mergePortInfo(builder.getInPorts(), introspection.inPorts, current.getID(),
+						m_stringPool));
+			}
+			if (introspection.streamable != null) {
+				builder.setStreamable(introspection.streamable);
+			}
+			// merge this “dynamic port” shit here
+			if (introspection.dynamicInPorts != null) {
+				builder.setDynamicInPorts(mergeDynamicPortInfo(builder.getDynamicInPorts(),
+						introspection.dynamicInPorts, current.getID(), m_stringPool));
 			}
-			if ((!deprecated || m_includeDeprecated)) {
-				parentCategory.addNode(builder.build());
+			if (introspection.dynamicOutPorts != null) {
+				builder.setDynamicOutPorts(mergeDynamicPortInfo(builder.getDynamicOutPorts(),
+						introspection.dynamicOutPorts, current.getID(), m_stringPool));
 			}
+			builder.setKeywords(m_stringPool.intern(introspection.keywords));
+			builder.setSinceVersion(introspection.sinceVersion);
+			builder.setHasModernDialog(introspection.hasModernDialog);
+			builder.setHasKaiInterface(introspection.hasKaiInterface);
 
+			addNode(parent, parentCategory, builder, deprecated);
 			return true;
 		} else if (current instanceof Category || current instanceof Root) {
 			LOGGER.info("Processing category " + getPath(current));
@@ -508,10 +849,12 @@ public class JsonNodeDocuGenerator implements IApplication {
 				builder.setId(category.getID());
 				builder.setName(category.getName());
 				builder.setDescription(category.getDescription());
-				builder.setContributingPlugin(category.getContributingPlugin());
-				if (category.getIcon() != null) {
-					builder.setIconBase64(Utils.getImageBase64(category.getIcon()));
+				builder.setContributingPlugin(m_stringPool.intern(category.getContributingPlugin()));
+				String iconBase64 = Utils.getPngBase64(m_categoryIcons.get(getCategoryPath(category)));
+				if (iconBase64 == null && category.getIcon() != null) {
+					iconBase64 = Utils.getImageBase64(category.getIcon());
 				}
+				builder.setIconBase64(optimizeIcon(iconBase64));
 				builder.setAfterId(Utils.stringOrNull(category.getAfterID()));
 				newCategory = builder;
 			}
@@ -535,6 +878,92 @@ public class JsonNodeDocuGenerator implements IApplication {
 
 	}
 
+	private void addNode(final IRepositoryObject parent, CategoryDocBuilder parentCategory, NodeDocBuilder builder,
+			boolean deprecated) throws IOException {
+		if (deprecated) {
+			// there are two locations, where nodes can be set to deprecated:
+			// so, do not overwrite with false, if already set to true
+			builder.setDeprecated(true);
+		}
+		if ((!deprecated || m_includeDeprecated)) {
+			NodeDoc nodeDoc = builder.build();
+			parentCategory.addNode(nodeDoc);
+			m_sink.node(getCategoryPath(parent), nodeDoc);
+		}
+	}
+
+	/**
+	 * Get everything which requires instantiating {@link Node} and
+	 * {@link NodeModel}, either from the {@link IntrospectionCache}, or by
+	 * introspecting the factory.
+	 *
+	 * @param factory
+	 *            The node factory.
+	 * @param nodeId
+	 *            The node's ID.
+	 * @param contributingPlugin
+	 *            The contributing plugin; its version determines whether a cached
+	 *            entry is still valid.
+	 * @return The introspection results.
+	 */
+	private IntrospectionCache.Entry getIntrospection(NodeFactory<? extends NodeModel> factory, String nodeId,
+			String contributingPlugin) {
+		String factoryClass = factory.getClass().getName();
+		Bundle bundle = getBundle(contributingPlugin, factory.getClass());
+		if (m_introspectionCache == null || bundle == null) {
+			return introspect(factory, factoryClass, null, null);
+		}
+		String bundleName = bundle.getSymbolicName();
+		String bundleVersion = bundle.getVersion().toString();
+		IntrospectionCache.Entry entry = m_introspectionCache.get(nodeId, factoryClass, bundleName, bundleVersion);
+		if (entry == null) {
+			entry = introspect(factory, factoryClass, bundleName, bundleVersion);
+			m_introspectionCache.put(nodeId, entry);
+		}
+		return entry;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static IntrospectionCache.Entry introspect(NodeFactory<? extends NodeModel> factory, String factoryClass,
+			String bundleName, String bundleVersion) {
+		// null means: could not be determined, keep the info from the documentation
+		List<IntrospectionCache.PortInfo> outPorts = null;
+		List<IntrospectionCache.PortInfo> inPorts = null;
+		Boolean streamable = null;
+		List<DynamicPortGroup> dynamicInPorts = null;
+		List<DynamicPortGroup> dynamicOutPorts = null;
+		try {
+			NodeModel nodeModel = createNodeModel(factory);
+			outPorts = toPortInfos(getPorts(factory, PortDirection.Out));
+			inPorts = toPortInfos(getPorts(factory, PortDirection.In));
+			dynamicInPorts = getDynamicPorts(factory, PortDirection.In);
+			dynamicOutPorts = getDynamicPorts(factory, PortDirection.Out);
+			// last, so that the entry is only complete when nothing failed
+			streamable = isStreamable(nodeModel);
+		} catch (Throwable t) {
+			LOGGER.warn(String.format("Could not create NodeModel for %s", factoryClass), t);
+		}
+
+		Node node = new Node((NodeFactory<NodeModel>) factory);
+		var nodeDescription = node.invokeGetNodeDescription();
+		List<String> keywords = Arrays.asList(nodeDescription.getKeywords());
+		String sinceVersion = nodeDescription.getSinceVersion().map(v -> v.toString()).orElse(null);
+
+		boolean modernDialog = hasModernDialog(factory);
+		// since KNIME 5.5; https://github.com/knime/knime-core-ui/commit/8769e99ab4df0a435fb90936d664fdc6c6ac2b6d
+		boolean kaiInterface = factory instanceof KaiNodeInterfaceFactory;
+
+		return new IntrospectionCache.Entry(factoryClass, bundleName, bundleVersion, inPorts, outPorts, streamable,
+				dynamicInPorts, dynamicOutPorts, keywords, sinceVersion, modernDialog, kaiInterface);
+	}
+
+	private static List<IntrospectionCache.PortInfo> toPortInfos(PortType[] portTypes) {
+		return Arrays.stream(portTypes)
+				.map(portType -> new IntrospectionCache.PortInfo(portType.getPortObjectClass().getName(),
+						portType.isOptional()))
+				.collect(Collectors.toList());
+	}
+
 	/**
 	 * Create the {@link NodeModel} for the given {@link NodeFactory}. Apply
 	 * workaround for {@link ConfigurableNodeFactory}; see here:
@@ -566,18 +995,21 @@ public class JsonNodeDocuGenerator implements IApplication {
 	 * @param nodeId
 	 *            The ID of the currently processed node (for outputting the debug
 	 *            log)
+	 * @param stringPool
+	 *            Pool for the port object classes.
 	 * @return the merged port information.
 	 */
-	private static List<Port> mergePortInfo(List<Port> ports, PortType[] portTypes, String nodeId) {
+	private static List<Port> mergePortInfo(List<Port> ports, List<IntrospectionCache.PortInfo> portTypes,
+			String nodeId, StringPool stringPool) {
 		List<Port> result = new ArrayList<>();
 		int numDocPorts = Optional.ofNullable(ports).map(List::size).orElse(0);
-		int numImplPorts = portTypes.length;
+		int numImplPorts = portTypes.size();
 		if (numDocPorts != numImplPorts) {
 			LOGGER.warn(String.format("%s: Documentation does not match implementation: %s vs. %s ports", nodeId,
 					numDocPorts, numImplPorts));
 		}
 		for (int index = 0; index < numImplPorts; index++) {
-			PortType portType = portTypes[index];
+			IntrospectionCache.PortInfo portType = portTypes.get(index);
 			String name = null;
 			String description = null;
 			if (numDocPorts > index) {
@@ -585,8 +1017,8 @@ public class JsonNodeDocuGenerator implements IApplication {
 				name = portInfo.name;
 				description = portInfo.description;
 			}
-			result.add(
-					new Port(index, portType.getPortObjectClass().getName(), name, description, portType.isOptional()));
+			result.add(new Port(index, stringPool.intern(portType.portObjectClass), name, description,
+					portType.optional));
 		}
 		return result;
 	}
@@ -646,7 +1078,7 @@ public class JsonNodeDocuGenerator implements IApplication {
 
 	// TODO directly integrate this into above’s function
 	private static List<DynamicPortGroup> mergeDynamicPortInfo(List<DynamicPortGroup> docPorts,
-			List<DynamicPortGroup> implPorts, String nodeId) {
+			List<DynamicPortGroup> implPorts, String nodeId, StringPool stringPool) {
 		if (docPorts.size() != implPorts.size()) {
 			LOGGER.warn(String.format("%s: Documentation does not match implementation: %s vs. %s ports", nodeId,
 					docPorts.size(), implPorts.size()));
@@ -659,11 +1091,13 @@ public class JsonNodeDocuGenerator implements IApplication {
 			if (optionalDocPort.isPresent()) {
 				DynamicPortGroup docPort = optionalDocPort.get();
 				merged.add(new DynamicPortGroup(docPort.insertBefore, docPort.name, docPort.groupIdentifier,
-						docPort.description, implPort.portObjectClasses));
+						docPort.description, stringPool.intern(implPort.portObjectClasses)));
 			} else {
 				LOGGER.warn(String.format("%s, No port group with identifier %s in node docs", nodeId,
 						implPort.groupIdentifier));
-				merged.add(implPort);
+				merged.add(new DynamicPortGroup(implPort.insertBefore, implPort.name,
+						stringPool.intern(implPort.groupIdentifier), implPort.description,
+						stringPool.intern(implPort.portObjectClasses)));
 			}
 		}
 		return merged;
@@ -674,7 +1108,7 @@ public class JsonNodeDocuGenerator implements IApplication {
 	 * org.knime.workbench.repository.view.AbstractRepositoryView.enrichWithAdditionalInfo(IRepositoryObject,
 	 * IProgressMonitor, boolean)
 	 */
-	private static boolean isStreamable(NodeModel nodeModel) {
+	/* package */ static boolean isStreamable(NodeModel nodeModel) {
 		try {
 			// check whether the current node model overrides the
 			// #createStreamableOperator-method
@@ -691,6 +1125,107 @@ public class JsonNodeDocuGenerator implements IApplication {
 		return false;
 	}
 
+	/**
+	 * Same as {@link #isStreamable(NodeModel)}, but based on the class files of
+	 * the factory and the model, for <code>-docsOnly</code>, where no
+	 * {@link NodeModel} is created. Only the declared return type of the
+	 * factory's <code>createNodeModel</code> is known, and the factory can return
+	 * a subclass of it (covariant override). Therefore the answer is only
+	 * conclusive in case the declared model class overrides
+	 * <code>createStreamableOperator</code> (which all subclasses inherit), or
+	 * in case it is final.
+	 *
+	 * @param analyzer
+	 *            The analyzer for the factory's class loader.
+	 * @param factoryClass
+	 *            The factory class name.
+	 * @return The result, or an empty optional in case the class files are not
+	 *         conclusive.
+	 */
+	/* package */ static Optional<Boolean> isStreamable(ClassFileAnalyzer analyzer, String factoryClass) {
+		String nodeModelClass = NodeModel.class.getName();
+		// ConfigurableNodeFactory overrides this one; in NodeFactory it delegates to createNodeModel()
+		Optional<String> modelClass = analyzer.getReturnType(factoryClass, "createNodeModel",
+				"(Lorg/knime/core/node/context/NodeCreationConfiguration;)");
+		if (modelClass.isEmpty() || modelClass.get().equals(nodeModelClass)) {
+			modelClass = analyzer.getReturnType(factoryClass, "createNodeModel", "()");
+		}
+		if (modelClass.isEmpty() || modelClass.get().equals(nodeModelClass)) {
+			return Optional.empty();
+		}
+		Optional<String> declaringClass = analyzer.findDeclaringClass(modelClass.get(), "createStreamableOperator",
+				CREATE_STREAMABLE_OPERATOR);
+		if (declaringClass.isEmpty()) {
+			return Optional.empty();
+		}
+		if (!declaringClass.get().equals(nodeModelClass)) {
+			return Optional.of(true);
+		}
+		return analyzer.getClassInfo(modelClass.get()).filter(info -> info.isFinal()).map(info -> false);
+	}
+
+	/**
+	 * Same as {@link #hasModernDialog(NodeFactory)}, but based on the class
+	 * files, for <code>-docsOnly</code>. {@link NodeDialogFactory#hasNodeDialog()}
+	 * returns <code>true</code> by default, so the answer is only conclusive in
+	 * case the factory is no {@link NodeDialogFactory}, or in case no other type
+	 * in its hierarchy declares <code>hasNodeDialog</code>.
+	 *
+	 * @param analyzer
+	 *            The analyzer for the factory's class loader.
+	 * @param factoryClass
+	 *            The factory class name.
+	 * @return The result, or an empty optional in case the class files are not
+	 *         conclusive.
+	 */
+	@SuppressWarnings("restriction")
+	/* package */ static Optional<Boolean> hasModernDialog(ClassFileAnalyzer analyzer, String factoryClass) {
+		String nodeDialogFactoryClass = NodeDialogFactory.class.getName();
+		Optional<Boolean> nodeDialogFactory = analyzer.isSubtypeOf(factoryClass, nodeDialogFactoryClass);
+		if (nodeDialogFactory.isEmpty() || !nodeDialogFactory.get()) {
+			return nodeDialogFactory;
+		}
+		return analyzer.findDeclaringTypes(factoryClass, "hasNodeDialog", "()Z")
+				.filter(types -> types.stream().allMatch(nodeDialogFactoryClass::equals)).map(types -> true);
+	}
+
+	/**
+	 * Check whether the factory implements {@link KaiNodeInterfaceFactory}, based
+	 * on the class files, for <code>-docsOnly</code>.
+	 *
+	 * @param analyzer
+	 *            The analyzer for the factory's class loader.
+	 * @param factoryClass
+	 *            The factory class name.
+	 * @return The result, or an empty optional in case the class files are not
+	 *         conclusive.
+	 */
+	/* package */ static Optional<Boolean> hasKaiInterface(ClassFileAnalyzer analyzer, String factoryClass) {
+		return analyzer.isSubtypeOf(factoryClass, KaiNodeInterfaceFactory.class.getName());
+	}
+
+	/**
+	 * Resolve a node's bundle by the contributing plugin's symbolic name, or, if
+	 * there is no such bundle, by the factory class.
+	 *
+	 * @param contributingPlugin
+	 *            The contributing plugin.
+	 * @param factoryClass
+	 *            The factory class, or <code>null</code> if it is not loaded yet.
+	 * @return The bundle, or <code>null</code>.
+	 */
+	/* package */ static Bundle getBundle(String contributingPlugin, Class<?> factoryClass) {
+		Bundle bundle = Platform.getBundle(contributingPlugin);
+		if (bundle == null && factoryClass != null) {
+			bundle = FrameworkUtil.getBundle(factoryClass);
+		}
+		return bundle;
+	}
+
+	private ClassFileAnalyzer getClassFileAnalyzer(NodeFactory<?> factory) {
+		return m_classFileAnalyzers.computeIfAbsent(factory.getClass().getClassLoader(), ClassFileAnalyzer::new);
+	}
+
 	@SuppressWarnings({ "unchecked" })
 	private static Optional<String> getBundleName(NodeFactory<?> nodeFactory) {
 		if (!(nodeFactory instanceof DynamicNodeFactory)) {
@@ -722,6 +1257,23 @@ public class JsonNodeDocuGenerator implements IApplication {
 		return identifier;
 	}
 
+	/**
+	 * @return The path of the given category, consisting of the IDs, e.g.
+	 *         <code>/io/read</code>; <code>/</code> for the root.
+	 */
+	private static String getCategoryPath(final IRepositoryObject cat) {
+		if (cat == null || cat instanceof Root) {
+			return "/";
+		}
+		String path = "/" + cat.getID();
+		IContainerObject parent = cat.getParent();
+		while (parent != null && !(parent instanceof Root)) {
+			path = "/" + parent.getID() + path;
+			parent = parent.getParent();
+		}
+		return path;
+	}
+
 	private static String getPath(final IRepositoryObject object) {
 		if (object.getParent() != null) {
 			return getPath(object.getParent()) + "/" + object.getName();
@@ -0,0 +1,79 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+
+import de.philippkatz.knime.jsondocgen.docs.MigrationChainDoc;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc;
+
+/**
+ * Resolves the single original → replacement pairs from the
+ * {@link MigrationRuleExtractor} transitively, so that the final replacement
+ * of a deprecated factory is a single lookup instead of following the chain.
+ *
+ * @author pk
+ */
+final class MigrationChainResolver {
+
+	private static final Logger LOGGER = Logger.getLogger(MigrationChainResolver.class);
+
+	/**
+	 * Resolve the chains.
+	 *
+	 * @param migrationRules
+	 *            The migration rules. In case there are several rules for one
+	 *            original factory, the first one is used.
+	 * @return For each original factory the final replacement, sorted by
+	 *         original factory.
+	 */
+	static Map<String, MigrationChainDoc> resolve(List<MigrationRuleDoc> migrationRules) {
+		Map<String, String> replacements = new HashMap<>();
+		for (MigrationRuleDoc migrationRule : migrationRules) {
+			String original = migrationRule.getOriginalNodeFactoryClass();
+			String replacement = migrationRule.getReplacementNodeFactoryClass();
+			String existing = replacements.putIfAbsent(original, replacement);
+			if (existing != null && !existing.equals(replacement)) {
+				LOGGER.warn(String.format("Multiple replacements for %s: %s and %s, using the first one", original,
+						existing, replacement));
+			}
+		}
+
+		Map<String, MigrationChainDoc> result = new TreeMap<>();
+		for (String original : replacements.keySet()) {
+			Set<String> chain = new LinkedHashSet<>();
+			chain.add(original);
+			String current = original;
+			boolean cyclic = false;
+			for (;;) {
+				String next = replacements.get(current);
+				if (next == null) {
+					break;
+				}
+				if (!chain.add(next)) {
+					cyclic = true;
+					break;
+				}
+				current = next;
+			}
+			if (cyclic) {
+				LOGGER.warn(String.format("Migration of %s leads to a cycle: %s -> %s", original,
+						String.join(" -> ", chain), replacements.get(current)));
+			}
+			// a cycle on the original itself (A -> A) still counts as one migration
+			int chainLength = Math.max(1, chain.size() - 1);
+			result.put(original, new MigrationChainDoc(current, chainLength, cyclic ? Boolean.TRUE : null));
+		}
+		return result;
+	}
+
+	private MigrationChainResolver() {
+		// it's a chain of fools
+	}
+
+}
@@ -0,0 +1,57 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.log4j.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+
+/**
+ * Writes one compact JSON object per line and node to
+ * <code>nodeDocumentation.ndjson</code>, as the nodes are traversed. Each
+ * object additionally has a <code>categoryPath</code> property, as the
+ * category tree is not part of this format.
+ *
+ * @author pk
+ */
+final class NdjsonDocSink implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(NdjsonDocSink.class);
+
+	/* package */ static final String NDJSON_FILE = "nodeDocumentation.ndjson";
+
+	private final Gson gson = Utils.createGson(false);
+
+	private final Writer writer;
+
+	private int numNodes;
+
+	NdjsonDocSink(File directory) throws IOException {
+		File file = new File(directory, NDJSON_FILE);
+		LOGGER.info("Writing nodes to " + file);
+		writer = TextArena.resolving(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		JsonObject object = gson.toJsonTree(node).getAsJsonObject();
+		object.addProperty("categoryPath", categoryPath);
+		gson.toJson(object, writer);
+		writer.write('\n');
+		numNodes++;
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+		LOGGER.info(String.format("Wrote %s nodes to %s", numNodes, NDJSON_FILE));
+	}
+
+}
@@ -0,0 +1,134 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import com.google.gson.Gson;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+
+/**
+ * Random access to single nodes of a node archive, as written with the
+ * <code>-nodeArchive</code> option. The file is memory-mapped and a node is
+ * only decoded when requested; a lookup is a binary search over the index, so
+ * it does not depend on the number of nodes in the archive.
+ *
+ * The format is as follows (all numbers big-endian):
+ *
+ * <pre>
+ * header:  magic "JDGA" (4 bytes), version (int)
+ * records: one compact JSON object (UTF-8) per node
+ * keys:    node IDs (UTF-8), in index order
+ * index:   per node, sorted by ID bytes (unsigned):
+ *          key offset (long), key length (int), record offset (long), record length (int)
+ * footer:  index offset (long), number of nodes (int), magic "JDGA" (4 bytes)
+ * </pre>
+ *
+ * This class only depends on the JDK and Gson, so it can be used outside of
+ * KNIME.
+ *
+ * @author pk
+ */
+public final class NodeDocArchiveReader implements Closeable {
+
+	static final byte[] MAGIC = { 'J', 'D', 'G', 'A' };
+
+	static final int VERSION = 1;
+
+	private static final int FOOTER_SIZE = Long.BYTES + Integer.BYTES + MAGIC.length;
+
+	private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer buffer;
+
+	private final int indexOffset;
+
+	private final int size;
+
+	private final Gson gson = new Gson();
+
+	/**
+	 * Open the given archive.
+	 *
+	 * @param file
+	 *            The archive file.
+	 * @throws IOException
+	 *             In case the file cannot be read or is not a valid archive.
+	 */
+	public NodeDocArchiveReader(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			buffer = BinaryFormat.map(channel, file, MAGIC, VERSION, FOOTER_SIZE, "a node archive");
+			int footerOffset = buffer.capacity() - FOOTER_SIZE;
+			indexOffset = (int) buffer.getLong(footerOffset);
+			size = buffer.getInt(footerOffset + Long.BYTES);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/** @return The number of nodes in the archive. */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the ID of the node at the given index position.
+	 *
+	 * @param index
+	 *            The position, between 0 and {@link #size()} (exclusive); IDs
+	 *            are sorted.
+	 * @return The ID.
+	 */
+	public String getId(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		int entryOffset = indexOffset + index * INDEX_ENTRY_SIZE;
+		return BinaryFormat.decode(buffer, (int) buffer.getLong(entryOffset),
+				buffer.getInt(entryOffset + Long.BYTES));
+	}
+
+	/**
+	 * Get the raw JSON of a node.
+	 *
+	 * @param id
+	 *            The node ID.
+	 * @return The JSON, or <code>null</code> in case there is no such node.
+	 */
+	public String getJson(String id) {
+		int index = BinaryFormat.find(buffer, indexOffset, INDEX_ENTRY_SIZE, size, id.getBytes(StandardCharsets.UTF_8));
+		if (index < 0) {
+			return null;
+		}
+		int entryOffset = indexOffset + index * INDEX_ENTRY_SIZE + Long.BYTES + Integer.BYTES;
+		return BinaryFormat.decode(buffer, (int) buffer.getLong(entryOffset),
+				buffer.getInt(entryOffset + Long.BYTES));
+	}
+
+	/**
+	 * Get a node.
+	 *
+	 * @param id
+	 *            The node ID.
+	 * @return The node, or <code>null</code> in case there is no such node.
+	 */
+	public NodeDoc get(String id) {
+		String json = getJson(id);
+		return json != null ? gson.fromJson(json, NodeDoc.class) : null;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
@@ -0,0 +1,130 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import com.google.gson.Gson;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+
+/**
+ * Writes the archive format which is read by {@link NodeDocArchiveReader}; see
+ * there for a description of the format. The records are written as the nodes
+ * arrive, the index is written when closing.
+ *
+ * @author pk
+ */
+final class NodeDocArchiveWriter implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(NodeDocArchiveWriter.class);
+
+	/** An index entry, before it is sorted and written. */
+	private static final class Entry {
+		final byte[] key;
+		final long offset;
+		final int length;
+
+		Entry(byte[] key, long offset, int length) {
+			this.key = key;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * Write the given nodes to an archive file. In case an ID occurs multiple
+	 * times, only the first node is written.
+	 *
+	 * @param nodes
+	 *            The nodes.
+	 * @param file
+	 *            The destination file.
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	static void write(List<NodeDoc> nodes, File file) throws IOException {
+		try (NodeDocArchiveWriter writer = new NodeDocArchiveWriter(file)) {
+			for (NodeDoc node : nodes) {
+				writer.add(node);
+			}
+		}
+	}
+
+	private final Gson gson = Utils.createGson(false);
+
+	private final List<Entry> entries = new ArrayList<>();
+
+	private final Set<String> writtenIds = new HashSet<>();
+
+	private final File file;
+
+	private final DataOutputStream out;
+
+	private long offset;
+
+	NodeDocArchiveWriter(File file) throws IOException {
+		this.file = file;
+		out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())));
+		out.write(NodeDocArchiveReader.MAGIC);
+		out.writeInt(NodeDocArchiveReader.VERSION);
+		offset = out.size();
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		add(node);
+	}
+
+	private void add(NodeDoc node) throws IOException {
+		if (!BinaryFormat.isFirstOccurrence(writtenIds, node.id)) {
+			return;
+		}
+		StringWriter json = new StringWriter();
+		gson.toJson(node, TextArena.resolving(json));
+		byte[] record = json.toString().getBytes(StandardCharsets.UTF_8);
+		out.write(record);
+		entries.add(new Entry(node.id.getBytes(StandardCharsets.UTF_8), offset, record.length));
+		offset += record.length;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try (out) {
+			entries.sort((entry1, entry2) -> Arrays.compareUnsigned(entry1.key, entry2.key));
+
+			long[] keyOffsets = new long[entries.size()];
+			for (int i = 0; i < entries.size(); i++) {
+				keyOffsets[i] = offset;
+				out.write(entries.get(i).key);
+				offset += entries.get(i).key.length;
+			}
+
+			long indexOffset = offset;
+			for (int i = 0; i < entries.size(); i++) {
+				Entry entry = entries.get(i);
+				out.writeLong(keyOffsets[i]);
+				out.writeInt(entry.key.length);
+				out.writeLong(entry.offset);
+				out.writeInt(entry.length);
+			}
+
+			out.writeLong(indexOffset);
+			out.writeInt(entries.size());
+			out.write(NodeDocArchiveReader.MAGIC);
+		}
+		LOGGER.info(String.format("Wrote %s nodes to archive %s", entries.size(), file));
+	}
+
+}
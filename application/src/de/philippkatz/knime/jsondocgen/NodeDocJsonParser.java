@@ -31,8 +31,45 @@ public final class NodeDocJsonParser {
 	}
 	
 	public static NodeDocBuilder parse(Node domNode, NodeDocBuilder builder) {
+		return parse(domNode, builder, new StringPool());
+	}
+
+	/**
+	 * Parse the node description into the given builder.
+	 * 
+	 * @param domNode
+	 *            The node description.
+	 * @param builder
+	 *            The builder.
+	 * @param stringPool
+	 *            Pool for the values which repeat across nodes (types, port
+	 *            names, group identifiers, keywords).
+	 * @return The builder.
+	 */
+	/* package */ static NodeDocBuilder parse(Node domNode, NodeDocBuilder builder, StringPool stringPool) {
+		return parse(domNode, builder, stringPool, null);
+	}
+
+	/**
+	 * Parse the node description into the given builder.
+	 * 
+	 * @param domNode
+	 *            The node description.
+	 * @param builder
+	 *            The builder.
+	 * @param stringPool
+	 *            Pool for the values which repeat across nodes (types, port
+	 *            names, group identifiers, keywords).
+	 * @param textArena
+	 *            Arena for the HTML descriptions (intro, tabs, options, ports,
+	 *            views), or <code>null</code> to keep them on the heap.
+	 * @return The builder.
+	 */
+	/* package */ static NodeDocBuilder parse(Node domNode, NodeDocBuilder builder, StringPool stringPool,
+			TextArena textArena) {
 		Objects.requireNonNull(domNode, "document must not be null");
 		Objects.requireNonNull(builder, "builder must not be null");
+		Objects.requireNonNull(stringPool, "stringPool must not be null");
 		
 		Node nodeNoNS = removeNamespaces(domNode);
 
@@ -40,9 +77,9 @@ public final class NodeDocJsonParser {
 		builder.setDescription(trim(getString(nodeNoNS, "/knimeNode/shortDescription")));
 		Node introNode = getNode(nodeNoNS, "/knimeNode/fullDescription/intro");
 		if (introNode != null) {
-			builder.setIntro(trim(getInnerXml(introNode)));
+			builder.setIntro(getFragment(introNode, textArena));
 		}
-		builder.setType(getString(nodeNoNS, "/knimeNode/@type"));
+		builder.setType(stringPool.intern(getString(nodeNoNS, "/knimeNode/@type")));
 		boolean deprecated = Boolean.parseBoolean(getString(nodeNoNS, "/knimeNode/@deprecated"));
 		if (deprecated) {
 			// there are two locations, where nodes can be set to deprecated:
@@ -59,7 +96,7 @@ public final class NodeDocJsonParser {
 				String description = null;
 				Node descriptionNode = getNode(tab, "description");
 				if (descriptionNode != null) {
-					description = trim(getInnerXml(descriptionNode));
+					description = getFragment(descriptionNode, textArena);
 				}
 				// first, try whether there's a sub-element 'options'; see:
 				// https://www.knime.org/node/dynamicNode_v3.0.xsd
@@ -69,10 +106,12 @@ public final class NodeDocJsonParser {
 				if (options.size() == 0) {
 					options = getNodes(tab, "option");
 				}
-				builder.addOptionTab(new OptionTab(name, description, parseOptions(options)));
+				builder.addOptionTab(
+						new OptionTab(name, description, parseOptions(options, stringPool, textArena)));
 			}
 		} else {
-			builder.setOptions(parseOptions(getNodes(nodeNoNS, "/knimeNode/fullDescription/option")));
+			builder.setOptions(
+					parseOptions(getNodes(nodeNoNS, "/knimeNode/fullDescription/option"), stringPool, textArena));
 		}
 		
 		// links (added in v1.11)
@@ -83,24 +122,39 @@ public final class NodeDocJsonParser {
 			builder.addLink(new Link(href, text));
 		}
 
+		// keywords (KNIME 4.1+ schema); the generator also gets them from the
+		// NodeDescription, but this way they're available without it
+		List<Node> keywords = getNodes(nodeNoNS, "/knimeNode/keywords/keyword");
+		if (keywords.size() > 0) {
+			List<String> keywordStrings = new ArrayList<>();
+			for (Node keyword : keywords) {
+				keywordStrings.add(stringPool.intern(trim(keyword.getTextContent())));
+			}
+			builder.setKeywords(keywordStrings);
+		}
+
 		// in ports
 		builder.setInPorts(
-				parsePorts(getNodes(nodeNoNS, "/knimeNode/ports/*[name()='inPort' or name()='dataIn']"), true));
+				parsePorts(getNodes(nodeNoNS, "/knimeNode/ports/*[name()='inPort' or name()='dataIn']"), true,
+						stringPool, textArena));
 
 		// out ports
 		builder.setOutPorts(
-				parsePorts(getNodes(nodeNoNS, "/knimeNode/ports/*[name()='outPort' or name()='dataOut']"), false));
+				parsePorts(getNodes(nodeNoNS, "/knimeNode/ports/*[name()='outPort' or name()='dataOut']"), false,
+						stringPool, textArena));
 
 		// dynamic in and out ports
-		builder.setDynamicInPorts(parseDynamicPorts(getNodes(nodeNoNS, "/knimeNode/ports/dynInPort")));
-		builder.setDynamicOutPorts(parseDynamicPorts(getNodes(nodeNoNS, "/knimeNode/ports/dynOutPort")));
+		builder.setDynamicInPorts(
+				parseDynamicPorts(getNodes(nodeNoNS, "/knimeNode/ports/dynInPort"), stringPool, textArena));
+		builder.setDynamicOutPorts(
+				parseDynamicPorts(getNodes(nodeNoNS, "/knimeNode/ports/dynOutPort"), stringPool, textArena));
 
 		// views
 		List<Node> views = getNodes(nodeNoNS, "/knimeNode/views/view");
 		for (Node view : views) {
 			int index = Integer.valueOf(getAttribute(view, "index"));
 			String name = getAttribute(view, "name");
-			String description = trim(getInnerXml(view));
+			String description = getFragment(view, textArena);
 			builder.addView(new View(index, name, description));
 		}
 		
@@ -108,7 +162,7 @@ public final class NodeDocJsonParser {
 		Node interactiveView = getNode(nodeNoNS, "/knimeNode/interactiveView");
 		if (interactiveView != null) {
 			String name = getAttribute(interactiveView, "name");
-			String description = trim(getInnerXml(interactiveView));
+			String description = getFragment(interactiveView, textArena);
 			builder.setInteractiveView(new InteractiveView(name, description));
 		}		
 		
@@ -123,24 +177,25 @@ public final class NodeDocJsonParser {
 
 	}
 
-	private static List<Option> parseOptions(List<Node> options) {
+	private static List<Option> parseOptions(List<Node> options, StringPool stringPool, TextArena textArena) {
 		List<Option> optionsJson = new ArrayList<>();
 		for (Node option : options) {
-			String type = option.getNodeName();
+			String type = stringPool.intern(option.getNodeName());
 			String name = getAttribute(option, "name");
-			String description = trim(getInnerXml(option));
+			String description = getFragment(option, textArena);
 			boolean optional = Boolean.parseBoolean(getAttribute(option, "optional"));
 			optionsJson.add(new Option(type, name, description, optional));
 		}
 		return optionsJson;
 	}
 
-	private static List<Port> parsePorts(List<Node> ports, boolean isInPort) {
+	private static List<Port> parsePorts(List<Node> ports, boolean isInPort, StringPool stringPool,
+			TextArena textArena) {
 		List<Port> portsJson = new ArrayList<>();
 		for (Node port : ports) {
 			int index = Integer.valueOf(getAttribute(port, "index"));
-			String name = getAttribute(port, "name");
-			String description = trim(getInnerXml(port));
+			String name = stringPool.intern(getAttribute(port, "name"));
+			String description = getFragment(port, textArena);
 			Boolean optional = null;
 			if (isInPort) {
 				optional = Boolean.parseBoolean(getAttribute(port, "optional"));
@@ -150,16 +205,22 @@ public final class NodeDocJsonParser {
 		return portsJson;
 	}
 
-	private static List<DynamicPortGroup> parseDynamicPorts(List<Node> ports) {
+	private static List<DynamicPortGroup> parseDynamicPorts(List<Node> ports, StringPool stringPool,
+			TextArena textArena) {
 		List<DynamicPortGroup> portsDocs = new ArrayList<>();
 		for (Node port : ports) {
 			int insertBefore = Integer.valueOf(getAttribute(port, "insert-before"));
-			String name = getAttribute(port, "name");
-			String groupIdentifier = getAttribute(port, "group-identifier");
-			String description = trim(getInnerXml(port));
+			String name = stringPool.intern(getAttribute(port, "name"));
+			String groupIdentifier = stringPool.intern(getAttribute(port, "group-identifier"));
+			String description = getFragment(port, textArena);
 			portsDocs.add(new DynamicPortGroup(insertBefore, name, groupIdentifier, description, /* not know at this point */ null));
 		}
 		return portsDocs;
 	}
 
+	private static String getFragment(Node node, TextArena textArena) {
+		String html = trim(getInnerXml(node));
+		return textArena != null ? textArena.store(html) : html;
+	}
+
 }
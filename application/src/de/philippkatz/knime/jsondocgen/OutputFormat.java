@@ -0,0 +1,66 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The available output formats; each is written by its own {@link DocSink}.
+ *
+ * @author pk
+ */
+public enum OutputFormat {
+
+	/** The indented JSON files; this is the default. */
+	JSON,
+	/** Same as {@link #JSON}, but without whitespace, as <code>.min.json</code>. */
+	COMPACT,
+	/** One line per node, see {@link NdjsonDocSink}. */
+	NDJSON,
+	/** One file per contributing plugin, see {@link ShardedDocSink}. */
+	SHARDED,
+	/** Random-access archive, see {@link NodeDocArchiveReader}. */
+	ARCHIVE,
+	/** Full-text index, see {@link SearchIndexReader}. */
+	INDEX,
+	/** Prefix search over names and keywords, see {@link AutocompleteReader}. */
+	AUTOCOMPLETE,
+	/** Similar nodes per node, see {@link RelatedNodesFinder}. */
+	RELATED,
+	/** Compatible nodes per port object class, see {@link ConnectivityIndexReader}. */
+	CONNECTIVITY;
+
+	DocSink createSink(File directory) throws IOException {
+		return switch (this) {
+		case JSON -> new JsonDocSink(directory, true);
+		case COMPACT -> new JsonDocSink(directory, false);
+		case NDJSON -> new NdjsonDocSink(directory);
+		case SHARDED -> new ShardedDocSink(directory);
+		case ARCHIVE -> new NodeDocArchiveWriter(new File(directory, OutputRenderer.NODE_ARCHIVE_FILE));
+		case INDEX -> new SearchIndexWriter(new File(directory, SearchIndexWriter.SEARCH_INDEX_FILE));
+		case AUTOCOMPLETE -> new AutocompleteWriter(new File(directory, AutocompleteWriter.AUTOCOMPLETE_FILE));
+		case RELATED -> new RelatedNodesFinder(new File(directory, RelatedNodesFinder.RELATED_NODES_FILE));
+		case CONNECTIVITY -> new ConnectivityIndexWriter(
+				new File(directory, ConnectivityIndexWriter.CONNECTIVITY_INDEX_FILE));
+		};
+	}
+
+	/** @return The name as used on the command line, e.g. <code>ndjson</code>. */
+	public String getArgName() {
+		return name().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Get the format for a command line value.
+	 * 
+	 * @param argName
+	 *            The name, e.g. <code>ndjson</code>.
+	 * @return The format.
+	 * @throws IllegalArgumentException
+	 *             In case there is no such format.
+	 */
+	public static OutputFormat fromArgName(String argName) {
+		return valueOf(argName.toUpperCase(Locale.ROOT));
+	}
+
+}
@@ -0,0 +1,238 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
+import de.philippkatz.knime.jsondocgen.docs.ChangesDoc;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+import de.philippkatz.knime.jsondocgen.docs.SplashIconDoc;
+
+/**
+ * Writes all requested {@link OutputFormat}s from one stream of doc events:
+ * every format gets its own {@link DocSink} running on its own writer thread
+ * (see {@link AsyncDocSink}). When closed, it waits for all sinks and writes
+ * the <code>changes.json</code> in case a previous output directory was given.
+ *
+ * This is used by {@link JsonNodeDocuGenerator}, and it can be run as a plain
+ * Java program (it only needs Gson and Log4J on the classpath) to re-render
+ * the outputs from a snapshot file which was written with the
+ * <code>-snapshot</code> option:
+ *
+ * <pre>
+ * java -cp … de.philippkatz.knime.jsondocgen.OutputRenderer -snapshot snapshot.json.gz -destination dir
+ * </pre>
+ *
+ * @author pk
+ */
+public final class OutputRenderer implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(OutputRenderer.class);
+
+	/* package */ static final String NODE_DOCUMENTATION_FILE = "nodeDocumentation.json";
+
+	/* package */ static final String PORT_DOCUMENTATION_FILE = "portDocumentation.json";
+
+	/* package */ static final String PORT_ANCESTRY_FILE = "portAncestry.json";
+
+	/* package */ static final String SPLASH_ICONS_FILE = "splashIcons.json";
+
+	/* package */ static final String MIGRATIONS_FILE = "migrations.json";
+
+	/* package */ static final String MIGRATION_CHAINS_FILE = "migrationChains.json";
+
+	/* package */ static final String PLUGINS_FILE = "plugins.json";
+
+	/* package */ static final String CHANGES_FILE = "changes.json";
+
+	/* package */ static final String NODE_ARCHIVE_FILE = "nodeDocumentation.archive";
+
+	private static final String SNAPSHOT_ARG = "-snapshot";
+
+	private final File directory;
+
+	private final Set<OutputFormat> formats;
+
+	private final List<DocSink> sinks = new ArrayList<>();
+
+	private final ChangeDetector.Snapshot previousSnapshot;
+
+	private boolean hasNodes;
+
+	private boolean hasPortTypes;
+
+	private boolean hasMigrationRules;
+
+	/**
+	 * Start the sinks for the given formats.
+	 *
+	 * @param directory
+	 *            The destination directory.
+	 * @param formats
+	 *            The formats to write.
+	 * @param previousDirectory
+	 *            Output directory of a previous run to write the changes, or
+	 *            <code>null</code>.
+	 * @throws IOException
+	 *             In case reading the previous output or creating a sink fails.
+	 */
+	public OutputRenderer(File directory, Set<OutputFormat> formats, File previousDirectory) throws IOException {
+		this.directory = directory;
+		this.formats = EnumSet.copyOf(formats);
+
+		// read this first, the previous directory might be the destination directory
+		if (previousDirectory != null) {
+			LOGGER.info("Reading previous results from " + previousDirectory);
+			previousSnapshot = ChangeDetector.readSnapshot(previousDirectory);
+			if (!formats.contains(OutputFormat.JSON)) {
+				LOGGER.warn(String.format("Changes are only detected with the %s format",
+						OutputFormat.JSON.getArgName()));
+			}
+		} else {
+			previousSnapshot = null;
+		}
+
+		try {
+			for (OutputFormat format : this.formats) {
+				sinks.add(new AsyncDocSink(format.createSink(directory), format.getArgName()));
+			}
+		} catch (IOException | RuntimeException e) {
+			closeSinks();
+			throw e;
+		}
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		for (DocSink sink : sinks) {
+			sink.node(categoryPath, node);
+		}
+	}
+
+	@Override
+	public void rootCategory(CategoryDoc rootCategory) throws IOException {
+		hasNodes = true;
+		for (DocSink sink : sinks) {
+			sink.rootCategory(rootCategory);
+		}
+	}
+
+	@Override
+	public void portTypes(PortTypeDoc rootPortType) throws IOException {
+		hasPortTypes = true;
+		for (DocSink sink : sinks) {
+			sink.portTypes(rootPortType);
+		}
+	}
+
+	@Override
+	public void splashIcons(List<SplashIconDoc> splashIcons) throws IOException {
+		for (DocSink sink : sinks) {
+			sink.splashIcons(splashIcons);
+		}
+	}
+
+	@Override
+	public void migrationRules(List<MigrationRuleDoc> migrationRules) throws IOException {
+		hasMigrationRules = true;
+		for (DocSink sink : sinks) {
+			sink.migrationRules(migrationRules);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		closeSinks();
+
+		if (previousSnapshot != null && formats.contains(OutputFormat.JSON)) {
+			ChangeDetector.Snapshot currentSnapshot = ChangeDetector.readSnapshot(directory, hasNodes, hasPortTypes,
+					hasMigrationRules);
+			ChangesDoc changes = ChangeDetector.compare(previousSnapshot, currentSnapshot);
+			File changesResultFile = new File(directory, CHANGES_FILE);
+			LOGGER.info("Writing changes to " + changesResultFile);
+			Utils.writeJson(changes, changesResultFile, true);
+		}
+	}
+
+	/** Wait for all sinks; throw the first failure. */
+	private void closeSinks() throws IOException {
+		IOException exception = null;
+		for (DocSink sink : sinks) {
+			try {
+				sink.close();
+			} catch (IOException e) {
+				if (exception == null) {
+					exception = e;
+				} else {
+					exception.addSuppressed(e);
+				}
+			}
+		}
+		sinks.clear();
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	private static void printUsage() {
+		System.err.println("Usage: OutputRenderer options");
+		System.err.println("Allowed options are:");
+		System.err.println("\t" + SNAPSHOT_ARG + " file : Snapshot file written by the generator's "
+				+ SNAPSHOT_ARG + " option");
+		System.err.println("\t" + JsonNodeDocuGenerator.DESTINATION_ARG
+				+ " dir : Directory where the result should be written to");
+		System.err.println("\t" + JsonNodeDocuGenerator.FORMAT_ARG + " format : " + JsonNodeDocuGenerator.FORMAT_HELP);
+		System.err.println("\t" + JsonNodeDocuGenerator.NODE_ARCHIVE_ARG + " : Additionally write the nodes to "
+				+ NODE_ARCHIVE_FILE);
+		System.err.println("\t" + JsonNodeDocuGenerator.PREVIOUS_ARG
+				+ " dir : Output directory of a previous run; write the added, removed and modified entries to "
+				+ CHANGES_FILE);
+	}
+
+	public static void main(String[] args) throws IOException {
+		// only compile-time constants of JsonNodeDocuGenerator are used here, so no
+		// KNIME classes are loaded
+		File snapshotFile = null;
+		File directory = null;
+		Set<OutputFormat> formats = EnumSet.noneOf(OutputFormat.class);
+		File previousDirectory = null;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals(SNAPSHOT_ARG)) {
+				snapshotFile = new File(args[i + 1]);
+			} else if (args[i].equals(JsonNodeDocuGenerator.DESTINATION_ARG)) {
+				directory = new File(args[i + 1]);
+			} else if (args[i].equals(JsonNodeDocuGenerator.FORMAT_ARG)) {
+				formats.add(OutputFormat.fromArgName(args[i + 1]));
+			} else if (args[i].equals(JsonNodeDocuGenerator.NODE_ARCHIVE_ARG)) {
+				formats.add(OutputFormat.ARCHIVE);
+			} else if (args[i].equals(JsonNodeDocuGenerator.PREVIOUS_ARG)) {
+				previousDirectory = new File(args[i + 1]);
+			}
+		}
+		if (snapshotFile == null || directory == null) {
+			printUsage();
+			System.exit(1);
+		}
+		if (!directory.exists() && !directory.mkdirs()) {
+			System.err.println("Could not create output directory '" + directory.getAbsolutePath() + "'.");
+			System.exit(1);
+		}
+		if (formats.isEmpty() || formats.equals(EnumSet.of(OutputFormat.ARCHIVE))) {
+			formats.add(OutputFormat.JSON);
+		}
+		LOGGER.info("Reading snapshot from " + snapshotFile);
+		RepositorySnapshot snapshot = RepositorySnapshot.read(snapshotFile);
+		try (OutputRenderer renderer = new OutputRenderer(directory, formats, previousDirectory)) {
+			snapshot.replay(renderer);
+		}
+	}
+
+}
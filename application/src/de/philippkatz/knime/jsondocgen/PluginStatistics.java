@@ -0,0 +1,190 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.DynamicPortGroup;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
+import de.philippkatz.knime.jsondocgen.docs.PluginStatisticsDoc;
+
+/**
+ * Per-plugin counters which are updated as the nodes arrive, so that the
+ * <code>plugins.json</code> manifest needs no additional pass over the
+ * category tree. The serialized size is counted while the node documentation
+ * file is written, so it is the nodes' actual size within that file.
+ *
+ * @author pk
+ */
+final class PluginStatistics {
+
+	/** The mutable counters of one plugin. */
+	private static final class Counters {
+		int nodes;
+		int deprecatedNodes;
+		int streamableNodes;
+		int modernDialogNodes;
+		final Set<String> portTypes = new TreeSet<>();
+		long serializedBytes;
+	}
+
+	/** Counts the UTF-8 bytes which are written to the file. */
+	private static final class CountingWriter extends FilterWriter {
+		long bytes;
+
+		CountingWriter(Writer out) {
+			super(out);
+		}
+
+		@Override
+		public void write(char[] chars, int offset, int length) throws IOException {
+			out.write(chars, offset, length);
+			for (int i = offset; i < offset + length; i++) {
+				count(chars[i]);
+			}
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			out.write(c);
+			count((char) c);
+		}
+
+		@Override
+		public void write(String string, int offset, int length) throws IOException {
+			out.write(string, offset, length);
+			for (int i = offset; i < offset + length; i++) {
+				count(string.charAt(i));
+			}
+		}
+
+		private void count(char ch) {
+			if (ch < 0x80) {
+				bytes += 1;
+			} else if (ch < 0x800 || Character.isSurrogate(ch)) {
+				// a surrogate pair is 4 bytes, i.e. 2 per char
+				bytes += 2;
+			} else {
+				bytes += 3;
+			}
+		}
+	}
+
+	private final Map<String, Counters> counters = new HashMap<>();
+
+	private CountingWriter countingWriter;
+
+	private Counters getCounters(NodeDoc node) {
+		return counters.computeIfAbsent(String.valueOf(node.contributingPlugin), key -> new Counters());
+	}
+
+	void add(NodeDoc node) {
+		Counters pluginCounters = getCounters(node);
+		pluginCounters.nodes++;
+		if (node.deprecated) {
+			pluginCounters.deprecatedNodes++;
+		}
+		if (node.streamable) {
+			pluginCounters.streamableNodes++;
+		}
+		if (node.hasModernDialog) {
+			pluginCounters.modernDialogNodes++;
+		}
+		for (List<Port> ports : List.of(nullToEmpty(node.inPorts), nullToEmpty(node.outPorts))) {
+			for (Port port : ports) {
+				if (port.portObjectClass != null) {
+					pluginCounters.portTypes.add(port.portObjectClass);
+				}
+			}
+		}
+		for (List<DynamicPortGroup> portGroups : List.of(nullToEmpty(node.dynamicInPorts),
+				nullToEmpty(node.dynamicOutPorts))) {
+			for (DynamicPortGroup portGroup : portGroups) {
+				if (portGroup.portObjectClasses != null) {
+					pluginCounters.portTypes.addAll(portGroup.portObjectClasses);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Count the bytes which are written to the node documentation file.
+	 *
+	 * @param writer
+	 *            The file's writer.
+	 * @return The writer to use instead; the nodes' text arena handles must
+	 *         already be resolved, i.e. it needs to be wrapped with
+	 *         {@link TextArena#resolving(Writer)}.
+	 */
+	Writer counting(Writer writer) {
+		countingWriter = new CountingWriter(writer);
+		return countingWriter;
+	}
+
+	/**
+	 * Register with the Gson instance which writes to the
+	 * {@link #counting(Writer)} writer, to attribute the written bytes to the
+	 * nodes' plugins.
+	 *
+	 * @return The factory.
+	 */
+	TypeAdapterFactory serializedBytes() {
+		return new TypeAdapterFactory() {
+			@Override
+			public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+				if (!NodeDoc.class.isAssignableFrom(type.getRawType())) {
+					return null;
+				}
+				TypeAdapter<T> delegate = gson.getDelegateAdapter(this, type);
+				return new TypeAdapter<T>() {
+					@Override
+					public void write(JsonWriter out, T value) throws IOException {
+						// the JsonWriter does not buffer, so everything the node
+						// writes (including the separator and indentation before
+						// it) has reached the counting writer afterwards
+						long start = countingWriter.bytes;
+						delegate.write(out, value);
+						if (value != null) {
+							getCounters((NodeDoc) value).serializedBytes += countingWriter.bytes - start;
+						}
+					}
+
+					@Override
+					public T read(JsonReader in) throws IOException {
+						return delegate.read(in);
+					}
+				};
+			}
+		};
+	}
+
+	/** @return The statistics by plugin ID, sorted. */
+	Map<String, PluginStatisticsDoc> getStatistics() {
+		Map<String, PluginStatisticsDoc> result = new TreeMap<>();
+		counters.forEach((plugin, pluginCounters) -> result.put(plugin,
+				new PluginStatisticsDoc(pluginCounters.nodes, pluginCounters.deprecatedNodes,
+						pluginCounters.streamableNodes, pluginCounters.modernDialogNodes,
+						new ArrayList<>(pluginCounters.portTypes), pluginCounters.serializedBytes)));
+		return result;
+	}
+
+	private static <T> List<T> nullToEmpty(List<T> list) {
+		return list != null ? list : List.of();
+	}
+
+}
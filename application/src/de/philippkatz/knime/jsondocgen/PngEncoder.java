@@ -0,0 +1,159 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Encodes {@link ImageData} as PNG without SWT's {@link org.eclipse.swt.graphics.ImageLoader}
+ * and without a {@link org.eclipse.swt.widgets.Display}, so it can be used from
+ * any thread. Handles direct and indexed palettes of all depths and all
+ * transparency types (alpha data, global alpha, mask, transparent pixel).
+ *
+ * The result is an 8-bit RGB or RGBA image; the decoded pixels are identical
+ * to the ones written by SWT.
+ *
+ * @author pk
+ */
+final class PngEncoder {
+
+	private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+	/* package */ static final int COLOR_TYPE_RGB = 2;
+
+	/* package */ static final int COLOR_TYPE_PALETTE = 3;
+
+	/* package */ static final int COLOR_TYPE_RGBA = 6;
+
+	/**
+	 * Encode the given image.
+	 *
+	 * @param imageData
+	 *            The image.
+	 * @return The PNG file's bytes.
+	 */
+	static byte[] encode(ImageData imageData) {
+		int width = imageData.width;
+		int height = imageData.height;
+		int[] argb = toArgb(imageData);
+		boolean hasAlpha = imageData.getTransparencyType() != SWT.TRANSPARENCY_NONE || imageData.alpha != -1;
+		int bytesPerPixel = hasAlpha ? 4 : 3;
+
+		ByteArrayOutputStream raw = new ByteArrayOutputStream(height * (1 + width * bytesPerPixel));
+		for (int y = 0; y < height; y++) {
+			raw.write(0); // filter: none
+			for (int x = 0; x < width; x++) {
+				int pixel = argb[y * width + x];
+				raw.write(pixel >>> 16);
+				raw.write(pixel >>> 8);
+				raw.write(pixel);
+				if (hasAlpha) {
+					raw.write(pixel >>> 24);
+				}
+			}
+		}
+
+		try {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			writeHeader(out, width, height, 8, hasAlpha ? COLOR_TYPE_RGBA : COLOR_TYPE_RGB);
+			writeChunk(out, "IDAT", deflate(raw.toByteArray(), Deflater.DEFAULT_COMPRESSION));
+			writeChunk(out, "IEND", new byte[0]);
+			return out.toByteArray();
+		} catch (IOException e) {
+			// no I/O with byte arrays
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Convert the image to ARGB values, one per pixel, row by row.
+	 *
+	 * @param imageData
+	 *            The image.
+	 * @return The pixels as <code>0xAARRGGBB</code>.
+	 */
+	static int[] toArgb(ImageData imageData) {
+		int width = imageData.width;
+		int height = imageData.height;
+		PaletteData palette = imageData.palette;
+		ImageData mask = imageData.getTransparencyType() == SWT.TRANSPARENCY_MASK ? imageData.getTransparencyMask()
+				: null;
+		int[] result = new int[width * height];
+		int[] row = new int[width];
+		for (int y = 0; y < height; y++) {
+			imageData.getPixels(0, y, width, row, 0);
+			for (int x = 0; x < width; x++) {
+				int pixel = row[x];
+				int alpha;
+				if (imageData.alphaData != null) {
+					alpha = imageData.alphaData[y * width + x] & 0xff;
+				} else if (mask != null) {
+					alpha = mask.getPixel(x, y) != 0 ? 0xff : 0;
+				} else if (imageData.transparentPixel != -1 && pixel == imageData.transparentPixel) {
+					alpha = 0;
+				} else if (imageData.alpha != -1) {
+					alpha = imageData.alpha & 0xff;
+				} else {
+					alpha = 0xff;
+				}
+				RGB rgb = palette.getRGB(pixel);
+				result[y * width + x] = alpha << 24 | rgb.red << 16 | rgb.green << 8 | rgb.blue;
+			}
+		}
+		return result;
+	}
+
+	/** Write the signature and the IHDR chunk. */
+	/* package */ static void writeHeader(ByteArrayOutputStream out, int width, int height, int bitDepth,
+			int colorType) throws IOException {
+		out.write(SIGNATURE);
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		DataOutputStream headerData = new DataOutputStream(header);
+		headerData.writeInt(width);
+		headerData.writeInt(height);
+		headerData.writeByte(bitDepth);
+		headerData.writeByte(colorType);
+		headerData.writeByte(0); // compression
+		headerData.writeByte(0); // filter
+		headerData.writeByte(0); // interlace
+		writeChunk(out, "IHDR", header.toByteArray());
+	}
+
+	/* package */ static byte[] deflate(byte[] data, int level) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		Deflater deflater = new Deflater(level);
+		try (DeflaterOutputStream stream = new DeflaterOutputStream(compressed, deflater)) {
+			stream.write(data);
+		} finally {
+			deflater.end();
+		}
+		return compressed.toByteArray();
+	}
+
+	/* package */ static void writeChunk(ByteArrayOutputStream out, String type, byte[] data) throws IOException {
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		DataOutputStream dataOut = new DataOutputStream(out);
+		dataOut.writeInt(data.length);
+		dataOut.write(typeBytes);
+		dataOut.write(data);
+		CRC32 crc = new CRC32();
+		crc.update(typeBytes);
+		crc.update(data);
+		dataOut.writeInt((int) crc.getValue());
+	}
+
+	private PngEncoder() {
+		// static only
+	}
+
+}
@@ -0,0 +1,144 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import de.philippkatz.knime.jsondocgen.docs.PortAncestryDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+
+/**
+ * The port object class hierarchy as a graph, reconstructed from the
+ * {@link PortTypeDoc} tree. The tree contains a class once below each of its
+ * parents (a class can implement several port object interfaces), so the
+ * ancestors of a class are the union over all of its occurrences.
+ *
+ * @author pk
+ */
+final class PortTypeHierarchy {
+
+	/** object class -> direct parents */
+	private final Map<String, Set<String>> parents = new HashMap<>();
+
+	/** object classes whose children have been collected */
+	private final Set<String> collected = new HashSet<>();
+
+	/** object class -> the class itself and all its ancestors */
+	private final Map<String, Set<String>> ancestors = new HashMap<>();
+
+	/**
+	 * Create the hierarchy.
+	 *
+	 * @param rootPortType
+	 *            The root of the port type tree, or <code>null</code> in case
+	 *            the port types are not available; then each class is only
+	 *            compatible with itself.
+	 */
+	PortTypeHierarchy(PortTypeDoc rootPortType) {
+		if (rootPortType != null) {
+			collect(rootPortType);
+		}
+	}
+
+	private void collect(PortTypeDoc portType) {
+		// the subtree below a class is the same at each occurrence, so only walk it once
+		if (!collected.add(portType.objectClass)) {
+			return;
+		}
+		parents.computeIfAbsent(portType.objectClass, key -> new LinkedHashSet<>());
+		if (portType.children != null) {
+			for (PortTypeDoc child : portType.children) {
+				parents.computeIfAbsent(child.objectClass, key -> new LinkedHashSet<>()).add(portType.objectClass);
+				collect(child);
+			}
+		}
+	}
+
+	/** @return All object classes in the hierarchy, sorted. */
+	List<String> getPortObjectClasses() {
+		return new ArrayList<>(new TreeSet<>(parents.keySet()));
+	}
+
+	/**
+	 * Get the transitive ancestors of an object class.
+	 *
+	 * @param objectClass
+	 *            The object class.
+	 * @return The class itself and all classes it is assignable to; only the
+	 *         class itself in case it is not part of the hierarchy.
+	 */
+	Set<String> getAncestors(String objectClass) {
+		Set<String> result = ancestors.get(objectClass);
+		if (result == null) {
+			result = new LinkedHashSet<>();
+			result.add(objectClass);
+			for (String parent : parents.getOrDefault(objectClass, Collections.emptySet())) {
+				result.addAll(getAncestors(parent));
+			}
+			result = Collections.unmodifiableSet(result);
+			ancestors.put(objectClass, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Get the ancestors of all classes as a lookup table of bitsets, so that a
+	 * subtype check is a single bit test.
+	 *
+	 * @return The ancestry table.
+	 */
+	PortAncestryDoc getAncestry() {
+		List<String> objectClasses = getPortObjectClasses();
+		Map<String, Integer> indices = new HashMap<>();
+		for (int i = 0; i < objectClasses.size(); i++) {
+			indices.put(objectClasses.get(i), i);
+		}
+		List<int[]> ancestry = new ArrayList<>();
+		for (String objectClass : objectClasses) {
+			BitSet bitSet = new BitSet(objectClasses.size());
+			for (String ancestor : getAncestors(objectClass)) {
+				bitSet.set(indices.get(ancestor));
+			}
+			ancestry.add(toIntArray(bitSet));
+		}
+		return new PortAncestryDoc(objectClasses, ancestry);
+	}
+
+	private static int[] toIntArray(BitSet bitSet) {
+		long[] longs = bitSet.toLongArray();
+		int[] ints = new int[(bitSet.length() + 31) / 32];
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = (int) (longs[i / 2] >>> (i % 2 * 32));
+		}
+		return ints;
+	}
+
+	/**
+	 * Get the transitive descendants of each object class.
+	 *
+	 * @param objectClasses
+	 *            Additional classes which are not necessarily part of the
+	 *            hierarchy (e.g. the classes of the node ports).
+	 * @return For every class of the hierarchy and every given class: the
+	 *         class itself and all classes which are assignable to it.
+	 */
+	Map<String, Set<String>> getDescendants(Set<String> objectClasses) {
+		Set<String> allClasses = new TreeSet<>(parents.keySet());
+		allClasses.addAll(objectClasses);
+		Map<String, Set<String>> result = new HashMap<>();
+		for (String objectClass : allClasses) {
+			for (String ancestor : getAncestors(objectClass)) {
+				result.computeIfAbsent(ancestor, key -> new LinkedHashSet<>()).add(objectClass);
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,247 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.DynamicPortGroup;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Option;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.OptionTab;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
+import de.philippkatz.knime.jsondocgen.docs.RelatedNodeDoc;
+
+/**
+ * Finds similar nodes without comparing every pair: while the nodes arrive,
+ * each one gets a MinHash signature over its features (the words of its
+ * description and intro, its option names, and its in and out port types).
+ * When closing, the signatures are split into bands, and only nodes which
+ * share the bucket of at least one band are compared (locality-sensitive
+ * hashing). The similarity is estimated from the signatures.
+ *
+ * With {@link #NUM_BANDS} bands of {@link #ROWS_PER_BAND} rows, pairs with a
+ * Jaccard similarity of about 0.5 become candidates with a probability of
+ * ~0.65, pairs with 0.7 with ~0.98. Buckets with more than
+ * {@link #MAX_BUCKET_SIZE} nodes (e.g. nodes without any description) are
+ * ignored, so that the comparisons stay near-linear.
+ *
+ * The result is written to <code>relatedNodes.json</code>: for each node ID
+ * the IDs of the {@link #MAX_RELATED} most similar nodes.
+ *
+ * @author pk
+ */
+final class RelatedNodesFinder implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(RelatedNodesFinder.class);
+
+	/* package */ static final String RELATED_NODES_FILE = "relatedNodes.json";
+
+	/* package */ static final int NUM_BANDS = 16;
+
+	/* package */ static final int ROWS_PER_BAND = 4;
+
+	private static final int NUM_HASHES = NUM_BANDS * ROWS_PER_BAND;
+
+	/* package */ static final int MAX_BUCKET_SIZE = 250;
+
+	/* package */ static final int MAX_RELATED = 10;
+
+	/** Candidates with a lower estimated similarity are dropped. */
+	/* package */ static final double MIN_SIMILARITY = 0.3;
+
+	private final File file;
+
+	private final List<String> nodeIds = new ArrayList<>();
+
+	private final List<long[]> signatures = new ArrayList<>();
+
+	private final Set<String> addedIds = new HashSet<>();
+
+	RelatedNodesFinder(File file) {
+		this.file = file;
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		add(node);
+	}
+
+	/* package */ void add(NodeDoc node) {
+		if (!addedIds.add(node.id)) {
+			return;
+		}
+		Set<String> features = getFeatures(node);
+		if (features.isEmpty()) {
+			return;
+		}
+		nodeIds.add(node.id);
+		signatures.add(getSignature(features));
+	}
+
+	@Override
+	public void close() throws IOException {
+		Utils.writeJson(findRelated(), file, true);
+	}
+
+	/**
+	 * @return For each node ID the related nodes, most similar first; nodes
+	 *         without related nodes are omitted.
+	 */
+	/* package */ Map<String, List<RelatedNodeDoc>> findRelated() {
+		// band index and band values -> nodes
+		Map<List<Long>, List<Integer>> buckets = new HashMap<>();
+		for (int doc = 0; doc < signatures.size(); doc++) {
+			long[] signature = signatures.get(doc);
+			for (int band = 0; band < NUM_BANDS; band++) {
+				List<Long> key = new ArrayList<>(ROWS_PER_BAND + 1);
+				key.add((long) band);
+				for (int row = 0; row < ROWS_PER_BAND; row++) {
+					key.add(signature[band * ROWS_PER_BAND + row]);
+				}
+				buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(doc);
+			}
+		}
+
+		List<Set<Integer>> candidates = new ArrayList<>();
+		for (int doc = 0; doc < signatures.size(); doc++) {
+			candidates.add(new HashSet<>());
+		}
+		int skippedBuckets = 0;
+		for (List<Integer> bucket : buckets.values()) {
+			if (bucket.size() > MAX_BUCKET_SIZE) {
+				skippedBuckets++;
+				continue;
+			}
+			for (int doc : bucket) {
+				candidates.get(doc).addAll(bucket);
+			}
+		}
+
+		Map<String, List<RelatedNodeDoc>> result = new TreeMap<>();
+		long comparisons = 0;
+		for (int doc = 0; doc < signatures.size(); doc++) {
+			List<RelatedNodeDoc> related = new ArrayList<>();
+			for (int candidate : candidates.get(doc)) {
+				if (candidate == doc) {
+					continue;
+				}
+				comparisons++;
+				double similarity = estimateSimilarity(signatures.get(doc), signatures.get(candidate));
+				if (similarity >= MIN_SIMILARITY) {
+					related.add(new RelatedNodeDoc(nodeIds.get(candidate), similarity));
+				}
+			}
+			if (!related.isEmpty()) {
+				related.sort((related1, related2) -> related1.similarity != related2.similarity
+						? Double.compare(related2.similarity, related1.similarity)
+						: related1.id.compareTo(related2.id));
+				result.put(nodeIds.get(doc), new ArrayList<>(related.subList(0, Math.min(MAX_RELATED, related.size()))));
+			}
+		}
+		LOGGER.info(String.format("Found related nodes for %s of %s nodes with %s comparisons (%s buckets skipped)",
+				result.size(), signatures.size(), comparisons, skippedBuckets));
+		return result;
+	}
+
+	/* package */ static Set<String> getFeatures(NodeDoc node) {
+		Set<String> features = new HashSet<>();
+		for (String text : Arrays.asList(node.description, node.intro)) {
+			for (String token : SearchIndexReader.tokenize(TextArena.resolve(text))) {
+				features.add("w:" + token);
+			}
+		}
+		List<Option> options = new ArrayList<>();
+		if (node.options != null) {
+			options.addAll(node.options);
+		}
+		if (node.optionTabs != null) {
+			for (OptionTab optionTab : node.optionTabs) {
+				if (optionTab.options != null) {
+					options.addAll(optionTab.options);
+				}
+			}
+		}
+		for (Option option : options) {
+			if (option.name != null) {
+				features.add("o:" + AutocompleteReader.normalize(option.name));
+			}
+		}
+		addPortFeatures(features, "i:", node.inPorts, node.dynamicInPorts);
+		addPortFeatures(features, "u:", node.outPorts, node.dynamicOutPorts);
+		return features;
+	}
+
+	private static void addPortFeatures(Set<String> features, String prefix, List<Port> ports,
+			List<DynamicPortGroup> portGroups) {
+		if (ports != null) {
+			for (Port port : ports) {
+				if (port.portObjectClass != null) {
+					features.add(prefix + port.portObjectClass);
+				}
+			}
+		}
+		if (portGroups != null) {
+			for (DynamicPortGroup portGroup : portGroups) {
+				if (portGroup.portObjectClasses != null) {
+					for (String portObjectClass : portGroup.portObjectClasses) {
+						features.add(prefix + portObjectClass);
+					}
+				}
+			}
+		}
+	}
+
+	/** @return For each hash function the minimum hash over all features. */
+	/* package */ static long[] getSignature(Set<String> features) {
+		long[] signature = new long[NUM_HASHES];
+		Arrays.fill(signature, Long.MAX_VALUE);
+		for (String feature : features) {
+			long hash = fnv1a(feature);
+			for (int i = 0; i < NUM_HASHES; i++) {
+				// a family of hash functions: mix the feature hash with a seed per function
+				long value = mix(hash + (i + 1) * 0x9E3779B97F4A7C15L);
+				if (value < signature[i]) {
+					signature[i] = value;
+				}
+			}
+		}
+		return signature;
+	}
+
+	/* package */ static double estimateSimilarity(long[] signature1, long[] signature2) {
+		int equal = 0;
+		for (int i = 0; i < signature1.length; i++) {
+			if (signature1[i] == signature2[i]) {
+				equal++;
+			}
+		}
+		return (double) equal / signature1.length;
+	}
+
+	private static long fnv1a(String string) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : string.getBytes(StandardCharsets.UTF_8)) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/** The SplitMix64 finalizer. */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+		value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+		return value ^ (value >>> 31);
+	}
+
+}
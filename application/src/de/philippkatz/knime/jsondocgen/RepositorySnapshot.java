@@ -0,0 +1,176 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+import de.philippkatz.knime.jsondocgen.docs.SplashIconDoc;
+
+/**
+ * Everything which was collected from the running KNIME instance: the category
+ * tree with its nodes, the port type hierarchy, the splash icons and the
+ * migration rules. Each part is <code>null</code> in case it was skipped.
+ *
+ * A snapshot can be written to a file and read again without KNIME, so that
+ * the outputs can be re-rendered with {@link OutputRenderer} without starting
+ * KNIME and crawling the repository again. The file is a GZIP-compressed,
+ * compact JSON object which is written and read in a streaming fashion, one
+ * part at a time.
+ *
+ * @author pk
+ */
+public final class RepositorySnapshot {
+
+	/** Increment when the structure of the doc classes changes incompatibly. */
+	private static final int VERSION = 1;
+
+	private static final Type SPLASH_ICONS_TYPE = new TypeToken<List<SplashIconDoc>>() {
+	}.getType();
+
+	private static final Type MIGRATION_RULES_TYPE = new TypeToken<List<MigrationRuleDoc>>() {
+	}.getType();
+
+	public final CategoryDoc rootCategory;
+	public final PortTypeDoc rootPortType;
+	public final List<SplashIconDoc> splashIcons;
+	public final List<MigrationRuleDoc> migrationRules;
+
+	public RepositorySnapshot(CategoryDoc rootCategory, PortTypeDoc rootPortType, List<SplashIconDoc> splashIcons,
+			List<MigrationRuleDoc> migrationRules) {
+		this.rootCategory = rootCategory;
+		this.rootPortType = rootPortType;
+		this.splashIcons = splashIcons;
+		this.migrationRules = migrationRules;
+	}
+
+	/**
+	 * Write the snapshot to the given file.
+	 *
+	 * @param file
+	 *            The destination file.
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	public void write(File file) throws IOException {
+		// no content hashes here, they are calculated when rendering
+		Gson gson = new Gson();
+		try (JsonWriter writer = new JsonWriter(TextArena.resolving(new OutputStreamWriter(
+				new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath()))),
+				StandardCharsets.UTF_8)))) {
+			writer.beginObject();
+			writer.name("version").value(VERSION);
+			if (rootCategory != null) {
+				writer.name("rootCategory");
+				gson.toJson(rootCategory, CategoryDoc.class, writer);
+			}
+			if (rootPortType != null) {
+				writer.name("rootPortType");
+				gson.toJson(rootPortType, PortTypeDoc.class, writer);
+			}
+			if (splashIcons != null) {
+				writer.name("splashIcons");
+				gson.toJson(splashIcons, SPLASH_ICONS_TYPE, writer);
+			}
+			if (migrationRules != null) {
+				writer.name("migrationRules");
+				gson.toJson(migrationRules, MIGRATION_RULES_TYPE, writer);
+			}
+			writer.endObject();
+		}
+	}
+
+	/**
+	 * Send the contents of this snapshot to the given sink, in the same order as
+	 * during generation: first the nodes with their category paths, then the
+	 * other parts. Parts which are <code>null</code> are skipped.
+	 *
+	 * @param sink
+	 *            The sink.
+	 * @throws IOException
+	 *             In case the sink fails.
+	 */
+	public void replay(DocSink sink) throws IOException {
+		if (rootCategory != null) {
+			replayNodes(rootCategory, "/", sink);
+			sink.rootCategory(rootCategory);
+		}
+		if (rootPortType != null) {
+			sink.portTypes(rootPortType);
+		}
+		if (splashIcons != null) {
+			sink.splashIcons(splashIcons);
+		}
+		if (migrationRules != null) {
+			sink.migrationRules(migrationRules);
+		}
+	}
+
+	private static void replayNodes(CategoryDoc category, String path, DocSink sink) throws IOException {
+		for (NodeDoc node : category.getNodes()) {
+			sink.node(path, node);
+		}
+		for (CategoryDoc child : category.getChildren()) {
+			replayNodes(child, path + (path.endsWith("/") ? "" : "/") + child.id, sink);
+		}
+	}
+
+	/**
+	 * Read a snapshot from the given file.
+	 *
+	 * @param file
+	 *            The snapshot file.
+	 * @return The snapshot.
+	 * @throws IOException
+	 *             In case reading fails, or the file was written by an
+	 *             incompatible version.
+	 */
+	public static RepositorySnapshot read(File file) throws IOException {
+		Gson gson = new Gson();
+		CategoryDoc rootCategory = null;
+		PortTypeDoc rootPortType = null;
+		List<SplashIconDoc> splashIcons = null;
+		List<MigrationRuleDoc> migrationRules = null;
+		try (JsonReader reader = new JsonReader(new InputStreamReader(
+				new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))),
+				StandardCharsets.UTF_8))) {
+			reader.beginObject();
+			while (reader.hasNext()) {
+				switch (reader.nextName()) {
+				case "version" -> {
+					int version = reader.nextInt();
+					if (version != VERSION) {
+						throw new IOException(
+								String.format("Unsupported snapshot version %s in %s, expected %s", version, file, VERSION));
+					}
+				}
+				case "rootCategory" -> rootCategory = gson.fromJson(reader, CategoryDoc.class);
+				case "rootPortType" -> rootPortType = gson.fromJson(reader, PortTypeDoc.class);
+				case "splashIcons" -> splashIcons = gson.fromJson(reader, SPLASH_ICONS_TYPE);
+				case "migrationRules" -> migrationRules = gson.fromJson(reader, MIGRATION_RULES_TYPE);
+				default -> reader.skipValue();
+				}
+			}
+			reader.endObject();
+		}
+		return new RepositorySnapshot(rootCategory, rootPortType, splashIcons, migrationRules);
+	}
+
+}
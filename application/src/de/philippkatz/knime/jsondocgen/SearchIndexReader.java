@@ -0,0 +1,299 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Read access to the full-text index over the node documentation, as written
+ * with <code>-format index</code> (see {@link SearchIndexWriter}). The file is
+ * memory-mapped; looking up a term is a binary search over the term dictionary
+ * and only decodes the postings of that term.
+ *
+ * The format is as follows (all numbers big-endian; "vint" is a variable
+ * length int with 7 bits per byte, low bits first, high bit set on all but
+ * the last byte):
+ *
+ * <pre>
+ * header:     magic "JDGI" (4 bytes), version (int)
+ * postings:   per term: per document (ascending): document delta (vint),
+ *             number of fields (vint); per field: field ordinal (vint),
+ *             number of positions (vint), position deltas (vint)
+ * terms:      the terms (UTF-8), in dictionary order
+ * documents:  the node IDs (UTF-8), in document order
+ * dictionary: per term, sorted by term bytes (unsigned):
+ *             term offset (long), term length (int), postings offset (long),
+ *             postings length (int), document frequency (int)
+ * doc table:  per document: ID offset (long), ID length (int)
+ * footer:     dictionary offset (long), number of terms (int),
+ *             doc table offset (long), number of documents (int), magic "JDGI" (4 bytes)
+ * </pre>
+ *
+ * Terms are produced by {@link #tokenize(String)}, which must also be used for
+ * queries. Positions count the tokens within a field of a document; in case a
+ * field consists of several texts (e.g. the options), the positions of each
+ * text start {@link #POSITION_GAP} after the previous one, so that phrases do
+ * not match across texts.
+ *
+ * @author pk
+ */
+public final class SearchIndexReader implements Closeable {
+
+	/** The part of the documentation a term occurred in. */
+	public enum Field {
+		/** The node name. */
+		NAME,
+		/** The short description. */
+		DESCRIPTION,
+		/** The intro of the full description. */
+		INTRO,
+		/** The names and descriptions of options and option tabs. */
+		OPTION,
+		/** The names and descriptions of ports, dynamic port groups and views. */
+		PORT,
+		/** The keywords. */
+		KEYWORD
+	}
+
+	/** The occurrences of a term within one field of one document. */
+	public static final class Posting {
+		public final int doc;
+		public final Field field;
+		public final int[] positions;
+
+		Posting(int doc, Field field, int[] positions) {
+			this.doc = doc;
+			this.field = field;
+			this.positions = positions;
+		}
+	}
+
+	static final byte[] MAGIC = { 'J', 'D', 'G', 'I' };
+
+	static final int VERSION = 1;
+
+	/** Position increment between the texts of one field. */
+	static final int POSITION_GAP = 100;
+
+	private static final int FOOTER_SIZE = 2 * (Long.BYTES + Integer.BYTES) + MAGIC.length;
+
+	private static final int DICTIONARY_ENTRY_SIZE = Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES
+			+ Integer.BYTES;
+
+	private static final int DOC_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+
+	private static final Pattern TAG = Pattern.compile("<[^>]*>");
+
+	private static final Pattern ENTITY = Pattern.compile("&(#[0-9]+|#x[0-9a-fA-F]+|[a-zA-Z]+);");
+
+	private static final Field[] FIELDS = Field.values();
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer buffer;
+
+	private final int dictionaryOffset;
+
+	private final int numTerms;
+
+	private final int docTableOffset;
+
+	private final int numDocs;
+
+	/**
+	 * Open the given index.
+	 *
+	 * @param file
+	 *            The index file.
+	 * @throws IOException
+	 *             In case the file cannot be read or is not a valid index.
+	 */
+	public SearchIndexReader(File file) throws IOException {
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			buffer = BinaryFormat.map(channel, file, MAGIC, VERSION, FOOTER_SIZE, "a search index");
+			int footerOffset = buffer.capacity() - FOOTER_SIZE;
+			dictionaryOffset = (int) buffer.getLong(footerOffset);
+			numTerms = buffer.getInt(footerOffset + Long.BYTES);
+			docTableOffset = (int) buffer.getLong(footerOffset + Long.BYTES + Integer.BYTES);
+			numDocs = buffer.getInt(footerOffset + 2 * Long.BYTES + Integer.BYTES);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/** @return The number of documents (nodes). */
+	public int getNumDocs() {
+		return numDocs;
+	}
+
+	/** @return The number of distinct terms. */
+	public int getNumTerms() {
+		return numTerms;
+	}
+
+	/**
+	 * Get the node ID of a document.
+	 *
+	 * @param doc
+	 *            The document number, between 0 and {@link #getNumDocs()}
+	 *            (exclusive).
+	 * @return The node ID.
+	 */
+	public String getNodeId(int doc) {
+		if (doc < 0 || doc >= numDocs) {
+			throw new IndexOutOfBoundsException(doc);
+		}
+		int entryOffset = docTableOffset + doc * DOC_ENTRY_SIZE;
+		return BinaryFormat.decode(buffer, (int) buffer.getLong(entryOffset),
+				buffer.getInt(entryOffset + Long.BYTES));
+	}
+
+	/**
+	 * Get the term at the given dictionary position.
+	 *
+	 * @param index
+	 *            The position, between 0 and {@link #getNumTerms()} (exclusive).
+	 * @return The term.
+	 */
+	public String getTerm(int index) {
+		if (index < 0 || index >= numTerms) {
+			throw new IndexOutOfBoundsException(index);
+		}
+		int entryOffset = dictionaryOffset + index * DICTIONARY_ENTRY_SIZE;
+		return BinaryFormat.decode(buffer, (int) buffer.getLong(entryOffset),
+				buffer.getInt(entryOffset + Long.BYTES));
+	}
+
+	/**
+	 * Get the number of documents which contain a term.
+	 *
+	 * @param term
+	 *            The term, as produced by {@link #tokenize(String)}.
+	 * @return The document frequency, 0 in case the term does not occur.
+	 */
+	public int getDocFrequency(String term) {
+		int index = BinaryFormat.find(buffer, dictionaryOffset, DICTIONARY_ENTRY_SIZE, numTerms,
+				term.getBytes(StandardCharsets.UTF_8));
+		if (index < 0) {
+			return 0;
+		}
+		return buffer.getInt(dictionaryOffset + index * DICTIONARY_ENTRY_SIZE + DICTIONARY_ENTRY_SIZE - Integer.BYTES);
+	}
+
+	/**
+	 * Get the occurrences of a term.
+	 *
+	 * @param term
+	 *            The term, as produced by {@link #tokenize(String)}.
+	 * @return The postings, ordered by document and field; empty in case the
+	 *         term does not occur.
+	 */
+	public List<Posting> getPostings(String term) {
+		int index = BinaryFormat.find(buffer, dictionaryOffset, DICTIONARY_ENTRY_SIZE, numTerms,
+				term.getBytes(StandardCharsets.UTF_8));
+		if (index < 0) {
+			return Collections.emptyList();
+		}
+		int entryOffset = dictionaryOffset + index * DICTIONARY_ENTRY_SIZE + Long.BYTES + Integer.BYTES;
+		ByteBuffer postings = buffer.duplicate();
+		postings.position((int) buffer.getLong(entryOffset));
+		postings.limit(postings.position() + buffer.getInt(entryOffset + Long.BYTES));
+
+		List<Posting> result = new ArrayList<>();
+		int doc = 0;
+		while (postings.hasRemaining()) {
+			doc += BinaryFormat.readVInt(postings);
+			int numFields = BinaryFormat.readVInt(postings);
+			for (int i = 0; i < numFields; i++) {
+				Field field = FIELDS[BinaryFormat.readVInt(postings)];
+				int[] positions = new int[BinaryFormat.readVInt(postings)];
+				int position = 0;
+				for (int j = 0; j < positions.length; j++) {
+					position += BinaryFormat.readVInt(postings);
+					positions[j] = position;
+				}
+				result.add(new Posting(doc, field, positions));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Split a text into terms: HTML tags are removed and entities decoded, the
+	 * text is lower-cased and split at everything which is neither a letter nor
+	 * a digit.
+	 *
+	 * @param text
+	 *            The text, may be <code>null</code>.
+	 * @return The terms in text order.
+	 */
+	public static List<String> tokenize(String text) {
+		List<String> tokens = new ArrayList<>();
+		if (text == null) {
+			return tokens;
+		}
+		String plainText = stripHtml(text).toLowerCase(Locale.ROOT);
+		int start = -1;
+		for (int i = 0; i <= plainText.length(); i++) {
+			boolean letterOrDigit = i < plainText.length() && Character.isLetterOrDigit(plainText.charAt(i));
+			if (letterOrDigit && start < 0) {
+				start = i;
+			} else if (!letterOrDigit && start >= 0) {
+				tokens.add(plainText.substring(start, i));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+	/* package */ static String stripHtml(String html) {
+		// replace tags by a space, so that e.g. "a<br/>b" are two tokens
+		String text = TAG.matcher(html).replaceAll(" ");
+		Matcher matcher = ENTITY.matcher(text);
+		StringBuilder result = new StringBuilder();
+		while (matcher.find()) {
+			matcher.appendReplacement(result, Matcher.quoteReplacement(decodeEntity(matcher.group(1))));
+		}
+		matcher.appendTail(result);
+		return result.toString();
+	}
+
+	private static String decodeEntity(String entity) {
+		try {
+			if (entity.startsWith("#x")) {
+				return Character.toString(Integer.parseInt(entity.substring(2), 16));
+			} else if (entity.startsWith("#")) {
+				return Character.toString(Integer.parseInt(entity.substring(1)));
+			}
+		} catch (IllegalArgumentException e) {
+			return " ";
+		}
+		return switch (entity) {
+		case "amp" -> "&";
+		case "lt" -> "<";
+		case "gt" -> ">";
+		case "quot" -> "\"";
+		case "apos" -> "'";
+		default -> " ";
+		};
+	}
+
+}
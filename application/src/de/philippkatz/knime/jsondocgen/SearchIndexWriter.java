@@ -0,0 +1,251 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+
+import de.philippkatz.knime.jsondocgen.SearchIndexReader.Field;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.DynamicPortGroup;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Option;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.OptionTab;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.View;
+
+/**
+ * Builds the full-text index over the node documentation while the nodes
+ * arrive and writes it when closing; see {@link SearchIndexReader} for the
+ * format. The postings of each term are encoded as soon as a node has been
+ * tokenized, so only the compact encoded form is kept in memory.
+ *
+ * @author pk
+ */
+final class SearchIndexWriter implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(SearchIndexWriter.class);
+
+	/* package */ static final String SEARCH_INDEX_FILE = "nodeDocumentation.index";
+
+	/** The encoded postings of one term. */
+	private static final class TermPostings {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		int lastDoc;
+		int docFrequency;
+	}
+
+	/**
+	 * Write an index over the given nodes. In case an ID occurs multiple times,
+	 * only the first node is indexed.
+	 *
+	 * @param nodes
+	 *            The nodes.
+	 * @param file
+	 *            The destination file.
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	static void write(List<NodeDoc> nodes, File file) throws IOException {
+		try (SearchIndexWriter writer = new SearchIndexWriter(file)) {
+			for (NodeDoc node : nodes) {
+				writer.add(node);
+			}
+		}
+	}
+
+	private final Map<String, TermPostings> postings = new HashMap<>();
+
+	private final List<String> nodeIds = new ArrayList<>();
+
+	private final Set<String> indexedIds = new HashSet<>();
+
+	private final File file;
+
+	SearchIndexWriter(File file) {
+		this.file = file;
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		add(node);
+	}
+
+	private void add(NodeDoc node) {
+		if (!BinaryFormat.isFirstOccurrence(indexedIds, node.id)) {
+			return;
+		}
+		int doc = nodeIds.size();
+		nodeIds.add(node.id);
+
+		Map<Field, List<String>> texts = getTexts(node);
+		// term -> field -> positions, so that each term's entry is complete
+		Map<String, Map<Field, List<Integer>>> occurrences = new TreeMap<>();
+		for (Map.Entry<Field, List<String>> entry : texts.entrySet()) {
+			int position = 0;
+			for (String text : entry.getValue()) {
+				for (String token : SearchIndexReader.tokenize(text)) {
+					occurrences.computeIfAbsent(token, key -> new EnumMap<>(Field.class))
+							.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(position++);
+				}
+				position += SearchIndexReader.POSITION_GAP;
+			}
+		}
+
+		for (Map.Entry<String, Map<Field, List<Integer>>> occurrence : occurrences.entrySet()) {
+			TermPostings termPostings = postings.computeIfAbsent(occurrence.getKey(), key -> new TermPostings());
+			BinaryFormat.writeVInt(termPostings.bytes, doc - termPostings.lastDoc);
+			BinaryFormat.writeVInt(termPostings.bytes, occurrence.getValue().size());
+			for (Map.Entry<Field, List<Integer>> field : occurrence.getValue().entrySet()) {
+				BinaryFormat.writeVInt(termPostings.bytes, field.getKey().ordinal());
+				BinaryFormat.writeVInt(termPostings.bytes, field.getValue().size());
+				int lastPosition = 0;
+				for (int position : field.getValue()) {
+					BinaryFormat.writeVInt(termPostings.bytes, position - lastPosition);
+					lastPosition = position;
+				}
+			}
+			termPostings.lastDoc = doc;
+			termPostings.docFrequency++;
+		}
+	}
+
+	private static Map<Field, List<String>> getTexts(NodeDoc node) {
+		Map<Field, List<String>> texts = new EnumMap<>(Field.class);
+		add(texts, Field.NAME, node.name);
+		add(texts, Field.DESCRIPTION, node.description);
+		add(texts, Field.INTRO, node.intro);
+		if (node.options != null) {
+			for (Option option : node.options) {
+				add(texts, Field.OPTION, option.name, option.description);
+			}
+		}
+		if (node.optionTabs != null) {
+			for (OptionTab optionTab : node.optionTabs) {
+				add(texts, Field.OPTION, optionTab.name, optionTab.description);
+				if (optionTab.options != null) {
+					for (Option option : optionTab.options) {
+						add(texts, Field.OPTION, option.name, option.description);
+					}
+				}
+			}
+		}
+		for (List<Port> ports : Arrays.asList(node.inPorts, node.outPorts)) {
+			if (ports != null) {
+				for (Port port : ports) {
+					add(texts, Field.PORT, port.name, port.description);
+				}
+			}
+		}
+		for (List<DynamicPortGroup> portGroups : Arrays.asList(node.dynamicInPorts, node.dynamicOutPorts)) {
+			if (portGroups != null) {
+				for (DynamicPortGroup portGroup : portGroups) {
+					add(texts, Field.PORT, portGroup.name, portGroup.description);
+				}
+			}
+		}
+		if (node.views != null) {
+			for (View view : node.views) {
+				add(texts, Field.PORT, view.name, view.description);
+			}
+		}
+		if (node.interactiveView != null) {
+			add(texts, Field.PORT, node.interactiveView.name, node.interactiveView.description);
+		}
+		if (node.keywords != null) {
+			for (String keyword : node.keywords) {
+				add(texts, Field.KEYWORD, keyword);
+			}
+		}
+		return texts;
+	}
+
+	private static void add(Map<Field, List<String>> texts, Field field, String... values) {
+		for (String value : values) {
+			if (value != null && !value.isEmpty()) {
+				texts.computeIfAbsent(field, key -> new ArrayList<>()).add(TextArena.resolve(value));
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		List<byte[]> terms = new ArrayList<>();
+		List<TermPostings> termPostings = new ArrayList<>();
+		postings.entrySet().stream()
+				.map(entry -> Map.entry(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue()))
+				.sorted((entry1, entry2) -> Arrays.compareUnsigned(entry1.getKey(), entry2.getKey()))
+				.forEach(entry -> {
+					terms.add(entry.getKey());
+					termPostings.add(entry.getValue());
+				});
+
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+			out.write(SearchIndexReader.MAGIC);
+			out.writeInt(SearchIndexReader.VERSION);
+			long offset = out.size();
+
+			long[] postingsOffsets = new long[terms.size()];
+			for (int i = 0; i < terms.size(); i++) {
+				postingsOffsets[i] = offset;
+				termPostings.get(i).bytes.writeTo(out);
+				offset += termPostings.get(i).bytes.size();
+			}
+
+			long[] termOffsets = new long[terms.size()];
+			for (int i = 0; i < terms.size(); i++) {
+				termOffsets[i] = offset;
+				out.write(terms.get(i));
+				offset += terms.get(i).length;
+			}
+
+			long[] idOffsets = new long[nodeIds.size()];
+			byte[][] ids = new byte[nodeIds.size()][];
+			for (int i = 0; i < nodeIds.size(); i++) {
+				ids[i] = nodeIds.get(i).getBytes(StandardCharsets.UTF_8);
+				idOffsets[i] = offset;
+				out.write(ids[i]);
+				offset += ids[i].length;
+			}
+
+			long dictionaryOffset = offset;
+			for (int i = 0; i < terms.size(); i++) {
+				out.writeLong(termOffsets[i]);
+				out.writeInt(terms.get(i).length);
+				out.writeLong(postingsOffsets[i]);
+				out.writeInt(termPostings.get(i).bytes.size());
+				out.writeInt(termPostings.get(i).docFrequency);
+				offset += 2 * Long.BYTES + 3 * Integer.BYTES;
+			}
+
+			long docTableOffset = offset;
+			for (int i = 0; i < ids.length; i++) {
+				out.writeLong(idOffsets[i]);
+				out.writeInt(ids[i].length);
+			}
+
+			out.writeLong(dictionaryOffset);
+			out.writeInt(terms.size());
+			out.writeLong(docTableOffset);
+			out.writeInt(ids.length);
+			out.write(SearchIndexReader.MAGIC);
+		}
+		LOGGER.info(String.format("Wrote search index with %s terms for %s nodes to %s", terms.size(),
+				nodeIds.size(), file));
+	}
+
+}
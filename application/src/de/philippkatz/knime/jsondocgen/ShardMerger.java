@@ -0,0 +1,411 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.apache.log4j.Logger;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Combines the outputs of several generator runs, each of which processed a
+ * disjoint set of plugins (see the generator's <code>-processes</code> option),
+ * into one output directory:
+ *
+ * <ul>
+ * <li>The category trees of the <code>nodeDocumentation.json</code> files are
+ * merged by category ID. Siblings from different shards are ordered by their
+ * <code>afterId</code>, otherwise each shard's order is kept. The content
+ * hashes of the categories are recalculated, so they are the same as for a
+ * single run.</li>
+ * <li>The <code>plugins.json</code> files are combined.</li>
+ * <li>The remaining files (port types, splash icons, migrations) do not depend
+ * on the plugins and are copied from the first shard which has them.</li>
+ * </ul>
+ *
+ * The shards are streamed: only the category tree is kept in memory, the nodes
+ * are spooled to a temporary file, one line each, and copied to the output one
+ * at a time. Like the {@link OutputRenderer}, it can be run as a plain Java
+ * program:
+ *
+ * <pre>
+ * java -cp … de.philippkatz.knime.jsondocgen.ShardMerger -destination dir -shard shard-0 -shard shard-1
+ * </pre>
+ *
+ * @author pk
+ */
+public final class ShardMerger {
+
+	private static final Logger LOGGER = Logger.getLogger(ShardMerger.class);
+
+	private static final String SHARD_ARG = "-shard";
+
+	/** The files which are the same for all shards. */
+	private static final List<String> SHARED_FILES = List.of(OutputRenderer.PORT_DOCUMENTATION_FILE,
+			OutputRenderer.PORT_ANCESTRY_FILE, OutputRenderer.SPLASH_ICONS_FILE, OutputRenderer.MIGRATIONS_FILE,
+			OutputRenderer.MIGRATION_CHAINS_FILE);
+
+	/** A node in the spool file. */
+	private static final class SpooledNode {
+		final String id;
+		final String afterId;
+		final String contentHash;
+		final long offset;
+		final int length;
+
+		SpooledNode(String id, String afterId, String contentHash, long offset, int length) {
+			this.id = id;
+			this.afterId = afterId;
+			this.contentHash = contentHash;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	/** A category of the merged tree, without its content hash. */
+	private static final class Category {
+		final JsonObject properties = new JsonObject();
+		final List<Category> children = new ArrayList<>();
+		final List<SpooledNode> nodes = new ArrayList<>();
+
+		String getId() {
+			return getString(properties, "id");
+		}
+
+		String getAfterId() {
+			return getString(properties, "afterId");
+		}
+	}
+
+	private final Gson gson = Utils.createGson(false);
+
+	private final TypeAdapter<JsonElement> elementAdapter = gson.getAdapter(JsonElement.class);
+
+	private final RandomAccessFile spool;
+
+	private final File spoolFile;
+
+	private ShardMerger() throws IOException {
+		spoolFile = File.createTempFile("jsondocgen-shard-nodes", ".ndjson");
+		spoolFile.deleteOnExit();
+		spool = new RandomAccessFile(spoolFile, "rw");
+	}
+
+	/**
+	 * Merge the outputs of the given shards.
+	 *
+	 * @param shardDirectories
+	 *            The output directories of the shards, in order.
+	 * @param directory
+	 *            The destination directory.
+	 * @throws IOException
+	 *             In case reading or writing fails.
+	 */
+	public static void merge(List<File> shardDirectories, File directory) throws IOException {
+		ShardMerger merger = new ShardMerger();
+		try {
+			merger.mergeNodes(shardDirectories, directory);
+		} finally {
+			merger.spool.close();
+			Files.deleteIfExists(merger.spoolFile.toPath());
+		}
+		mergePluginStatistics(shardDirectories, directory);
+		for (String fileName : SHARED_FILES) {
+			for (File shardDirectory : shardDirectories) {
+				File file = new File(shardDirectory, fileName);
+				if (file.isFile()) {
+					Files.copy(file.toPath(), new File(directory, fileName).toPath(),
+							StandardCopyOption.REPLACE_EXISTING);
+					break;
+				}
+			}
+		}
+	}
+
+	private void mergeNodes(List<File> shardDirectories, File directory) throws IOException {
+		Category root = null;
+		for (File shardDirectory : shardDirectories) {
+			File file = new File(shardDirectory, OutputRenderer.NODE_DOCUMENTATION_FILE);
+			if (!file.isFile()) {
+				LOGGER.warn("No nodes in " + shardDirectory);
+				continue;
+			}
+			LOGGER.info("Reading nodes from " + file);
+			Category shardRoot;
+			try (JsonReader reader = new JsonReader(Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8))) {
+				shardRoot = readCategory(reader);
+			}
+			if (root == null) {
+				root = shardRoot;
+			} else {
+				mergeCategory(root, shardRoot);
+			}
+		}
+		if (root == null) {
+			return;
+		}
+		File file = new File(directory, OutputRenderer.NODE_DOCUMENTATION_FILE);
+		LOGGER.info("Writing merged nodes to " + file);
+		try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+			writer.setIndent("  ");
+			writeCategory(writer, root);
+		}
+	}
+
+	private Category readCategory(JsonReader reader) throws IOException {
+		Category category = new Category();
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			switch (name) {
+			case "children" -> {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					category.children.add(readCategory(reader));
+				}
+				reader.endArray();
+			}
+			case "nodes" -> {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					category.nodes.add(spoolNode(JsonParser.parseReader(reader).getAsJsonObject()));
+				}
+				reader.endArray();
+			}
+			case ContentHashTypeAdapterFactory.CONTENT_HASH -> reader.skipValue();
+			default -> category.properties.add(name, JsonParser.parseReader(reader));
+			}
+		}
+		reader.endObject();
+		return category;
+	}
+
+	private SpooledNode spoolNode(JsonObject node) throws IOException {
+		// compact JSON has no line breaks, so the spool can also be read line by line
+		byte[] bytes = (gson.toJson(node) + '\n').getBytes(StandardCharsets.UTF_8);
+		long offset = spool.length();
+		spool.seek(offset);
+		spool.write(bytes);
+		return new SpooledNode(getString(node, "id"), getString(node, "afterId"),
+				getString(node, ContentHashTypeAdapterFactory.CONTENT_HASH), offset, bytes.length);
+	}
+
+	private static void mergeCategory(Category target, Category source) {
+		mergeSiblings(target.children, source.children, Category::getId, Category::getAfterId,
+				ShardMerger::mergeCategory);
+		mergeSiblings(target.nodes, source.nodes, node -> node.id, node -> node.afterId,
+				(existing, duplicate) -> LOGGER.warn(String.format("Node %s occurs in several shards", existing.id)));
+	}
+
+	/**
+	 * Add the siblings of one shard to the already merged siblings. A sibling
+	 * whose ID is already present is merged into the existing one. A new
+	 * sibling is inserted after the sibling given by its <code>afterId</code>
+	 * (and the siblings which follow that one), otherwise after its predecessor
+	 * within the shard, otherwise at the end.
+	 *
+	 * @param merged
+	 *            The merged siblings, modified.
+	 * @param additional
+	 *            The siblings of one shard.
+	 * @param getId
+	 *            Get a sibling's ID.
+	 * @param getAfterId
+	 *            Get a sibling's <code>afterId</code>.
+	 * @param mergeDuplicate
+	 *            Merges a sibling into the existing sibling with the same ID.
+	 */
+	/* package */ static <T> void mergeSiblings(List<T> merged, List<T> additional, Function<T, String> getId,
+			Function<T, String> getAfterId, BiConsumer<T, T> mergeDuplicate) {
+		int previous = -1;
+		for (T sibling : additional) {
+			int existing = indexOf(merged, getId.apply(sibling), getId);
+			if (existing >= 0) {
+				mergeDuplicate.accept(merged.get(existing), sibling);
+				previous = existing;
+				continue;
+			}
+			String afterId = getAfterId.apply(sibling);
+			int after = indexOf(merged, afterId, getId);
+			int position;
+			if (after >= 0) {
+				position = after + 1;
+				while (position < merged.size() && isAfter(merged, merged.get(position), afterId, getId, getAfterId)) {
+					position++;
+				}
+			} else if (previous >= 0) {
+				position = previous + 1;
+			} else {
+				position = merged.size();
+			}
+			merged.add(position, sibling);
+			previous = position;
+		}
+	}
+
+	/** @return <code>true</code> in case the <code>afterId</code>s of the sibling lead to the given ID. */
+	private static <T> boolean isAfter(List<T> siblings, T sibling, String id, Function<T, String> getId,
+			Function<T, String> getAfterId) {
+		T current = sibling;
+		// at most one step per sibling, in case the afterIds form a cycle
+		for (int steps = 0; steps < siblings.size(); steps++) {
+			String afterId = getAfterId.apply(current);
+			if (afterId == null) {
+				return false;
+			}
+			if (afterId.equals(id)) {
+				return true;
+			}
+			int index = indexOf(siblings, afterId, getId);
+			if (index < 0) {
+				return false;
+			}
+			current = siblings.get(index);
+		}
+		return false;
+	}
+
+	private static <T> int indexOf(List<T> siblings, String id, Function<T, String> getId) {
+		if (id == null) {
+			return -1;
+		}
+		for (int i = 0; i < siblings.size(); i++) {
+			if (id.equals(getId.apply(siblings.get(i)))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Write a category in the same layout as {@link JsonDocSink}.
+	 *
+	 * @return The category's content hash.
+	 */
+	private String writeCategory(JsonWriter writer, Category category) throws IOException {
+		// the canonical form only contains the hashes of the nested docs
+		JsonObject canonical = category.properties.deepCopy();
+		writer.beginObject();
+		if (!category.children.isEmpty()) {
+			JsonArray childHashes = new JsonArray();
+			writer.name("children").beginArray();
+			for (Category child : category.children) {
+				childHashes.add(hashObject(writeCategory(writer, child)));
+			}
+			writer.endArray();
+			canonical.add("children", childHashes);
+		}
+		if (!category.nodes.isEmpty()) {
+			JsonArray nodeHashes = new JsonArray();
+			writer.name("nodes").beginArray();
+			for (SpooledNode node : category.nodes) {
+				byte[] bytes = new byte[node.length];
+				spool.seek(node.offset);
+				spool.readFully(bytes);
+				elementAdapter.write(writer, JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8)));
+				nodeHashes.add(hashObject(node.contentHash));
+			}
+			writer.endArray();
+			canonical.add("nodes", nodeHashes);
+		}
+		for (Map.Entry<String, JsonElement> entry : category.properties.entrySet()) {
+			writer.name(entry.getKey());
+			elementAdapter.write(writer, entry.getValue());
+		}
+		String contentHash = ContentHashTypeAdapterFactory.contentHash(canonical);
+		writer.name(ContentHashTypeAdapterFactory.CONTENT_HASH).value(contentHash);
+		writer.endObject();
+		return contentHash;
+	}
+
+	private static JsonObject hashObject(String contentHash) {
+		JsonObject object = new JsonObject();
+		object.addProperty(ContentHashTypeAdapterFactory.CONTENT_HASH, contentHash);
+		return object;
+	}
+
+	private static void mergePluginStatistics(List<File> shardDirectories, File directory) throws IOException {
+		Map<String, JsonElement> statistics = new TreeMap<>();
+		boolean found = false;
+		for (File shardDirectory : shardDirectories) {
+			File file = new File(shardDirectory, OutputRenderer.PLUGINS_FILE);
+			if (!file.isFile()) {
+				continue;
+			}
+			found = true;
+			try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+				for (Map.Entry<String, JsonElement> entry : JsonParser.parseReader(reader).getAsJsonObject()
+						.entrySet()) {
+					if (statistics.putIfAbsent(entry.getKey(), entry.getValue()) != null) {
+						LOGGER.warn(String.format("Plugin %s occurs in several shards", entry.getKey()));
+					}
+				}
+			}
+		}
+		if (found) {
+			JsonObject merged = new JsonObject();
+			statistics.forEach(merged::add);
+			File file = new File(directory, OutputRenderer.PLUGINS_FILE);
+			try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+				Utils.createGson(true).toJson(merged, writer);
+			}
+		}
+	}
+
+	private static String getString(JsonObject object, String name) {
+		JsonElement element = object.get(name);
+		return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+	}
+
+	private static void printUsage() {
+		System.err.println("Usage: ShardMerger options");
+		System.err.println("Allowed options are:");
+		System.err.println("\t" + JsonNodeDocuGenerator.DESTINATION_ARG
+				+ " dir : Directory where the merged result should be written to");
+		System.err.println("\t" + SHARD_ARG
+				+ " dir : Output directory of a shard (specify multiple shards by repeating this option, in order)");
+	}
+
+	public static void main(String[] args) throws IOException {
+		// only compile-time constants of JsonNodeDocuGenerator are used here, so no
+		// KNIME classes are loaded
+		File directory = null;
+		List<File> shardDirectories = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals(JsonNodeDocuGenerator.DESTINATION_ARG)) {
+				directory = new File(args[i + 1]);
+			} else if (args[i].equals(SHARD_ARG)) {
+				shardDirectories.add(new File(args[i + 1]));
+			}
+		}
+		if (directory == null || shardDirectories.isEmpty()) {
+			printUsage();
+			System.exit(1);
+		}
+		if (!directory.exists() && !directory.mkdirs()) {
+			System.err.println("Could not create output directory '" + directory.getAbsolutePath() + "'.");
+			System.exit(1);
+		}
+		merge(shardDirectories, directory);
+	}
+
+}
@@ -0,0 +1,245 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Runs the generator in several processes, each with its own
+ * <code>-plugin</code> set, and merges their outputs with the
+ * {@link ShardMerger}. A single KNIME process runs into class loader locks and
+ * heap limits on full-platform crawls; separate processes avoid both.
+ *
+ * The shard processes are started with the command line of the current
+ * process; only the destination, the workspace, the plugins and the
+ * introspection cache are replaced (the generator rejects
+ * <code>-previous</code> and <code>-snapshot</code> together with
+ * <code>-processes</code>). Each shard writes to <code>shards/&lt;n&gt;</code>
+ * within the destination directory, together with its log in
+ * <code>generator.log</code>. The plugin-independent outputs (port types,
+ * splash icons, migrations) are only generated by the first shard.
+ *
+ * With an introspection cache, each shard starts from a copy of it in its own
+ * directory, and the entries which the shards changed are merged back
+ * afterwards (see {@link IntrospectionCache#merge(File, List)}), so that the
+ * processes never write the same file.
+ *
+ * @author pk
+ */
+final class ShardedCrawl {
+
+	private static final Logger LOGGER = Logger.getLogger(ShardedCrawl.class);
+
+	/* package */ static final String SHARDS_DIRECTORY = "shards";
+
+	/* package */ static final String SHARDS_FILE = "shards.json";
+
+	private static final String DATA_ARG = "-data";
+
+	/* everything after this argument is passed to the JVM by the launcher */
+	private static final String VMARGS_ARG = "-vmargs";
+
+	/* the options (with a value) which are replaced or not passed to the shards */
+	private static final Set<String> REPLACED_ARGS = Set.of(JsonNodeDocuGenerator.PROCESSES_ARG,
+			JsonNodeDocuGenerator.DESTINATION_ARG, JsonNodeDocuGenerator.PLUGIN_ARG, JsonNodeDocuGenerator.PREVIOUS_ARG,
+			JsonNodeDocuGenerator.SNAPSHOT_ARG, JsonNodeDocuGenerator.INTROSPECTION_CACHE_ARG, DATA_ARG);
+
+	private static final String LOG_FILE = "generator.log";
+
+	private static final String INTROSPECTION_CACHE_FILE = "introspectionCache.json";
+
+	private ShardedCrawl() {
+		// one process at a time, please
+	}
+
+	/**
+	 * Divide the plugins into shards with about the same number of nodes, so
+	 * that the processes finish at about the same time: the largest plugins are
+	 * assigned first, each to the shard which has the fewest nodes so far.
+	 *
+	 * @param nodesByPlugin
+	 *            The number of nodes by plugin ID.
+	 * @param numShards
+	 *            The maximum number of shards.
+	 * @return The plugin IDs (sorted) of the shards; shards without plugins are
+	 *         omitted.
+	 */
+	/* package */ static List<List<String>> partition(Map<String, Integer> nodesByPlugin, int numShards) {
+		if (numShards < 1) {
+			throw new IllegalArgumentException("The number of shards must be at least 1, was " + numShards);
+		}
+		List<String> plugins = new ArrayList<>(nodesByPlugin.keySet());
+		plugins.sort(Comparator.comparing((String plugin) -> nodesByPlugin.get(plugin)).reversed()
+				.thenComparing(Comparator.naturalOrder()));
+		List<List<String>> shards = new ArrayList<>();
+		long[] shardNodes = new long[numShards];
+		for (int i = 0; i < numShards; i++) {
+			shards.add(new ArrayList<>());
+		}
+		for (String plugin : plugins) {
+			int smallest = 0;
+			for (int i = 1; i < numShards; i++) {
+				if (shardNodes[i] < shardNodes[smallest]) {
+					smallest = i;
+				}
+			}
+			shards.get(smallest).add(plugin);
+			shardNodes[smallest] += nodesByPlugin.get(plugin);
+		}
+		List<List<String>> result = new ArrayList<>();
+		for (List<String> shard : shards) {
+			if (!shard.isEmpty()) {
+				Collections.sort(shard);
+				result.add(shard);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Create the command line arguments of a shard process.
+	 *
+	 * @param arguments
+	 *            The arguments of the current process.
+	 * @param shardDirectory
+	 *            The shard's destination directory.
+	 * @param plugins
+	 *            The shard's plugins.
+	 * @param first
+	 *            <code>true</code> for the first shard, which also generates
+	 *            the plugin-independent outputs.
+	 * @param introspectionCache
+	 *            The shard's introspection cache file, or <code>null</code>.
+	 * @return The arguments.
+	 */
+	/* package */ static List<String> getShardArguments(List<String> arguments, File shardDirectory,
+			List<String> plugins, boolean first, File introspectionCache) {
+		List<String> result = new ArrayList<>();
+		int vmArgsIndex = arguments.indexOf(VMARGS_ARG);
+		int end = vmArgsIndex == -1 ? arguments.size() : vmArgsIndex;
+		for (int i = 0; i < end; i++) {
+			if (REPLACED_ARGS.contains(arguments.get(i))) {
+				i++;
+			} else {
+				result.add(arguments.get(i));
+			}
+		}
+		// an own workspace, as each instance locks its workspace
+		result.add(DATA_ARG);
+		result.add(new File(shardDirectory, "workspace").getAbsolutePath());
+		result.add(JsonNodeDocuGenerator.DESTINATION_ARG);
+		result.add(shardDirectory.getAbsolutePath());
+		for (String plugin : plugins) {
+			result.add(JsonNodeDocuGenerator.PLUGIN_ARG);
+			result.add(plugin);
+		}
+		if (!first) {
+			result.add(JsonNodeDocuGenerator.SKIP_PORT_DOCUMENTATION);
+			result.add(JsonNodeDocuGenerator.SKIP_SPLASH_ICONS);
+			result.add(JsonNodeDocuGenerator.SKIP_MIGRATION_RULES);
+		}
+		if (introspectionCache != null) {
+			result.add(JsonNodeDocuGenerator.INTROSPECTION_CACHE_ARG);
+			result.add(introspectionCache.getAbsolutePath());
+		}
+		// the JVM arguments need to stay last
+		result.addAll(arguments.subList(end, arguments.size()));
+		return result;
+	}
+
+	/**
+	 * Start one process per shard, wait for all of them, and merge their
+	 * outputs into the destination directory.
+	 *
+	 * @param shards
+	 *            The plugins of each shard, see {@link #partition(Map, int)}.
+	 * @param directory
+	 *            The destination directory.
+	 * @param introspectionCache
+	 *            The introspection cache file, or <code>null</code>.
+	 * @throws IOException
+	 *             In case a process cannot be started, fails, or merging fails.
+	 * @throws InterruptedException
+	 *             In case waiting for the processes is interrupted.
+	 */
+	static void run(List<List<String>> shards, File directory, File introspectionCache)
+			throws IOException, InterruptedException {
+		ProcessHandle.Info info = ProcessHandle.current().info();
+		Optional<String> command = info.command();
+		Optional<String[]> arguments = info.arguments();
+		if (command.isEmpty() || arguments.isEmpty()) {
+			throw new IOException("Cannot determine the command line of the current process");
+		}
+
+		File shardsDirectory = new File(directory, SHARDS_DIRECTORY);
+		Utils.writeJson(shards, new File(directory, SHARDS_FILE), true);
+
+		List<File> shardDirectories = new ArrayList<>();
+		List<File> shardCaches = new ArrayList<>();
+		List<Process> processes = new ArrayList<>();
+		try {
+			for (int shard = 0; shard < shards.size(); shard++) {
+				File shardDirectory = new File(shardsDirectory, String.valueOf(shard));
+				if (!shardDirectory.exists() && !shardDirectory.mkdirs()) {
+					throw new IOException("Could not create directory " + shardDirectory);
+				}
+				File shardCache = null;
+				if (introspectionCache != null) {
+					shardCache = new File(shardDirectory, INTROSPECTION_CACHE_FILE);
+					if (introspectionCache.isFile()) {
+						Files.copy(introspectionCache.toPath(), shardCache.toPath(),
+								StandardCopyOption.REPLACE_EXISTING);
+					} else {
+						Files.deleteIfExists(shardCache.toPath());
+					}
+					shardCaches.add(shardCache);
+				}
+				List<String> commandLine = new ArrayList<>();
+				commandLine.add(command.get());
+				commandLine.addAll(getShardArguments(Arrays.asList(arguments.get()), shardDirectory, shards.get(shard),
+						shard == 0, shardCache));
+				LOGGER.info(String.format("Starting shard %s with %s plugins, logging to %s", shard,
+						shards.get(shard).size(), new File(shardDirectory, LOG_FILE)));
+				processes.add(new ProcessBuilder(commandLine).redirectErrorStream(true)
+						.redirectOutput(new File(shardDirectory, LOG_FILE)).start());
+				shardDirectories.add(shardDirectory);
+			}
+			List<Integer> failedShards = new ArrayList<>();
+			for (int shard = 0; shard < processes.size(); shard++) {
+				int exitCode = processes.get(shard).waitFor();
+				LOGGER.info(String.format("Shard %s finished with exit code %s", shard, exitCode));
+				if (exitCode != 0) {
+					failedShards.add(shard);
+				}
+			}
+			if (!failedShards.isEmpty()) {
+				throw new IOException(String.format("Shards %s failed, see their %s in %s", failedShards, LOG_FILE,
+						shardsDirectory));
+			}
+		} finally {
+			for (Process process : processes) {
+				if (process.isAlive()) {
+					process.destroy();
+				}
+			}
+		}
+
+		LOGGER.info(String.format("Merging %s shards into %s", shardDirectories.size(), directory));
+		ShardMerger.merge(shardDirectories, directory);
+		if (introspectionCache != null) {
+			IntrospectionCache.merge(introspectionCache, shardCaches);
+		}
+	}
+
+}
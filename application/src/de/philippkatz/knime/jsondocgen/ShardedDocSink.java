@@ -0,0 +1,53 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+
+/**
+ * Writes one file per contributing plugin into the <code>plugins</code>
+ * directory, e.g. <code>plugins/ws.palladian.nodes.selenium.plugin.json</code>,
+ * each containing the list of the plugin's nodes.
+ *
+ * @author pk
+ */
+final class ShardedDocSink implements DocSink {
+
+	private static final Logger LOGGER = Logger.getLogger(ShardedDocSink.class);
+
+	/* package */ static final String PLUGINS_DIRECTORY = "plugins";
+
+	private final File directory;
+
+	private final Map<String, List<NodeDoc>> nodesByPlugin = new TreeMap<>();
+
+	ShardedDocSink(File directory) {
+		this.directory = new File(directory, PLUGINS_DIRECTORY);
+	}
+
+	@Override
+	public void node(String categoryPath, NodeDoc node) throws IOException {
+		String plugin = node.contributingPlugin != null ? node.contributingPlugin : "unknown";
+		nodesByPlugin.computeIfAbsent(plugin, key -> new ArrayList<>()).add(node);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("Could not create directory " + directory);
+		}
+		LOGGER.info(String.format("Writing nodes of %s plugins to %s", nodesByPlugin.size(), directory));
+		for (Map.Entry<String, List<NodeDoc>> entry : nodesByPlugin.entrySet()) {
+			String fileName = entry.getKey().replaceAll("[^A-Za-z0-9._-]", "_") + ".json";
+			Utils.writeJson(entry.getValue(), new File(directory, fileName), true);
+		}
+	}
+
+}
@@ -2,27 +2,40 @@ package de.philippkatz.knime.jsondocgen;
 
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.UnaryOperator;
+
+import org.apache.log4j.Logger;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.jface.resource.ImageDescriptor;
-import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
-import org.eclipse.swt.widgets.Display;
 
 import de.philippkatz.knime.jsondocgen.docs.SplashIconDoc;
 
 /**
  * Based on org.knime.product.KNIMESplashHandler
  *
+ * Every distinct icon file is only read once, even when it is referenced for
+ * several sizes (the sizes fall back to the <code>icon</code> attribute), and
+ * the files are read concurrently.
+ *
  * @author pk
  */
 final class SplashIconReader {
 
+	private static final Logger LOGGER = Logger.getLogger(SplashIconReader.class);
+
 	private static final String SPLASH_EXTENSION_ID = "org.knime.product.splashExtension";
 
 	private static final String ELEMENT_ID = "id";
@@ -31,30 +44,78 @@ final class SplashIconReader {
 
 	private static final String ELEMENT_TOOLTIP = "tooltip";
 
-	public static List<SplashIconDoc> readSplashIcons() {
-
-		IExtension[] extensions = Platform.getExtensionRegistry().getExtensionPoint(SPLASH_EXTENSION_ID)
-				.getExtensions();
+	/** An icon file within a bundle. */
+	private record IconFile(String bundleId, String path) {
+	}
 
-		List<SplashIconDoc> iconDocs = new ArrayList<>();
+	/**
+	 * Read the icons of all splash extensions.
+	 *
+	 * @param iconProcessor
+	 *            Applied to each distinct encoded icon (e.g. to optimize it).
+	 * @return The splash icons.
+	 * @throws InterruptedException
+	 *             In case the thread was interrupted while waiting for the icons.
+	 */
+	public static List<SplashIconDoc> readSplashIcons(UnaryOperator<String> iconProcessor)
+			throws InterruptedException {
+		return readSplashIcons(Platform.getExtensionRegistry(), iconProcessor);
+	}
 
+	/**
+	 * Read the icons of all splash extensions in the given registry.
+	 *
+	 * @param registry
+	 *            The extension registry.
+	 * @param iconProcessor
+	 *            Applied to each distinct encoded icon (e.g. to optimize it).
+	 * @return The splash icons.
+	 * @throws InterruptedException
+	 *             In case the thread was interrupted while waiting for the icons.
+	 */
+	/* package */ static List<SplashIconDoc> readSplashIcons(IExtensionRegistry registry,
+			UnaryOperator<String> iconProcessor) throws InterruptedException {
+
+		IExtension[] extensions = registry.getExtensionPoint(SPLASH_EXTENSION_ID).getExtensions();
+
+		List<IConfigurationElement> elements = new ArrayList<>();
 		for (IExtension ext : extensions) {
-			for (IConfigurationElement elem : ext.getConfigurationElements()) {
+			elements.addAll(List.of(ext.getConfigurationElements()));
+		}
+
+		int numThreads = Math.max(1, Math.min(elements.size(), Runtime.getRuntime().availableProcessors()));
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			Map<IconFile, Future<String>> icons = new HashMap<>();
+			for (IConfigurationElement elem : elements) {
+				for (int iconSize : new int[] { 48, 24, 32 }) {
+					IconFile iconFile = getIconFile(elem, iconSize);
+					if (iconFile != null) {
+						icons.computeIfAbsent(iconFile,
+								key -> executor.submit(() -> iconProcessor.apply(getSplashIconBase64(key))));
+					}
+				}
+			}
+			LOGGER.debug(String.format("Reading %s distinct splash icon files", icons.size()));
+
+			List<SplashIconDoc> iconDocs = new ArrayList<>();
+			for (IConfigurationElement elem : elements) {
 				SplashIconDoc.SplashIconDocBuilder builder = new SplashIconDoc.SplashIconDocBuilder();
 				builder.setId(elem.getAttribute(ELEMENT_ID));
 				builder.setContributingPlugin(elem.getNamespaceIdentifier());
-				builder.setIcon(getSplashIconBase64(elem, 48));
-				builder.setIcon24(getSplashIconBase64(elem, 24));
-				builder.setIcon32(getSplashIconBase64(elem, 32));
+				builder.setIcon(getResult(icons, getIconFile(elem, 48)));
+				builder.setIcon24(getResult(icons, getIconFile(elem, 24)));
+				builder.setIcon32(getResult(icons, getIconFile(elem, 32)));
 				builder.setTooltip(elem.getAttribute(ELEMENT_TOOLTIP));
 				iconDocs.add(builder.build());
 			}
+			return iconDocs;
+		} finally {
+			executor.shutdownNow();
 		}
-
-		return iconDocs;
 	}
 
-	private static String getSplashIconBase64(IConfigurationElement splashExtension, int iconSize) {
+	private static IconFile getIconFile(IConfigurationElement splashExtension, int iconSize) {
 		String iconImageFilePath = splashExtension.getAttribute(ELEMENT_ICON + iconSize);
 		if (iconImageFilePath == null) {
 			iconImageFilePath = splashExtension.getAttribute(ELEMENT_ICON);
@@ -65,13 +126,33 @@ final class SplashIconReader {
 		if (iconImageFilePath == null || iconImageFilePath.length() == 0) {
 			return null;
 		}
+		return new IconFile(splashExtension.getNamespaceIdentifier(), iconImageFilePath);
+	}
+
+	private static String getResult(Map<IconFile, Future<String>> icons, IconFile iconFile)
+			throws InterruptedException {
+		if (iconFile == null) {
+			return null;
+		}
+		try {
+			return icons.get(iconFile).get();
+		} catch (ExecutionException e) {
+			LOGGER.warn(String.format("Could not read splash icon %s from %s", iconFile.path(), iconFile.bundleId()),
+					e.getCause());
+			return null;
+		}
+	}
 
+	private static String getSplashIconBase64(IconFile iconFile) {
 		// Create a corresponding image descriptor
-		URL url = FileLocator.find(Platform.getBundle(splashExtension.getNamespaceIdentifier()),
-				new Path(iconImageFilePath), null);
+		URL url = FileLocator.find(Platform.getBundle(iconFile.bundleId()), new Path(iconFile.path()), null);
 		if (url == null) {
 			return null;
 		}
+		String pngBase64 = Utils.getPngBase64(url);
+		if (pngBase64 != null) {
+			return pngBase64;
+		}
 		ImageDescriptor descriptor = ImageDescriptor.createFromURL(url);
 
 		// Abort if no corresponding image was found
@@ -83,12 +164,7 @@ final class SplashIconReader {
 		if (imageData == null) {
 			return null;
 		}
-		Image image = new Image(Display.getDefault(), imageData);
-		try {
-			return Utils.getImageBase64(image);
-		} finally {
-			image.dispose();
-		}
+		return Utils.getImageBase64(imageData);
 	}
 
 	private SplashIconReader() {
@@ -0,0 +1,68 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Deduplicates the strings which repeat thousands of times across the doc
+ * model (port object classes, option and node types, contributing plugins,
+ * port names, keywords, …), so that each distinct value is only kept once.
+ *
+ * Unlike {@link String#intern()}, the pool is scoped to one generation run and
+ * can be garbage collected afterwards. Only use it for values with few distinct
+ * instances; long unique texts (descriptions) would only add overhead.
+ * Instances are thread-safe.
+ *
+ * @author pk
+ */
+final class StringPool {
+
+	private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+	private final AtomicLong lookups = new AtomicLong();
+
+	/**
+	 * Get the pooled instance for the given string.
+	 *
+	 * @param string
+	 *            The string, may be <code>null</code>.
+	 * @return The pooled instance which equals the given string, or
+	 *         <code>null</code>.
+	 */
+	String intern(String string) {
+		if (string == null) {
+			return null;
+		}
+		lookups.incrementAndGet();
+		String existing = strings.putIfAbsent(string, string);
+		return existing != null ? existing : string;
+	}
+
+	/**
+	 * Intern each element of the given list.
+	 *
+	 * @param list
+	 *            The list, may be <code>null</code>.
+	 * @return A new list with the pooled instances, or <code>null</code>.
+	 */
+	List<String> intern(List<String> list) {
+		if (list == null) {
+			return null;
+		}
+		return list.stream().map(this::intern).collect(Collectors.toList());
+	}
+
+	/** @return The number of distinct values. */
+	int size() {
+		return strings.size();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s distinct strings for %s lookups", strings.size(), lookups.get());
+	}
+
+}
@@ -0,0 +1,406 @@
+package de.philippkatz.knime.jsondocgen;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Append-only store for the large HTML fragments of the node descriptions
+ * (intros, option, port and view descriptions), which make up most of the heap
+ * while the category tree is kept until the end of a full crawl. The
+ * fragments are stored as UTF-8 in memory-mapped chunks of a temporary file,
+ * so they are neither on the heap nor limited by
+ * <code>-XX:MaxDirectMemorySize</code>, and the OS can page them out.
+ *
+ * The doc model keeps its <code>String</code> fields; {@link #store(String)}
+ * returns a short handle string (starting with the private-use character
+ * {@link #MARKER}, followed by a checksum which is keyed per arena) which takes
+ * the fragment's place. Texts which merely look like a handle (e.g. containing
+ * a private-use glyph of an icon font) fail the checksum or the bounds checks
+ * and are left as they are. Handles are expanded:
+ *
+ * <ul>
+ * <li>when writing JSON through {@link #resolving(Writer)}: a handle which is
+ * the complete value of a JSON string is replaced by its fragment, which is
+ * decoded and escaped from the mapped chunk straight into the output, without
+ * creating a <code>String</code>; the output is the same as without the
+ * arena</li>
+ * <li>when reading a field with {@link #resolve(String)}</li>
+ * </ul>
+ *
+ * Instances are thread-safe; handles can be resolved from any thread until
+ * the arena is closed.
+ *
+ * @author pk
+ */
+final class TextArena implements Closeable {
+
+	private static final Logger LOGGER = Logger.getLogger(TextArena.class);
+
+	/** First character of a handle; from the Unicode private use area. */
+	static final char MARKER = '\uE000';
+
+	/** Shorter fragments are kept on the heap, as a handle would not save much. */
+	static final int MIN_LENGTH = 64;
+
+	private static final int DEFAULT_CHUNK_SIZE = 64 * 1024 * 1024;
+
+	/** Number of hex digits of the checksum after the {@link #MARKER}. */
+	private static final int CHECKSUM_LENGTH = 8;
+
+	private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+	/** All open arenas by ID, so that handles can be resolved statically. */
+	private static final Map<Integer, TextArena> OPEN_ARENAS = new ConcurrentHashMap<>();
+
+	private final int id = NEXT_ID.incrementAndGet();
+
+	/** Key for the handles' checksums. */
+	private final long checksumKey = new SecureRandom().nextLong();
+
+	private final File file;
+
+	private final FileChannel channel;
+
+	private final int chunkSize;
+
+	private final List<MappedByteBuffer> chunks = new CopyOnWriteArrayList<>();
+
+	/** Position within the last chunk. */
+	private int position;
+
+	private long storedBytes;
+
+	private int storedFragments;
+
+	/**
+	 * Create an arena backed by a temporary file, which is deleted when closing,
+	 * or on exit in case it is still mapped.
+	 *
+	 * @throws IOException
+	 *             In case the file cannot be created.
+	 */
+	TextArena() throws IOException {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	/* package */ TextArena(int chunkSize) throws IOException {
+		this.chunkSize = chunkSize;
+		file = File.createTempFile("jsondocgen-text-arena", ".bin");
+		file.deleteOnExit();
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+		OPEN_ARENAS.put(id, this);
+		LOGGER.info(String.format("Storing description fragments in %s", file));
+	}
+
+	/**
+	 * Move a fragment into the arena.
+	 *
+	 * @param text
+	 *            The text, may be <code>null</code>.
+	 * @return A handle for the text; or the text itself in case it is
+	 *         <code>null</code> or shorter than {@link #MIN_LENGTH} (unless it
+	 *         starts with {@link #MARKER}, so that a text is never mistaken for
+	 *         a handle).
+	 */
+	String store(String text) {
+		if (text == null || text.length() < MIN_LENGTH && (text.isEmpty() || text.charAt(0) != MARKER)) {
+			return text;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		int recordSize = Integer.BYTES + bytes.length;
+		long handle;
+		synchronized (this) {
+			try {
+				if (chunks.isEmpty() || position + recordSize > chunks.get(chunks.size() - 1).capacity()) {
+					// a fragment which is larger than the chunk size gets its own chunk
+					long fileOffset = getFileSize();
+					chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, fileOffset,
+							Math.max(chunkSize, recordSize)));
+					position = 0;
+				}
+			} catch (IOException e) {
+				throw new IllegalStateException("Could not extend the text arena " + file, e);
+			}
+			int chunk = chunks.size() - 1;
+			ByteBuffer buffer = chunks.get(chunk);
+			buffer.putInt(position, bytes.length);
+			buffer.put(position + Integer.BYTES, bytes);
+			handle = (long) chunk << 32 | position;
+			position += recordSize;
+			storedBytes += bytes.length;
+			storedFragments++;
+		}
+		return MARKER + HexFormat.of().toHexDigits(checksum(handle)) + Integer.toString(id, Character.MAX_RADIX) + ':'
+				+ Long.toString(handle, Character.MAX_RADIX);
+	}
+
+	private int checksum(long handle) {
+		// the finalizer of SplitMix64
+		long value = (handle ^ checksumKey) * 0xbf58476d1ce4e5b9L;
+		value = (value ^ value >>> 27) * 0x94d049bb133111ebL;
+		return (int) (value ^ value >>> 31);
+	}
+
+	private long getFileSize() {
+		long size = 0;
+		for (MappedByteBuffer chunk : chunks) {
+			size += chunk.capacity();
+		}
+		return size;
+	}
+
+	/**
+	 * Get the text for a field value.
+	 *
+	 * @param text
+	 *            A handle or a plain text, may be <code>null</code>.
+	 * @return The stored fragment in case the text is a handle of an open
+	 *         arena, the text itself otherwise.
+	 */
+	static String resolve(String text) {
+		if (text == null || text.isEmpty() || text.charAt(0) != MARKER || OPEN_ARENAS.isEmpty()) {
+			return text;
+		}
+		ByteBuffer record = findRecord(text);
+		if (record == null) {
+			return text;
+		}
+		return StandardCharsets.UTF_8.decode(record).toString();
+	}
+
+	/**
+	 * Wrap a writer for JSON output, so that the handles in the JSON strings are
+	 * replaced by their (escaped) fragments.
+	 *
+	 * @param writer
+	 *            The writer.
+	 * @return A resolving writer, or the given writer in case no arena is open.
+	 */
+	static Writer resolving(Writer writer) {
+		return OPEN_ARENAS.isEmpty() ? writer : new ResolvingWriter(writer);
+	}
+
+	/**
+	 * @return The bytes of the fragment, or <code>null</code> in case the text is
+	 *         no valid handle of an open arena.
+	 */
+	private static ByteBuffer findRecord(CharSequence handle) {
+		int checksumEnd = 1 + CHECKSUM_LENGTH;
+		int separator = -1;
+		for (int i = checksumEnd; i < handle.length(); i++) {
+			if (handle.charAt(i) == ':') {
+				separator = i;
+				break;
+			}
+		}
+		if (separator < 0) {
+			return null;
+		}
+		TextArena arena;
+		int checksum;
+		long value;
+		try {
+			checksum = (int) Long.parseLong(handle, 1, checksumEnd, 16);
+			arena = OPEN_ARENAS.get(Integer.parseInt(handle, checksumEnd, separator, Character.MAX_RADIX));
+			value = Long.parseLong(handle, separator + 1, handle.length(), Character.MAX_RADIX);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if (arena == null || checksum != arena.checksum(value) || value < 0 || value >>> 32 >= arena.chunks.size()) {
+			return null;
+		}
+		ByteBuffer chunk = arena.chunks.get((int) (value >>> 32)).duplicate();
+		int position = (int) value;
+		if (position < 0 || position > chunk.capacity() - Integer.BYTES) {
+			return null;
+		}
+		int length = chunk.getInt(position);
+		if (length < 0 || length > chunk.capacity() - position - Integer.BYTES) {
+			return null;
+		}
+		chunk.position(position + Integer.BYTES);
+		chunk.limit(position + Integer.BYTES + length);
+		return chunk;
+	}
+
+	@Override
+	public void close() throws IOException {
+		OPEN_ARENAS.remove(id);
+		LOGGER.info(String.format("Text arena held %s fragments with %s bytes", storedFragments, storedBytes));
+		// drop the mappings before deleting; they are only unmapped once the
+		// buffers are garbage collected
+		chunks.clear();
+		channel.close();
+		if (!file.delete() && file.exists()) {
+			// e.g. on Windows, a file cannot be deleted while it is still mapped
+			LOGGER.debug(String.format("Could not delete %s yet, it is deleted on exit", file));
+		}
+	}
+
+	/**
+	 * Replaces handles while the JSON is written. Only a handle which is the
+	 * complete value of a JSON string is replaced, i.e. it starts after and ends
+	 * at a quote.
+	 */
+	private static final class ResolvingWriter extends FilterWriter {
+
+		private final StringBuilder handle = new StringBuilder();
+
+		private boolean inHandle;
+
+		/** The last character which was passed on, or <code>-1</code>. */
+		private int last = -1;
+
+		ResolvingWriter(Writer out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			if (inHandle) {
+				if (Character.isLetterOrDigit(c) && c < 0x80 || c == ':') {
+					handle.append((char) c);
+					return;
+				}
+				endHandle(c == '"');
+			}
+			if (c == MARKER && last == '"') {
+				inHandle = true;
+				handle.setLength(0);
+				handle.append(MARKER);
+			} else {
+				out.write(c);
+				last = c;
+			}
+		}
+
+		@Override
+		public void write(char[] chars, int offset, int length) throws IOException {
+			int start = offset;
+			for (int i = offset; i < offset + length; i++) {
+				if (inHandle || chars[i] == MARKER) {
+					passOn(chars, start, i);
+					write(chars[i]);
+					start = i + 1;
+				}
+			}
+			passOn(chars, start, offset + length);
+		}
+
+		@Override
+		public void write(String string, int offset, int length) throws IOException {
+			int start = offset;
+			for (int i = offset; i < offset + length; i++) {
+				if (inHandle || string.charAt(i) == MARKER) {
+					passOn(string, start, i);
+					write(string.charAt(i));
+					start = i + 1;
+				}
+			}
+			passOn(string, start, offset + length);
+		}
+
+		private void passOn(char[] chars, int start, int end) throws IOException {
+			if (start < end) {
+				out.write(chars, start, end - start);
+				last = chars[end - 1];
+			}
+		}
+
+		private void passOn(String string, int start, int end) throws IOException {
+			if (start < end) {
+				out.write(string, start, end - start);
+				last = string.charAt(end - 1);
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			// a pending handle is completed by the next write
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (inHandle) {
+				endHandle(false);
+			}
+			out.close();
+		}
+
+		/**
+		 * @param complete
+		 *            <code>true</code> in case the handle is followed by the
+		 *            closing quote.
+		 */
+		private void endHandle(boolean complete) throws IOException {
+			inHandle = false;
+			ByteBuffer record = complete ? findRecord(handle) : null;
+			if (record == null) {
+				out.append(handle);
+				last = handle.charAt(handle.length() - 1);
+				return;
+			}
+			last = -1;
+			CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+			CharBuffer chars = CharBuffer.allocate(4096);
+			for (;;) {
+				CoderResult result = decoder.decode(record, chars, true);
+				if (result.isUnderflow()) {
+					decoder.flush(chars);
+				}
+				chars.flip();
+				while (chars.hasRemaining()) {
+					writeEscaped(chars.get());
+				}
+				chars.clear();
+				if (result.isUnderflow()) {
+					break;
+				}
+			}
+		}
+
+		/** Same escaping as Gson's <code>JsonWriter</code> without HTML escaping. */
+		private void writeEscaped(char c) throws IOException {
+			switch (c) {
+			case '"' -> out.write("\\\"");
+			case '\\' -> out.write("\\\\");
+			case '\t' -> out.write("\\t");
+			case '\b' -> out.write("\\b");
+			case '\n' -> out.write("\\n");
+			case '\r' -> out.write("\\r");
+			case '\f' -> out.write("\\f");
+			case '\u2028' -> out.write("\\u2028");
+			case '\u2029' -> out.write("\\u2029");
+			default -> {
+				if (c < 0x20) {
+					out.write(String.format("\\u%04x", (int) c));
+				} else {
+					out.write(c);
+				}
+			}
+			}
+		}
+	}
+
+}
@@ -1,21 +1,82 @@
 package de.philippkatz.knime.jsondocgen;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Base64;
 
-import org.eclipse.swt.SWT;
+import org.apache.log4j.Logger;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
-import org.eclipse.swt.graphics.ImageLoader;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 public final class Utils {
 
+	private static final Logger LOGGER = Logger.getLogger(Utils.class);
+
+	private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
 	public static String toJson(Object input) {
-		Gson gson = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
-		return gson.toJson(input);
+		StringWriter writer = new StringWriter();
+		createGson(true).toJson(input, TextArena.resolving(writer));
+		return writer.toString();
+	}
+
+	/**
+	 * Create the {@link Gson} instance which is used for all outputs.
+	 * 
+	 * @param prettyPrinting
+	 *            <code>true</code> to indent the output, <code>false</code> for
+	 *            compact output.
+	 * @return The Gson instance.
+	 */
+	static Gson createGson(boolean prettyPrinting) {
+		return createGsonBuilder(prettyPrinting).create();
+	}
+
+	/**
+	 * Create the builder for {@link #createGson(boolean)}, to register
+	 * additional type adapters.
+	 * 
+	 * @param prettyPrinting
+	 *            <code>true</code> to indent the output, <code>false</code> for
+	 *            compact output.
+	 * @return The Gson builder.
+	 */
+	static GsonBuilder createGsonBuilder(boolean prettyPrinting) {
+		GsonBuilder builder = new GsonBuilder().disableHtmlEscaping()
+				.registerTypeAdapterFactory(new ContentHashTypeAdapterFactory());
+		if (prettyPrinting) {
+			builder.setPrettyPrinting();
+		}
+		return builder;
+	}
+
+	/**
+	 * Serialize the given object directly to a file (UTF-8), without creating the
+	 * whole JSON string in memory.
+	 * 
+	 * @param input
+	 *            The object to serialize.
+	 * @param file
+	 *            The destination file.
+	 * @param prettyPrinting
+	 *            <code>true</code> to indent the output.
+	 * @throws IOException
+	 *             In case writing fails.
+	 */
+	static void writeJson(Object input, File file, boolean prettyPrinting) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			createGson(prettyPrinting).toJson(input, TextArena.resolving(writer));
+		}
 	}
 
 	static String trim(String string) {
@@ -27,11 +88,47 @@ public final class Utils {
 	}
 
 	static String getImageBase64(Image image) {
-		ImageLoader imageLoader = new ImageLoader();
-		imageLoader.data = new ImageData[] { image.getImageData() };
-		ByteArrayOutputStream stream = new ByteArrayOutputStream();
-		imageLoader.save(stream, SWT.IMAGE_PNG);
-		return new String(Base64.getEncoder().encode(stream.toByteArray()));
+		return getImageBase64(image.getImageData());
+	}
+
+	/**
+	 * Encode the image as Base64 PNG; this does not need the display thread (see
+	 * {@link PngEncoder}).
+	 * 
+	 * @param imageData
+	 *            The image.
+	 * @return The Base64-encoded PNG.
+	 */
+	static String getImageBase64(ImageData imageData) {
+		return Base64.getEncoder().encodeToString(PngEncoder.encode(imageData));
+	}
+
+	/**
+	 * Encode the original bytes of a PNG resource, without decoding and
+	 * re-encoding the image.
+	 * 
+	 * @param url
+	 *            The URL of the image resource, may be <code>null</code>.
+	 * @return The Base64-encoded PNG, or <code>null</code> in case the URL is
+	 *         <code>null</code>, cannot be read, or does not point to a PNG
+	 *         file (use {@link #getImageBase64(Image)} as fallback then).
+	 */
+	static String getPngBase64(URL url) {
+		if (url == null) {
+			return null;
+		}
+		byte[] bytes;
+		try (InputStream stream = url.openStream()) {
+			bytes = stream.readAllBytes();
+		} catch (IOException e) {
+			LOGGER.debug(String.format("Could not read %s", url), e);
+			return null;
+		}
+		if (bytes.length < PNG_SIGNATURE.length
+				|| !Arrays.equals(bytes, 0, PNG_SIGNATURE.length, PNG_SIGNATURE, 0, PNG_SIGNATURE.length)) {
+			return null;
+		}
+		return Base64.getEncoder().encodeToString(bytes);
 	}
 
 	private Utils() {
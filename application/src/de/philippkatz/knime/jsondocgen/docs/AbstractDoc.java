@@ -1,6 +1,7 @@
 package de.philippkatz.knime.jsondocgen.docs;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import de.philippkatz.knime.jsondocgen.Utils;
@@ -85,4 +86,16 @@ public abstract class AbstractDoc {
 		return list != null ? new ArrayList<>(list) : null;
 	}
 
+	/**
+	 * Take over the given list from a builder without copying it; the builder
+	 * must not modify it afterwards.
+	 * 
+	 * @param list
+	 *            The list.
+	 * @return An unmodifiable view of the list or <code>null</code>.
+	 */
+	static <T> List<T> unmodifiableOrNull(List<T> list) {
+		return list != null ? Collections.unmodifiableList(list) : null;
+	}
+
 }
@@ -1,6 +1,7 @@
 package de.philippkatz.knime.jsondocgen.docs;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -11,8 +12,11 @@ public final class CategoryDoc extends AbstractDoc {
 
 		private List<CategoryDoc> children;
 		private List<NodeDoc> nodes;
+		/* the lists were handed over to a built doc, copy them before adding */
+		private boolean built;
 		
 		public CategoryDocBuilder addChild(CategoryDoc child) {
+			unshare();
 			if (children == null) {
 				children = new ArrayList<>();
 			}
@@ -21,6 +25,7 @@ public final class CategoryDoc extends AbstractDoc {
 		}
 
 		public CategoryDocBuilder addNode(NodeDoc node) {
+			unshare();
 			if (nodes == null) {
 				nodes = new ArrayList<>();
 			}
@@ -29,9 +34,18 @@ public final class CategoryDoc extends AbstractDoc {
 		}		
 
 		public CategoryDoc build() {
+			built = true;
 			return new CategoryDoc(this);
 		}
 
+		private void unshare() {
+			if (built) {
+				children = copyOrNull(children);
+				nodes = copyOrNull(nodes);
+				built = false;
+			}
+		}
+
 	}
 
 	final List<CategoryDoc> children;
@@ -39,10 +53,20 @@ public final class CategoryDoc extends AbstractDoc {
 
 	private CategoryDoc(CategoryDocBuilder builder) {
 		super(builder);
-		this.children = copyOrNull(builder.children);
-		this.nodes = copyOrNull(builder.nodes);
+		this.children = unmodifiableOrNull(builder.children);
+		this.nodes = unmodifiableOrNull(builder.nodes);
 	}
 	
+	/** @return The sub-categories, or an empty list. */
+	public List<CategoryDoc> getChildren() {
+		return children != null ? Collections.unmodifiableList(children) : Collections.emptyList();
+	}
+
+	/** @return The nodes directly within this category, or an empty list. */
+	public List<NodeDoc> getNodes() {
+		return nodes != null ? Collections.unmodifiableList(nodes) : Collections.emptyList();
+	}
+
 	/**
 	 * Recursively retrieves all plugin IDs of all contained categories and nodes.
 	 * 
@@ -60,4 +84,21 @@ public final class CategoryDoc extends AbstractDoc {
 		return result;
 	}
 
+	/**
+	 * Recursively retrieves all nodes of this and all contained categories (in
+	 * depth-first order).
+	 * 
+	 * @return List with all nodes.
+	 */
+	public List<NodeDoc> getAllNodes() {
+		List<NodeDoc> result = new ArrayList<>();
+		if (nodes != null) {
+			result.addAll(nodes);
+		}
+		if (children != null) {
+			children.forEach(categoryDoc -> result.addAll(categoryDoc.getAllNodes()));
+		}
+		return result;
+	}
+
 }
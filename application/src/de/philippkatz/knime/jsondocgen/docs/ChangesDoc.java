@@ -0,0 +1,75 @@
+package de.philippkatz.knime.jsondocgen.docs;
+
+import java.util.List;
+
+/**
+ * Differences between the outputs of two consecutive runs; entries are
+ * compared by their ID and content hash.
+ *
+ * @since v1.15
+ */
+public class ChangesDoc {
+
+	public static class ChangesDocBuilder {
+
+		private Delta nodes;
+		private Delta categories;
+		private Delta portTypes;
+		private Delta migrationRules;
+
+		public ChangesDocBuilder setNodes(Delta nodes) {
+			this.nodes = nodes;
+			return this;
+		}
+
+		public ChangesDocBuilder setCategories(Delta categories) {
+			this.categories = categories;
+			return this;
+		}
+
+		public ChangesDocBuilder setPortTypes(Delta portTypes) {
+			this.portTypes = portTypes;
+			return this;
+		}
+
+		public ChangesDocBuilder setMigrationRules(Delta migrationRules) {
+			this.migrationRules = migrationRules;
+			return this;
+		}
+
+		public ChangesDoc build() {
+			return new ChangesDoc(this);
+		}
+
+	}
+
+	/** Added, removed and modified IDs of one type of entries. */
+	public static final class Delta {
+		public final List<String> added;
+		public final List<String> removed;
+		public final List<String> modified;
+
+		public Delta(List<String> added, List<String> removed, List<String> modified) {
+			this.added = AbstractDoc.unmodifiableOrNull(added);
+			this.removed = AbstractDoc.unmodifiableOrNull(removed);
+			this.modified = AbstractDoc.unmodifiableOrNull(modified);
+		}
+	}
+
+	/** <code>null</code> in case the nodes were not generated in both runs. */
+	public final Delta nodes;
+	/** Keyed by category path, e.g. <code>/community/selenium</code>. */
+	public final Delta categories;
+	/** Keyed by port object class. */
+	public final Delta portTypes;
+	/** Keyed by original node factory class. */
+	public final Delta migrationRules;
+
+	private ChangesDoc(ChangesDocBuilder builder) {
+		nodes = builder.nodes;
+		categories = builder.categories;
+		portTypes = builder.portTypes;
+		migrationRules = builder.migrationRules;
+	}
+
+}
@@ -0,0 +1,29 @@
+package de.philippkatz.knime.jsondocgen.docs;
+
+/**
+ * The final replacement of a node factory after following all migration rules
+ * (original → replacement → its replacement → …).
+ *
+ * @since v1.15
+ */
+public final class MigrationChainDoc {
+
+	/** The last factory of the chain. */
+	public final String replacementNodeFactoryClass;
+
+	/** Number of migrations from the original to the final replacement. */
+	public final int chainLength;
+
+	/**
+	 * <code>true</code> in case the chain leads back to a factory on it; the
+	 * chain then ends before the repeated factory. <code>null</code> otherwise.
+	 */
+	public final Boolean cyclic;
+
+	public MigrationChainDoc(String replacementNodeFactoryClass, int chainLength, Boolean cyclic) {
+		this.replacementNodeFactoryClass = replacementNodeFactoryClass;
+		this.chainLength = chainLength;
+		this.cyclic = cyclic;
+	}
+
+}
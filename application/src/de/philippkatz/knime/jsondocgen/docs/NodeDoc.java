@@ -1,8 +1,9 @@
 package de.philippkatz.knime.jsondocgen.docs;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.RandomAccess;
 
 /**
  * Intermediate object used for constructing the JSON and for testing. Use the
@@ -10,6 +11,10 @@ import java.util.stream.Collectors;
  */
 public final class NodeDoc extends AbstractDoc {
 	
+	/**
+	 * The built {@link NodeDoc} takes over the lists without copying them, so
+	 * lists which were passed to a setter must not be modified afterwards.
+	 */
 	public static final class NodeDocBuilder extends AbstractDocBuilder {
 		private String intro;
 		private List<OptionTab> optionTabs;
@@ -35,6 +40,10 @@ public final class NodeDoc extends AbstractDoc {
 		private List<String> keywords;
 		/** @since v1.15 */
 		private String sinceVersion;
+		/** @since v1.15 */
+		private List<String> missingFields;
+		/* the lists were handed over to a built doc, copy them before adding */
+		private boolean built;
 		public NodeDocBuilder setIntro(String intro) {
 			this.intro = intro;
 			return this;
@@ -76,6 +85,7 @@ public final class NodeDoc extends AbstractDoc {
 			return this;
 		}
 		public NodeDocBuilder addOptionTab(OptionTab optionTab) {
+			unshare();
 			if (optionTabs == null) {
 				optionTabs = new ArrayList<>();
 			}
@@ -83,6 +93,7 @@ public final class NodeDoc extends AbstractDoc {
 			return this;
 		}
 		public NodeDocBuilder addView(View view) {
+			unshare();
 			if (views == null) {
 				views = new ArrayList<>();
 			}
@@ -94,6 +105,7 @@ public final class NodeDoc extends AbstractDoc {
 			return this;
 		}
 		public NodeDocBuilder addLink(Link link) {
+			unshare();
 			if (links == null) {
 				links = new ArrayList<>();
 			}
@@ -101,8 +113,29 @@ public final class NodeDoc extends AbstractDoc {
 			return this;
 		}
 		public NodeDoc build() {
+			built = true;
 			return new NodeDoc(this);
 		}
+		private void unshare() {
+			if (built) {
+				optionTabs = copyOrNull(optionTabs);
+				views = copyOrNull(views);
+				links = copyOrNull(links);
+				built = false;
+			}
+		}
+		public List<Port> getInPorts() {
+			return inPorts;
+		}
+		public List<Port> getOutPorts() {
+			return outPorts;
+		}
+		public List<DynamicPortGroup> getDynamicInPorts() {
+			return dynamicInPorts;
+		}
+		public List<DynamicPortGroup> getDynamicOutPorts() {
+			return dynamicOutPorts;
+		}
 		public NodeDocBuilder setDynamicInPorts(List<DynamicPortGroup> dynamicInPorts) {
 			this.dynamicInPorts = dynamicInPorts;
 			return this;
@@ -131,6 +164,11 @@ public final class NodeDoc extends AbstractDoc {
 			this.sinceVersion = sinceVersion;
 			return this;
 		}
+		/** @since v1.15 */
+		public NodeDocBuilder setMissingFields(List<String> missingFields) {
+			this.missingFields = missingFields;
+			return this;
+		}
 	}
 
 	public static final class OptionTab {
@@ -140,7 +178,7 @@ public final class NodeDoc extends AbstractDoc {
 		public OptionTab(String name, String description, List<Option> options) {
 			this.name = name;
 			this.description = description;
-			this.options = copyOrNull(options);
+			this.options = unmodifiableOrNull(options);
 		}
 		public OptionTab(String name, List<Option> options) {
 			this(name, null, options);
@@ -247,36 +285,53 @@ public final class NodeDoc extends AbstractDoc {
 	public final List<String> keywords;
 	/** @since v1.15 */
 	public final String sinceVersion;
+	/**
+	 * Fields which were not determined, b/c they require instantiating the node
+	 * (e.g. when generating with <code>-docsOnly</code>), so their values must
+	 * not be relied on; <code>null</code> in case everything was determined.
+	 * 
+	 * @since v1.15
+	 */
+	public final List<String> missingFields;
 
 	private NodeDoc(NodeDocBuilder builder) {
 		super(builder);
 		intro = builder.intro;
-		optionTabs = copyOrNull(builder.optionTabs);
-		options = copyOrNull(builder.options);
-		inPorts = copyOrNull(builder.inPorts);
-		outPorts = copyOrNull(builder.outPorts);
-		inPortObjectClasses = convert(builder.inPorts);
-		outPortObjectClasses = convert(builder.outPorts);
-		views = copyOrNull(builder.views);
+		optionTabs = unmodifiableOrNull(builder.optionTabs);
+		options = unmodifiableOrNull(builder.options);
+		inPorts = unmodifiableOrNull(builder.inPorts);
+		outPorts = unmodifiableOrNull(builder.outPorts);
+		inPortObjectClasses = inPorts != null ? new PortObjectClasses(inPorts) : null;
+		outPortObjectClasses = outPorts != null ? new PortObjectClasses(outPorts) : null;
+		views = unmodifiableOrNull(builder.views);
 		type = builder.type;
 		deprecated = builder.deprecated;
 		hidden = builder.hidden;
 		interactiveView = builder.interactiveView;
 		streamable = builder.streamable;
-		links = builder.links;
-		dynamicInPorts = copyOrNull(builder.dynamicInPorts);
-		dynamicOutPorts = copyOrNull(builder.dynamicOutPorts);
+		links = unmodifiableOrNull(builder.links);
+		dynamicInPorts = unmodifiableOrNull(builder.dynamicInPorts);
+		dynamicOutPorts = unmodifiableOrNull(builder.dynamicOutPorts);
 		hasModernDialog = builder.hasModernDialog;
 		hasKaiInterface = builder.hasKaiInterface;
-		keywords = copyOrNull(builder.keywords);
+		keywords = unmodifiableOrNull(builder.keywords);
 		sinceVersion = builder.sinceVersion;
+		missingFields = unmodifiableOrNull(builder.missingFields);
 	}
 
-	private static List<String> convert(List<Port> ports) {
-		if (ports != null) {
-			return ports.stream().map(p -> p.portObjectClass).collect(Collectors.toList());
-		} else {
-			return null;
+	/** The port object classes of the ports, as a view instead of a copy. */
+	private static final class PortObjectClasses extends AbstractList<String> implements RandomAccess {
+		private final List<Port> ports;
+		PortObjectClasses(List<Port> ports) {
+			this.ports = ports;
+		}
+		@Override
+		public String get(int index) {
+			return ports.get(index).portObjectClass;
+		}
+		@Override
+		public int size() {
+			return ports.size();
 		}
 	}
 
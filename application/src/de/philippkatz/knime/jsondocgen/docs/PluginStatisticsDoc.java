@@ -0,0 +1,31 @@
+package de.philippkatz.knime.jsondocgen.docs;
+
+import java.util.List;
+
+/**
+ * Counts for the nodes of one contributing plugin.
+ *
+ * @since v1.15
+ */
+public final class PluginStatisticsDoc {
+
+	public final int nodes;
+	public final int deprecatedNodes;
+	public final int streamableNodes;
+	public final int modernDialogNodes;
+	/** The port object classes used by the nodes' (dynamic) ports, sorted. */
+	public final List<String> portTypes;
+	/** Size of the nodes within <code>nodeDocumentation.json</code> (or the compact file), in bytes. */
+	public final long serializedBytes;
+
+	public PluginStatisticsDoc(int nodes, int deprecatedNodes, int streamableNodes, int modernDialogNodes,
+			List<String> portTypes, long serializedBytes) {
+		this.nodes = nodes;
+		this.deprecatedNodes = deprecatedNodes;
+		this.streamableNodes = streamableNodes;
+		this.modernDialogNodes = modernDialogNodes;
+		this.portTypes = portTypes;
+		this.serializedBytes = serializedBytes;
+	}
+
+}
@@ -0,0 +1,31 @@
+package de.philippkatz.knime.jsondocgen.docs;
+
+import java.util.List;
+
+/**
+ * The transitive ancestors of every port object class as a flat lookup table:
+ * the classes are numbered by their position in {@link #objectClasses}, and
+ * <code>ancestors.get(i)</code> is a bitset over these numbers (32 bits per
+ * int, bit <code>j &amp; 31</code> of word <code>j &gt;&gt;&gt; 5</code>) which
+ * contains the class <code>i</code> itself and every class it is assignable
+ * to. So class <code>i</code> is a subtype of class <code>j</code> iff
+ * <code>(ancestors[i][j &gt;&gt;&gt; 5] &gt;&gt;&gt; (j &amp; 31) &amp; 1) == 1</code>
+ * (a missing word counts as 0). Ints rather than longs, so that the words can
+ * be used without loss of precision in JavaScript.
+ *
+ * @since v1.15
+ */
+public final class PortAncestryDoc {
+
+	/** All port object classes, sorted. */
+	public final List<String> objectClasses;
+
+	/** Per class, the bitset of its ancestors, without trailing zero words. */
+	public final List<int[]> ancestors;
+
+	public PortAncestryDoc(List<String> objectClasses, List<int[]> ancestors) {
+		this.objectClasses = objectClasses;
+		this.ancestors = ancestors;
+	}
+
+}
@@ -1,5 +1,6 @@
 package de.philippkatz.knime.jsondocgen.docs;
 
+import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -119,6 +120,9 @@ public class PortTypeDoc {
 		if (builder.children == null) {
 			return null;
 		}
-		return builder.children.stream().map(PortTypeDocBuilder::build).collect(Collectors.toSet());
+		// sort by object class, so that the output (and its content hash) is stable
+		// between runs
+		return builder.children.stream().sorted(Comparator.comparing(child -> child.objectClass))
+				.map(PortTypeDocBuilder::build).collect(Collectors.toCollection(LinkedHashSet::new));
 	}
 }
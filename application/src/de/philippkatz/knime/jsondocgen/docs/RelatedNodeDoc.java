@@ -0,0 +1,19 @@
+package de.philippkatz.knime.jsondocgen.docs;
+
+/**
+ * A node which is similar to another one, with the estimated Jaccard
+ * similarity of their descriptions, option names and port types.
+ *
+ * @since v1.15
+ */
+public final class RelatedNodeDoc {
+
+	public final String id;
+	public final double similarity;
+
+	public RelatedNodeDoc(String id, double similarity) {
+		this.id = id;
+		this.similarity = similarity;
+	}
+
+}
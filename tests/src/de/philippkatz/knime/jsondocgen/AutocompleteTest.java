@@ -0,0 +1,93 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.philippkatz.knime.jsondocgen.AutocompleteReader.Suggestion;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+
+public class AutocompleteTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void completes_names_inner_words_and_keywords() throws Exception {
+		List<NodeDoc> nodes = new ArrayList<>();
+		nodes.add(node("org.example.CsvReaderNodeFactory", "CSV Reader", false, "comma separated", "table reader"));
+		nodes.add(node("org.example.CsvWriterNodeFactory", "CSV Writer", false));
+		nodes.add(node("org.example.OldCsvReaderNodeFactory", "CSV Reader (legacy)", true));
+		nodes.add(node("org.example.ExcelReaderNodeFactory", "Excel  Reader", false));
+		nodes.add(node("org.example.TableReaderNodeFactory", "Table Reader", false));
+		// enough nodes for several blocks
+		for (int i = 0; i < 50; i++) {
+			nodes.add(node("org.example.Node" + i, String.format("Node %02d", i), false));
+		}
+
+		File file = temporaryFolder.newFile("nodes.autocomplete");
+		AutocompleteWriter.write(nodes, file);
+
+		try (AutocompleteReader reader = new AutocompleteReader(file)) {
+			assertEquals(55, reader.getNumDocs());
+
+			assertEquals(List.of("CSV Reader", "CSV Writer", "CSV Reader (legacy)"), names(reader.complete("cs", 10)));
+			assertEquals(List.of("CSV Reader"), names(reader.complete("  CSV   R", 1)));
+
+			// full name before inner word before keyword
+			List<Suggestion> suggestions = reader.complete("table", 10);
+			assertEquals(List.of("Table Reader", "CSV Reader"), names(suggestions));
+			assertEquals("table reader", suggestions.get(1).key);
+			assertTrue(suggestions.get(0).score > suggestions.get(1).score);
+
+			assertEquals(List.of("CSV Reader", "Table Reader", "Excel  Reader", "CSV Reader (legacy)"),
+					names(reader.complete("reader", 10)));
+			assertEquals("org.example.ExcelReaderNodeFactory", reader.complete("excel", 10).get(0).nodeId);
+			assertEquals(List.of("Node 42"), names(reader.complete("node 42", 10)));
+			assertEquals(50, reader.complete("node", 100).size());
+			assertTrue(reader.complete("zzz", 10).isEmpty());
+		}
+	}
+
+	@Test
+	public void completes_duplicate_keys_spanning_blocks() throws Exception {
+		List<NodeDoc> nodes = new ArrayList<>();
+		nodes.add(node("org.example.AaaNodeFactory", "Aaa", false));
+		// more entries with the same keyword than fit into one block
+		for (int i = 0; i < 20; i++) {
+			nodes.add(node("org.example.Node" + i, String.format("Node %02d", i), false, "filter"));
+		}
+
+		File file = temporaryFolder.newFile("nodes.autocomplete");
+		AutocompleteWriter.write(nodes, file);
+
+		try (AutocompleteReader reader = new AutocompleteReader(file)) {
+			assertEquals(20, reader.complete("filter", 100).size());
+			assertEquals(20, reader.complete("filte", 100).size());
+			assertEquals(List.of("Node 00", "Node 01", "Node 02"), names(reader.complete("filter", 3)));
+		}
+	}
+
+	private static NodeDoc node(String id, String name, boolean deprecated, String... keywords) {
+		NodeDocBuilder builder = new NodeDocBuilder();
+		builder.setId(id);
+		builder.setName(name);
+		builder.setDeprecated(deprecated);
+		builder.setKeywords(List.of(keywords));
+		return builder.build();
+	}
+
+	private static List<String> names(List<Suggestion> suggestions) {
+		return suggestions.stream().map(suggestion -> suggestion.name).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,53 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.wiring.BundleWiring;
+
+public class BundleWarmUpTest {
+
+	private static final String APPLICATION_BUNDLE = "de.philippkatz.knime.jsondocgen.application";
+
+	@Test
+	public void groups_by_bundle_and_skips_unknown_plugins() {
+		Map<String, List<String>> factoryClassesByPlugin = new LinkedHashMap<>();
+		factoryClassesByPlugin.put(APPLICATION_BUNDLE, List.of(JsonNodeDocuGenerator.class.getName()));
+		factoryClassesByPlugin.put("org.example.does.not.exist", List.of("org.example.ExampleNodeFactory"));
+
+		Map<Bundle, List<String>> result = BundleWarmUp.groupByBundle(factoryClassesByPlugin);
+		assertEquals(1, result.size());
+		Bundle bundle = result.keySet().iterator().next();
+		assertEquals(APPLICATION_BUNDLE, bundle.getSymbolicName());
+		assertEquals(List.of(JsonNodeDocuGenerator.class.getName()), result.get(bundle));
+	}
+
+	@Test
+	public void resolves_bundle_like_the_generator() {
+		assertEquals(APPLICATION_BUNDLE, JsonNodeDocuGenerator.getBundle(APPLICATION_BUNDLE, null).getSymbolicName());
+		// falls back to the factory class' bundle
+		Bundle fallback = JsonNodeDocuGenerator.getBundle("org.example.does.not.exist", getClass());
+		assertNotNull(fallback);
+		assertEquals(FrameworkUtil.getBundle(getClass()), fallback);
+	}
+
+	@Test
+	public void loads_classes_and_tolerates_missing_ones() throws Exception {
+		Bundle bundle = JsonNodeDocuGenerator.getBundle(APPLICATION_BUNDLE, null);
+		List<Class<?>> loadedClasses = BundleWarmUp.loadClasses(bundle,
+				List.of(JsonNodeDocuGenerator.class.getName(), "org.example.ExampleNodeFactory"));
+		// the missing class is skipped without an exception
+		assertEquals(List.of(JsonNodeDocuGenerator.class), loadedClasses);
+		ClassLoader bundleClassLoader = bundle.adapt(BundleWiring.class).getClassLoader();
+		assertSame(loadedClasses.get(0), Class.forName(JsonNodeDocuGenerator.class.getName(), false, bundleClassLoader));
+	}
+
+}
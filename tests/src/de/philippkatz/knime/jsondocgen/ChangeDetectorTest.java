@@ -0,0 +1,64 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc.CategoryDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.ChangesDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+
+public class ChangeDetectorTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void detects_added_removed_and_modified_nodes() throws Exception {
+		File previous = temporaryFolder.newFolder("previous");
+		writeNodes(previous, node("a", "A"), node("b", "B"), node("c", "C"));
+
+		File current = temporaryFolder.newFolder("current");
+		writeNodes(current, node("a", "A"), node("b", "B modified"), node("d", "D"));
+
+		ChangesDoc changes = ChangeDetector.compare(ChangeDetector.readSnapshot(previous),
+				ChangeDetector.readSnapshot(current));
+
+		assertEquals(List.of("d"), changes.nodes.added);
+		assertEquals(List.of("c"), changes.nodes.removed);
+		assertEquals(List.of("b"), changes.nodes.modified);
+		// the category's hash covers the nodes
+		assertEquals(List.of("/", "/category"), changes.categories.modified);
+		// not generated
+		assertNull(changes.portTypes);
+		assertNull(changes.migrationRules);
+	}
+
+	private static NodeDocBuilder node(String id, String name) {
+		NodeDocBuilder builder = new NodeDocBuilder();
+		builder.setId(id);
+		builder.setName(name);
+		return builder;
+	}
+
+	private static void writeNodes(File directory, NodeDocBuilder... nodes) throws Exception {
+		CategoryDocBuilder category = new CategoryDocBuilder();
+		category.setId("category");
+		for (NodeDocBuilder node : nodes) {
+			category.addNode(node.build());
+		}
+		CategoryDocBuilder root = new CategoryDocBuilder();
+		root.setId("/");
+		root.addChild(category.build());
+		File file = new File(directory, OutputRenderer.NODE_DOCUMENTATION_FILE);
+		Files.writeString(file.toPath(), root.build().toJson());
+	}
+
+}
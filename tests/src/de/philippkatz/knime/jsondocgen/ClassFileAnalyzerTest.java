@@ -0,0 +1,110 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.Serializable;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ClassFileAnalyzerTest {
+
+	interface Capability {
+	}
+
+	interface ExtendedCapability extends Capability {
+	}
+
+	interface Switch {
+		default boolean isOn() {
+			return true;
+		}
+	}
+
+	interface OffSwitch extends Switch {
+		@Override
+		default boolean isOn() {
+			return false;
+		}
+	}
+
+	static abstract class Model {
+		public Object createOperator(String name) {
+			return null;
+		}
+	}
+
+	static class PlainModel extends Model {
+	}
+
+	static class OperatorModel extends PlainModel implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Object createOperator(String name) {
+			return name;
+		}
+	}
+
+	static abstract class Factory implements ExtendedCapability {
+		abstract Model createModel();
+	}
+
+	static class OperatorFactory extends Factory {
+		@Override
+		OperatorModel createModel() {
+			return new OperatorModel();
+		}
+	}
+
+	static class SwitchModel extends Model implements Switch {
+	}
+
+	static class OffSwitchModel extends SwitchModel implements OffSwitch {
+	}
+
+	private final ClassFileAnalyzer analyzer = new ClassFileAnalyzer(getClass().getClassLoader());
+
+	@Test
+	public void detects_transitive_interfaces() {
+		assertEquals(Optional.of(true), analyzer.isSubtypeOf(OperatorFactory.class.getName(), Capability.class.getName()));
+		assertEquals(Optional.of(true), analyzer.isSubtypeOf(OperatorModel.class.getName(), Model.class.getName()));
+		assertEquals(Optional.of(false), analyzer.isSubtypeOf(PlainModel.class.getName(), Capability.class.getName()));
+	}
+
+	@Test
+	public void finds_declaring_class() {
+		String descriptor = "(Ljava/lang/String;)Ljava/lang/Object;";
+		assertEquals(Optional.of(Model.class.getName()),
+				analyzer.findDeclaringClass(PlainModel.class.getName(), "createOperator", descriptor));
+		assertEquals(Optional.of(OperatorModel.class.getName()),
+				analyzer.findDeclaringClass(OperatorModel.class.getName(), "createOperator", descriptor));
+		assertEquals(Optional.empty(), analyzer.findDeclaringClass(PlainModel.class.getName(), "createOperator", "()V"));
+	}
+
+	@Test
+	public void gets_covariant_return_type() {
+		assertEquals(Optional.of(OperatorModel.class.getName()),
+				analyzer.getReturnType(OperatorFactory.class.getName(), "createModel", "()"));
+		assertEquals(Optional.of(Model.class.getName()),
+				analyzer.getReturnType(Factory.class.getName(), "createModel", "()"));
+	}
+
+	@Test
+	public void finds_declaring_types_including_interfaces() {
+		assertEquals(Optional.of(Set.of(Switch.class.getName())),
+				analyzer.findDeclaringTypes(SwitchModel.class.getName(), "isOn", "()Z"));
+		assertEquals(Optional.of(Set.of(Switch.class.getName(), OffSwitch.class.getName())),
+				analyzer.findDeclaringTypes(OffSwitchModel.class.getName(), "isOn", "()Z"));
+		assertEquals(Optional.of(Set.of()), analyzer.findDeclaringTypes(PlainModel.class.getName(), "isOn", "()Z"));
+		assertEquals(Optional.empty(), analyzer.findDeclaringTypes("org.example.DoesNotExist", "isOn", "()Z"));
+	}
+
+	@Test
+	public void missing_classes_are_inconclusive() {
+		assertEquals(Optional.empty(), analyzer.getClassInfo("org.example.DoesNotExist"));
+		assertEquals(Optional.empty(), analyzer.isSubtypeOf("org.example.DoesNotExist", Capability.class.getName()));
+	}
+
+}
@@ -0,0 +1,144 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.DynamicPortGroup;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc.PortTypeDocBuilder;
+
+public class ConnectivityIndexTest {
+
+	private static final String PORT_OBJECT = "org.knime.core.node.port.PortObject";
+	private static final String TABLE = "org.knime.core.node.BufferedDataTable";
+	private static final String DB = "org.knime.database.port.DBSessionPortObject";
+	private static final String DB_DATA = "org.knime.database.port.DBDataPortObject";
+	private static final String IMAGE = "org.knime.core.node.port.image.ImagePortObject";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void finds_consumers_and_producers_along_the_hierarchy() throws Exception {
+		List<NodeDoc> nodes = new ArrayList<>();
+		nodes.add(node("org.example.CsvReader", List.of(), List.of(TABLE)));
+		nodes.add(node("org.example.RowFilter", List.of(TABLE), List.of(TABLE)));
+		nodes.add(node("org.example.DbConnector", List.of(), List.of(DB)));
+		nodes.add(node("org.example.DbTableSelector", List.of(DB), List.of(DB_DATA)));
+		nodes.add(node("org.example.CacheNode", List.of(PORT_OBJECT), List.of(PORT_OBJECT)));
+		nodes.add(node("org.example.RowFilter", List.of(IMAGE), List.of(IMAGE))); // duplicate, ignored
+		NodeDocBuilder mergeBuilder = new NodeDocBuilder();
+		mergeBuilder.setId("org.example.Merge");
+		mergeBuilder.setDynamicInPorts(
+				List.of(new DynamicPortGroup(null, "Inputs", "inputs", null, List.of(TABLE, IMAGE))));
+		nodes.add(mergeBuilder.build());
+		// enough nodes to span several words
+		for (int i = 0; i < 200; i++) {
+			nodes.add(node("org.example.Image" + i, List.of(), i % 50 == 0 ? List.of(IMAGE) : List.of()));
+		}
+
+		File file = temporaryFolder.newFile("nodes.index");
+		ConnectivityIndexWriter.write(nodes, portTypes(), file);
+
+		try (ConnectivityIndexReader reader = new ConnectivityIndexReader(file)) {
+			assertEquals(206, reader.getNumDocs());
+			assertEquals("org.example.Merge", reader.getNodeId(5));
+			assertEquals(List.of(TABLE, PORT_OBJECT, IMAGE, DB_DATA, DB), reader.getPortObjectClasses());
+
+			// the generic port accepts everything
+			assertEquals(Set.of("org.example.RowFilter", "org.example.CacheNode", "org.example.Merge"),
+					ids(reader, reader.getConsumers(TABLE)));
+			assertEquals(Set.of("org.example.DbTableSelector", "org.example.CacheNode", "org.example.Merge"),
+					ids(reader, reader.getConsumers(DB_DATA)));
+			assertEquals(Set.of("org.example.CacheNode"), ids(reader, reader.getConsumers(PORT_OBJECT)));
+
+			assertEquals(Set.of("org.example.DbConnector", "org.example.DbTableSelector"),
+					ids(reader, reader.getProducers(DB)));
+			assertEquals(Set.of("org.example.DbTableSelector"), ids(reader, reader.getProducers(DB_DATA)));
+			assertEquals(9, reader.getProducers(PORT_OBJECT).cardinality());
+			assertEquals(Set.of("org.example.DbTableSelector", "org.example.Image0", "org.example.Image50",
+					"org.example.Image100", "org.example.Image150"), ids(reader, reader.getProducers(IMAGE)));
+
+			assertTrue(reader.getConsumers("org.example.Unknown").isEmpty());
+		}
+	}
+
+	@Test
+	public void without_port_types_only_the_same_class_is_compatible() throws Exception {
+		List<NodeDoc> nodes = List.of(node("org.example.CsvReader", List.of(), List.of(TABLE)),
+				node("org.example.CacheNode", List.of(PORT_OBJECT), List.of(PORT_OBJECT)));
+		File file = temporaryFolder.newFile("nodes.index");
+		ConnectivityIndexWriter.write(nodes, null, file);
+		try (ConnectivityIndexReader reader = new ConnectivityIndexReader(file)) {
+			assertTrue(reader.getConsumers(TABLE).isEmpty());
+			assertEquals(Set.of("org.example.CsvReader"), ids(reader, reader.getProducers(TABLE)));
+		}
+	}
+
+	@Test
+	public void bitset_encoding_roundtrip() {
+		BitSet bitSet = new BitSet();
+		bitSet.set(3);
+		bitSet.set(64 * 100 + 5);
+		bitSet.set(64 * 101 + 63);
+		bitSet.set(64 * 500);
+		byte[] bytes = ConnectivityIndexWriter.encodeBitSet(bitSet).toByteArray();
+		assertTrue(bytes.length < 64);
+		assertEquals(bitSet, ConnectivityIndexReader.decodeBitSet(ByteBuffer.wrap(bytes)));
+		assertEquals(new BitSet(), ConnectivityIndexReader.decodeBitSet(
+				ByteBuffer.wrap(ConnectivityIndexWriter.encodeBitSet(new BitSet()).toByteArray())));
+	}
+
+	private static PortTypeDoc portTypes() {
+		PortTypeDocBuilder root = PortTypeDoc.builderForObjectClass(PORT_OBJECT);
+		PortTypeDocBuilder db = PortTypeDoc.builderForObjectClass(DB);
+		// DB data is a DB session, and an image for the purpose of the test, so it
+		// appears twice in the tree
+		PortTypeDocBuilder image = PortTypeDoc.builderForObjectClass(IMAGE);
+		PortTypeDocBuilder dbData = PortTypeDoc.builderForObjectClass(DB_DATA);
+		root.addChild(PortTypeDoc.builderForObjectClass(TABLE));
+		root.addChild(db);
+		root.addChild(image);
+		db.addChild(dbData);
+		image.addChild(dbData);
+		return root.build();
+	}
+
+	private static NodeDoc node(String id, List<String> inPorts, List<String> outPorts) {
+		NodeDocBuilder builder = new NodeDocBuilder();
+		builder.setId(id);
+		builder.setInPorts(ports(inPorts));
+		builder.setOutPorts(ports(outPorts));
+		return builder.build();
+	}
+
+	private static List<Port> ports(List<String> portObjectClasses) {
+		List<Port> ports = new ArrayList<>();
+		for (String portObjectClass : portObjectClasses) {
+			ports.add(new Port(ports.size(), portObjectClass, "Port", null, null));
+		}
+		return ports;
+	}
+
+	private static Set<String> ids(ConnectivityIndexReader reader, BitSet bitSet) {
+		Set<String> ids = new HashSet<>();
+		bitSet.stream().forEach(doc -> ids.add(reader.getNodeId(doc)));
+		return ids;
+	}
+
+}
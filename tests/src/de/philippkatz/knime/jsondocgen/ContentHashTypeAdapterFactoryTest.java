@@ -0,0 +1,77 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc.CategoryDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+
+public class ContentHashTypeAdapterFactoryTest {
+
+	@Test
+	public void hash_is_stable_and_content_dependent() {
+		String hash1 = nodeHash("Node A");
+		String hash2 = nodeHash("Node A");
+		String hash3 = nodeHash("Node B");
+		assertEquals(64, hash1.length());
+		assertEquals(hash1, hash2);
+		assertNotEquals(hash1, hash3);
+	}
+
+	@Test
+	public void category_hash_depends_on_children() {
+		CategoryDocBuilder category1 = new CategoryDocBuilder();
+		category1.setId("category");
+		category1.addNode(new NodeDocBuilder().setIntro("intro 1").build());
+
+		CategoryDocBuilder category2 = new CategoryDocBuilder();
+		category2.setId("category");
+		category2.addNode(new NodeDocBuilder().setIntro("intro 2").build());
+
+		assertNotEquals(categoryHash(category1), categoryHash(category2));
+	}
+
+	@Test
+	public void nested_docs_have_same_hash_as_standalone() {
+		NodeDocBuilder node = new NodeDocBuilder();
+		node.setId("id");
+		node.setName("Node A");
+		CategoryDocBuilder childBuilder = new CategoryDocBuilder();
+		childBuilder.setId("child");
+		childBuilder.addNode(node.build());
+		CategoryDoc child = childBuilder.build();
+		CategoryDocBuilder category = new CategoryDocBuilder();
+		category.setId("category");
+		category.addChild(child);
+
+		JsonObject json = parse(category.build().toJson());
+		JsonObject childJson = json.getAsJsonArray("children").get(0).getAsJsonObject();
+		JsonObject nodeJson = childJson.getAsJsonArray("nodes").get(0).getAsJsonObject();
+		assertEquals(nodeHash("Node A"), nodeJson.get(ContentHashTypeAdapterFactory.CONTENT_HASH).getAsString());
+		assertEquals(parse(child.toJson()).get(ContentHashTypeAdapterFactory.CONTENT_HASH).getAsString(), childJson.get(ContentHashTypeAdapterFactory.CONTENT_HASH).getAsString());
+		assertEquals(ContentHashTypeAdapterFactory.contentHash(json),
+				json.get(ContentHashTypeAdapterFactory.CONTENT_HASH).getAsString());
+	}
+
+	private static String nodeHash(String name) {
+		NodeDocBuilder builder = new NodeDocBuilder();
+		builder.setId("id");
+		builder.setName(name);
+		return parse(builder.build().toJson()).get(ContentHashTypeAdapterFactory.CONTENT_HASH).getAsString();
+	}
+
+	private static String categoryHash(CategoryDocBuilder builder) {
+		return parse(builder.build().toJson()).get(ContentHashTypeAdapterFactory.CONTENT_HASH).getAsString();
+	}
+
+	private static JsonObject parse(String json) {
+		return JsonParser.parseString(json).getAsJsonObject();
+	}
+
+}
@@ -0,0 +1,209 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GeneratorDaemonTest {
+
+	private static final Set<String> FLAGS = Set.of("-includeDeprecated");
+
+	private static final Set<String> OPTIONS = Set.of("-destination", "-plugin");
+
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
+	@Test
+	public void executes_requests_on_calling_thread() throws Exception {
+		List<String[]> requests = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		GeneratorDaemon daemon = new GeneratorDaemon(0, tempFolder.getRoot(), FLAGS, OPTIONS, args -> {
+			if (args.length == 0) {
+				throw new IllegalArgumentException("No arguments");
+			}
+			requests.add(args);
+			threads.add(Thread.currentThread());
+		});
+		String token = Files.readString(daemon.getTokenFile().toPath());
+
+		List<Integer> statuses = new ArrayList<>();
+		Thread client = new Thread(() -> {
+			try {
+				statuses.add(post(daemon.getPort(), "/generate", "-destination\n/tmp/docs\n\n-plugin\norg.example\n", token));
+				statuses.add(post(daemon.getPort(), "/generate", "", token));
+				statuses.add(post(daemon.getPort(), "/shutdown", "", token));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		client.start();
+		daemon.run();
+		client.join();
+
+		assertEquals(List.of(200, 400, 200), statuses);
+		assertEquals(1, requests.size());
+		assertArrayEquals(new String[] { "-destination", "/tmp/docs", "-plugin", "org.example" }, requests.get(0));
+		assertEquals(Thread.currentThread(), threads.get(0));
+		assertFalse(daemon.getTokenFile().exists());
+	}
+
+	@Test
+	public void rejects_requests_without_token_and_disallowed_arguments() throws Exception {
+		List<String[]> requests = Collections.synchronizedList(new ArrayList<>());
+		GeneratorDaemon daemon = new GeneratorDaemon(0, tempFolder.getRoot(), FLAGS, OPTIONS, requests::add);
+		String token = Files.readString(daemon.getTokenFile().toPath());
+		if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+			assertEquals("rw-------",
+					PosixFilePermissions.toString(Files.getPosixFilePermissions(daemon.getTokenFile().toPath())));
+		}
+
+		List<Integer> statuses = new ArrayList<>();
+		Thread client = new Thread(() -> {
+			try {
+				statuses.add(post(daemon.getPort(), "/generate", "-destination\n/tmp/docs\n", null));
+				statuses.add(post(daemon.getPort(), "/generate", "-destination\n/tmp/docs\n", "wrong"));
+				statuses.add(post(daemon.getPort(), "/shutdown", "", null));
+				statuses.add(post(daemon.getPort(), "/generate", "-snapshot\n/tmp/snapshot\n", token));
+				statuses.add(post(daemon.getPort(), "/generate", "-destination\n", token));
+				statuses.add(post(daemon.getPort(), "/generate", "-includeDeprecated\n", token));
+				statuses.add(post(daemon.getPort(), "/shutdown", "", token));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		client.start();
+		daemon.run();
+		client.join();
+
+		assertEquals(List.of(401, 401, 401, 400, 400, 200, 200), statuses);
+		assertEquals(1, requests.size());
+		assertArrayEquals(new String[] { "-includeDeprecated" }, requests.get(0));
+	}
+
+	@Test
+	public void answers_status_while_running() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		GeneratorDaemon daemon = new GeneratorDaemon(0, tempFolder.getRoot(), FLAGS, OPTIONS, args -> {
+			started.countDown();
+			release.await();
+		});
+		String token = Files.readString(daemon.getTokenFile().toPath());
+
+		List<String> results = Collections.synchronizedList(new ArrayList<>());
+		Thread generateClient = new Thread(() -> {
+			try {
+				results.add("generate " + post(daemon.getPort(), "/generate", "-includeDeprecated\n", token));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		Thread statusClient = new Thread(() -> {
+			try {
+				started.await();
+				results.add("status " + get(daemon.getPort(), "/status", token));
+				release.countDown();
+				results.add("shutdown " + post(daemon.getPort(), "/shutdown", "", token));
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		generateClient.start();
+		statusClient.start();
+		daemon.run();
+		generateClient.join();
+		statusClient.join();
+
+		assertEquals(3, results.size());
+		assertEquals("status running, 0 queued", results.get(0));
+		assertTrue(results.contains("generate 200"));
+		assertTrue(results.contains("shutdown 200"));
+	}
+
+	@Test
+	public void checks_origin_and_host() {
+		assertNull(GeneratorDaemon.checkOrigin(null, "127.0.0.1:8080"));
+		assertNull(GeneratorDaemon.checkOrigin(null, "localhost"));
+		assertNull(GeneratorDaemon.checkOrigin(null, "[::1]:8080"));
+		assertNotNull(GeneratorDaemon.checkOrigin("http://example.com", "127.0.0.1:8080"));
+		assertNotNull(GeneratorDaemon.checkOrigin(null, "attacker.example.com:8080"));
+		assertNotNull(GeneratorDaemon.checkOrigin(null, null));
+	}
+
+	@Test
+	public void checks_arguments() throws Exception {
+		File directory = tempFolder.getRoot();
+		GeneratorDaemon daemon = new GeneratorDaemon(0, directory, FLAGS, OPTIONS, args -> {
+		});
+		try {
+			assertNull(daemon.checkArgs(new String[] { "-destination", "-includeDeprecated", "-includeDeprecated" }));
+			assertNotNull(daemon.checkArgs(new String[] { "-includeDeprecated", "-vmargs" }));
+			assertNotNull(daemon.checkArgs(new String[] { "-plugin" }));
+		} finally {
+			String token = Files.readString(daemon.getTokenFile().toPath());
+			Thread client = new Thread(() -> {
+				try {
+					post(daemon.getPort(), "/shutdown", "", token);
+				} catch (Exception e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			client.start();
+			daemon.run();
+			client.join();
+		}
+	}
+
+	private static int post(int port, String path, String body, String token) throws Exception {
+		HttpURLConnection connection = open(port, path, token);
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		try (OutputStream out = connection.getOutputStream()) {
+			out.write(body.getBytes(StandardCharsets.UTF_8));
+		}
+		int status = connection.getResponseCode();
+		connection.disconnect();
+		return status;
+	}
+
+	private static String get(int port, String path, String token) throws Exception {
+		HttpURLConnection connection = open(port, path, token);
+		try (InputStream in = connection.getInputStream()) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+	private static HttpURLConnection open(int port, String path, String token) throws Exception {
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path)
+				.openConnection();
+		if (token != null) {
+			connection.setRequestProperty("Authorization", "Bearer " + token);
+		}
+		return connection;
+	}
+
+}
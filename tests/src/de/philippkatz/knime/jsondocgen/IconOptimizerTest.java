@@ -0,0 +1,53 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Base64;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.junit.Test;
+
+public class IconOptimizerTest {
+
+	@Test
+	public void optimization_is_lossless_and_smaller() throws Exception {
+		// few colors, but no pattern which would compress well anyway
+		int[] colors = { 0x336699, 0xffcc00, 0x000000 };
+		Random random = new Random(42);
+		ImageData imageData = new ImageData(16, 16, 24, new PaletteData(0xff0000, 0xff00, 0xff));
+		imageData.alphaData = new byte[16 * 16];
+		for (int y = 0; y < 16; y++) {
+			for (int x = 0; x < 16; x++) {
+				imageData.setPixel(x, y, colors[random.nextInt(colors.length)]);
+				imageData.alphaData[y * 16 + x] = (byte) (x == 0 ? 0 : 0xff);
+			}
+		}
+		byte[] original = PngEncoder.encode(imageData);
+
+		byte[] optimized = IconOptimizer.optimize(original);
+		assertTrue(optimized.length < original.length);
+		assertArrayEquals(argb(original), argb(optimized));
+	}
+
+	@Test
+	public void results_are_cached() {
+		ImageData imageData = new ImageData(4, 4, 24, new PaletteData(0xff0000, 0xff00, 0xff));
+		String icon = Base64.getEncoder().encodeToString(PngEncoder.encode(imageData));
+		IconOptimizer optimizer = new IconOptimizer();
+		assertSame(optimizer.optimize(icon), optimizer.optimize(icon));
+	}
+
+	private static int[] argb(byte[] png) throws Exception {
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+		return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+	}
+
+}
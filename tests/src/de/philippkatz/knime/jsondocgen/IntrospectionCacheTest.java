@@ -0,0 +1,110 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.DynamicPortGroup;
+
+public class IntrospectionCacheTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void entries_are_valid_for_same_bundle_version() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "introspection.json");
+		IntrospectionCache cache = IntrospectionCache.read(file);
+		cache.put("org.example.NodeFactory", new IntrospectionCache.Entry("org.example.NodeFactory", "org.example",
+				"1.0.0.v1", List.of(new IntrospectionCache.PortInfo("org.example.PortObject", true)), List.of(), true,
+				List.of(new DynamicPortGroup(null, null, "group", null, List.of("org.example.PortObject"))), List.of(),
+				List.of("keyword"), "4.7.0", true, false));
+		cache.write();
+
+		IntrospectionCache readCache = IntrospectionCache.read(file);
+		IntrospectionCache.Entry entry = readCache.get("org.example.NodeFactory", "org.example.NodeFactory",
+				"org.example", "1.0.0.v1");
+		assertNotNull(entry);
+		assertEquals("org.example.PortObject", entry.inPorts.get(0).portObjectClass);
+		assertTrue(entry.inPorts.get(0).optional);
+		assertEquals("group", entry.dynamicInPorts.get(0).groupIdentifier);
+		assertEquals(List.of("keyword"), entry.keywords);
+		assertTrue(entry.hasModernDialog);
+
+		assertNull(readCache.get("org.example.NodeFactory", "org.example.NodeFactory", "org.example", "1.0.1.v2"));
+		assertNull(readCache.get("org.example.NodeFactory", "org.example.OtherFactory", "org.example", "1.0.0.v1"));
+	}
+
+	@Test
+	public void merges_changed_entries_of_shards() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "introspection.json");
+		IntrospectionCache cache = IntrospectionCache.read(file);
+		cache.put("a", entry("a", "1.0.0"));
+		cache.put("b", entry("b", "1.0.0"));
+		cache.write();
+
+		// both shards start with a copy; shard 0 updates a, shard 1 adds c
+		File shard0 = temporaryFolder.newFile("shard0.json");
+		File shard1 = temporaryFolder.newFile("shard1.json");
+		Files.copy(file.toPath(), shard0.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		Files.copy(file.toPath(), shard1.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		IntrospectionCache shardCache0 = IntrospectionCache.read(shard0);
+		shardCache0.put("a", entry("a", "2.0.0"));
+		shardCache0.write();
+		IntrospectionCache shardCache1 = IntrospectionCache.read(shard1);
+		shardCache1.put("c", entry("c", "1.0.0"));
+		shardCache1.write();
+
+		IntrospectionCache.merge(file, List.of(shard0, shard1));
+
+		IntrospectionCache merged = IntrospectionCache.read(file);
+		assertNotNull(merged.get("a", "a", "org.example", "2.0.0"));
+		assertNotNull(merged.get("b", "b", "org.example", "1.0.0"));
+		assertNotNull(merged.get("c", "c", "org.example", "1.0.0"));
+	}
+
+	@Test
+	public void failed_introspections_are_not_cached() throws Exception {
+		File file = new File(temporaryFolder.getRoot(), "introspection.json");
+		IntrospectionCache cache = IntrospectionCache.read(file);
+		cache.put("a", entry("a", "1.0.0"));
+		// the NodeModel could not be created
+		IntrospectionCache.Entry failed = new IntrospectionCache.Entry("a", "org.example", "1.0.0", null, null, null,
+				null, null, List.of(), null, false, false);
+		cache.put("a", failed);
+		cache.put("b", failed);
+		assertNull(cache.get("a", "a", "org.example", "1.0.0"));
+		cache.write();
+		assertNull(IntrospectionCache.read(file).get("b", "a", "org.example", "1.0.0"));
+
+		// written before failed introspections were skipped; retried
+		Files.writeString(file.toPath(), "{\"version\":1,\"entries\":{\"a\":{\"factoryClass\":\"a\","
+				+ "\"bundle\":\"org.example\",\"bundleVersion\":\"1.0.0\",\"keywords\":[]}}}");
+		assertNull(IntrospectionCache.read(file).get("a", "a", "org.example", "1.0.0"));
+	}
+
+	@Test
+	public void in_memory_cache_is_not_written() throws Exception {
+		IntrospectionCache cache = IntrospectionCache.inMemory();
+		cache.put("a", entry("a", "1.0.0"));
+		cache.write();
+		assertNotNull(cache.get("a", "a", "org.example", "1.0.0"));
+		assertEquals(0, temporaryFolder.getRoot().list().length);
+	}
+
+	private static IntrospectionCache.Entry entry(String factoryClass, String bundleVersion) {
+		return new IntrospectionCache.Entry(factoryClass, "org.example", bundleVersion, List.of(), List.of(), false,
+				List.of(), List.of(), List.of(), null, false, false);
+	}
+
+}
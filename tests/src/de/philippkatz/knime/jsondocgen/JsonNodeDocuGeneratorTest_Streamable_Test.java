@@ -0,0 +1,155 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.NodeDialogPane;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.NodeSettingsWO;
+import org.knime.core.node.NodeView;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.streamable.PartitionInfo;
+import org.knime.core.node.streamable.StreamableOperator;
+
+public class JsonNodeDocuGeneratorTest_Streamable_Test {
+
+	static class NonStreamableNodeModel extends NodeModel {
+
+		NonStreamableNodeModel() {
+			super(0, 0);
+		}
+
+		@Override
+		protected void loadInternals(File nodeInternDir, ExecutionMonitor exec)
+				throws IOException, CanceledExecutionException {
+			// no op.
+		}
+
+		@Override
+		protected void saveInternals(File nodeInternDir, ExecutionMonitor exec)
+				throws IOException, CanceledExecutionException {
+			// no op.
+		}
+
+		@Override
+		protected void saveSettingsTo(NodeSettingsWO settings) {
+			// no op.
+		}
+
+		@Override
+		protected void validateSettings(NodeSettingsRO settings) throws InvalidSettingsException {
+			// no op.
+		}
+
+		@Override
+		protected void loadValidatedSettingsFrom(NodeSettingsRO settings) throws InvalidSettingsException {
+			// no op.
+		}
+
+		@Override
+		protected void reset() {
+			// no op.
+		}
+
+	}
+
+	static class StreamableNodeModel extends NonStreamableNodeModel {
+
+		@Override
+		public StreamableOperator createStreamableOperator(PartitionInfo partitionInfo, PortObjectSpec[] inSpecs)
+				throws InvalidSettingsException {
+			return null;
+		}
+
+	}
+
+	static final class FinalNonStreamableNodeModel extends NonStreamableNodeModel {
+	}
+
+	private abstract static class StubNodeFactory<T extends NodeModel> extends NodeFactory<T> {
+
+		@Override
+		protected int getNrNodeViews() {
+			return 0;
+		}
+
+		@Override
+		public NodeView<T> createNodeView(int viewIndex, T nodeModel) {
+			return null;
+		}
+
+		@Override
+		protected boolean hasDialog() {
+			return false;
+		}
+
+		@Override
+		protected NodeDialogPane createNodeDialogPane() {
+			return null;
+		}
+
+	}
+
+	/** Declares the non-streamable model, but returns a streamable subclass. */
+	static class CovariantNodeFactory extends StubNodeFactory<NonStreamableNodeModel> {
+		@Override
+		public NonStreamableNodeModel createNodeModel() {
+			return new StreamableNodeModel();
+		}
+	}
+
+	static class StreamableNodeFactory extends StubNodeFactory<StreamableNodeModel> {
+		@Override
+		public StreamableNodeModel createNodeModel() {
+			return new StreamableNodeModel();
+		}
+	}
+
+	static class FinalNodeFactory extends StubNodeFactory<FinalNonStreamableNodeModel> {
+		@Override
+		public FinalNonStreamableNodeModel createNodeModel() {
+			return new FinalNonStreamableNodeModel();
+		}
+	}
+
+	@Test
+	public void model_instance_decides_streamability() throws Exception {
+		assertTrue(JsonNodeDocuGenerator.isStreamable(JsonNodeDocuGenerator.createNodeModel(new CovariantNodeFactory())));
+		assertTrue(JsonNodeDocuGenerator.isStreamable(JsonNodeDocuGenerator.createNodeModel(new StreamableNodeFactory())));
+		assertFalse(JsonNodeDocuGenerator.isStreamable(JsonNodeDocuGenerator.createNodeModel(new FinalNodeFactory())));
+	}
+
+	@Test
+	public void class_files_are_only_conclusive_without_covariant_subclasses() {
+		ClassFileAnalyzer analyzer = new ClassFileAnalyzer(getClass().getClassLoader());
+		// the declared model is not streamable, but a subclass may be returned
+		assertEquals(Optional.empty(),
+				JsonNodeDocuGenerator.isStreamable(analyzer, CovariantNodeFactory.class.getName()));
+		assertEquals(Optional.of(true),
+				JsonNodeDocuGenerator.isStreamable(analyzer, StreamableNodeFactory.class.getName()));
+		assertEquals(Optional.of(false), JsonNodeDocuGenerator.isStreamable(analyzer, FinalNodeFactory.class.getName()));
+	}
+
+	@Test
+	public void class_files_answer_dialog_and_kai_interface() {
+		ClassFileAnalyzer analyzer = new ClassFileAnalyzer(getClass().getClassLoader());
+		assertEquals(Optional.of(false),
+				JsonNodeDocuGenerator.hasModernDialog(analyzer, StreamableNodeFactory.class.getName()));
+		assertEquals(Optional.of(false),
+				JsonNodeDocuGenerator.hasKaiInterface(analyzer, StreamableNodeFactory.class.getName()));
+		assertEquals(Optional.empty(), JsonNodeDocuGenerator.hasModernDialog(analyzer, "org.example.DoesNotExist"));
+		assertEquals(Optional.empty(), JsonNodeDocuGenerator.hasKaiInterface(analyzer, "org.example.DoesNotExist"));
+	}
+
+}
@@ -0,0 +1,61 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import de.philippkatz.knime.jsondocgen.docs.MigrationChainDoc;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc.MigrationRuleDocBuilder;
+
+public class MigrationChainResolverTest {
+
+	@Test
+	public void resolves_chains() {
+		Map<String, MigrationChainDoc> chains = MigrationChainResolver.resolve(List.of( //
+				rule("A", "B"), //
+				rule("B", "C"), //
+				rule("C", "D"), //
+				rule("X", "Y"), //
+				rule("X", "Z"))); // ignored, first one wins
+
+		assertEquals(List.of("A", "B", "C", "X"), List.copyOf(chains.keySet()));
+		assertEquals("D", chains.get("A").replacementNodeFactoryClass);
+		assertEquals(3, chains.get("A").chainLength);
+		assertNull(chains.get("A").cyclic);
+		assertEquals("D", chains.get("B").replacementNodeFactoryClass);
+		assertEquals(2, chains.get("B").chainLength);
+		assertEquals("Y", chains.get("X").replacementNodeFactoryClass);
+		assertEquals(1, chains.get("X").chainLength);
+	}
+
+	@Test
+	public void detects_cycles() {
+		Map<String, MigrationChainDoc> chains = MigrationChainResolver.resolve(List.of( //
+				rule("A", "B"), //
+				rule("B", "C"), //
+				rule("C", "B"), //
+				rule("S", "S")));
+
+		assertEquals("C", chains.get("A").replacementNodeFactoryClass);
+		assertEquals(2, chains.get("A").chainLength);
+		assertTrue(chains.get("A").cyclic);
+		assertEquals("C", chains.get("B").replacementNodeFactoryClass);
+		assertEquals(1, chains.get("B").chainLength);
+		assertEquals("B", chains.get("C").replacementNodeFactoryClass);
+		assertEquals("S", chains.get("S").replacementNodeFactoryClass);
+		assertEquals(1, chains.get("S").chainLength);
+		assertTrue(chains.get("S").cyclic);
+	}
+
+	private static MigrationRuleDoc rule(String original, String replacement) {
+		return new MigrationRuleDocBuilder().setOriginalNodeFactoryClass(original)
+				.setReplacementNodeFactoryClass(replacement).build();
+	}
+
+}
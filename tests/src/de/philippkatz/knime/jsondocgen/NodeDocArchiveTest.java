@@ -0,0 +1,52 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+
+public class NodeDocArchiveTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void write_and_read_single_nodes() throws Exception {
+		List<NodeDoc> nodes = new ArrayList<>();
+		for (String id : new String[] { "org.example.ZNodeFactory", "org.example.ANodeFactory",
+				"org.example.\u00C4NodeFactory", "org.example.MNodeFactory" }) {
+			NodeDocBuilder builder = new NodeDocBuilder();
+			builder.setId(id);
+			builder.setName("Name of " + id);
+			builder.setIntro("<p>Intro</p>");
+			nodes.add(builder.build());
+		}
+
+		File file = temporaryFolder.newFile("nodes.archive");
+		NodeDocArchiveWriter.write(nodes, file);
+
+		try (NodeDocArchiveReader reader = new NodeDocArchiveReader(file)) {
+			assertEquals(4, reader.size());
+			assertEquals("org.example.ANodeFactory", reader.getId(0));
+			for (NodeDoc node : nodes) {
+				NodeDoc readNode = reader.get(node.id);
+				assertEquals(node.id, readNode.id);
+				assertEquals(node.name, readNode.name);
+				assertEquals("<p>Intro</p>", readNode.intro);
+			}
+			assertTrue(reader.getJson("org.example.MNodeFactory").contains("\"contentHash\""));
+			assertNull(reader.get("org.example.UnknownNodeFactory"));
+		}
+	}
+
+}
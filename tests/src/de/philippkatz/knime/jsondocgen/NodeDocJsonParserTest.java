@@ -3,9 +3,11 @@ package de.philippkatz.knime.jsondocgen;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
+import java.util.List;
 import java.util.Objects;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -15,6 +17,7 @@ import org.junit.Test;
 import org.w3c.dom.Document;
 
 import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
 import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Option;
 
 public class NodeDocJsonParserTest {
@@ -162,7 +165,29 @@ public class NodeDocJsonParserTest {
 		assertEquals("Additional data table to write.", nodeDoc.dynamicInPorts.get(1).description);
 	}
 
-	private static Document readDoc(String resourcePath) throws Exception {
+	@Test
+	public void parsing_XML_with_keywords() throws Exception {
+		Document doc = readDoc("/KeywordsNodeFactory.xml");
+		NodeDoc nodeDoc = NodeDocJsonParser.parse(doc);
+		assertEquals(List.of("search", "find"), nodeDoc.keywords);
+		assertNull(nodeDoc.missingFields);
+
+		assertNull(NodeDocJsonParser.parse(readDoc("/GroupByNodeFactory.xml")).keywords);
+	}
+
+	@Test
+	public void parsing_XML_with_string_pool() throws Exception {
+		StringPool stringPool = new StringPool();
+		NodeDoc nodeDoc1 = NodeDocJsonParser.parse(readDoc("/GroupByNodeFactory.xml"), new NodeDocBuilder(), stringPool)
+				.build();
+		NodeDoc nodeDoc2 = NodeDocJsonParser.parse(readDoc("/GroupByNodeFactory.xml"), new NodeDocBuilder(), stringPool)
+				.build();
+		assertSame(nodeDoc1.type, nodeDoc2.type);
+		assertSame(nodeDoc1.optionTabs.get(0).options.get(0).type, nodeDoc2.optionTabs.get(0).options.get(0).type);
+		assertSame(nodeDoc1.inPorts.get(0).name, nodeDoc2.inPorts.get(0).name);
+	}
+
+	/* package */ static Document readDoc(String resourcePath) throws Exception {
 		Objects.requireNonNull(resourcePath, "resourcePath must not be null");
 		try (InputStream resourceStream = NodeDocJsonParserTest.class.getResourceAsStream(resourcePath)) {
 			Objects.requireNonNull(resourcePath, "resource for " + resourcePath + " not found");
@@ -0,0 +1,56 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc.CategoryDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.View;
+
+public class NodeDocTest {
+
+	@Test
+	public void built_docs_take_over_the_lists() {
+		List<Port> inPorts = new ArrayList<>();
+		inPorts.add(new Port(0, "org.knime.core.node.BufferedDataTable", "Table", null, true));
+		inPorts.add(new Port(1, "org.knime.core.node.port.PortObject", "Any", null, true));
+		NodeDocBuilder builder = new NodeDocBuilder();
+		builder.setInPorts(inPorts);
+		builder.addView(new View(0, "View", null));
+		assertSame(inPorts, builder.getInPorts());
+		assertNull(builder.getOutPorts());
+
+		NodeDoc nodeDoc = builder.build();
+		assertEquals(inPorts, nodeDoc.inPorts);
+		assertEquals(List.of("org.knime.core.node.BufferedDataTable", "org.knime.core.node.port.PortObject"),
+				nodeDoc.inPortObjectClasses);
+		assertNull(nodeDoc.outPortObjectClasses);
+		assertTrue(nodeDoc.toJson().contains("\"inPortObjectClasses\": [\n    \"org.knime.core.node.BufferedDataTable\""));
+
+		// adding after building must not change the built doc
+		builder.addView(new View(1, "Other view", null));
+		assertEquals(1, nodeDoc.views.size());
+		assertEquals(2, builder.build().views.size());
+	}
+
+	@Test
+	public void categories_are_not_changed_by_their_builder() {
+		CategoryDocBuilder builder = new CategoryDocBuilder();
+		builder.addNode(new NodeDocBuilder().build());
+		CategoryDoc category = builder.build();
+		builder.addNode(new NodeDocBuilder().build());
+		assertEquals(1, category.getNodes().size());
+		assertEquals(2, builder.build().getNodes().size());
+	}
+
+}
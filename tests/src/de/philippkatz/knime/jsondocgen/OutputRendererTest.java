@@ -0,0 +1,69 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc.CategoryDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+
+public class OutputRendererTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void writes_all_formats_from_one_traversal() throws Exception {
+		CategoryDocBuilder category = new CategoryDocBuilder();
+		category.setId("io");
+		category.addNode(node("org.example.ReadNodeFactory", "org.example.io"));
+		CategoryDocBuilder root = new CategoryDocBuilder();
+		root.setId("/");
+		root.addNode(node("org.example.RootNodeFactory", "org.example.core"));
+		root.addChild(category.build());
+		RepositorySnapshot snapshot = new RepositorySnapshot(root.build(), null, null, null);
+
+		File directory = temporaryFolder.newFolder();
+		try (OutputRenderer renderer = new OutputRenderer(directory,
+				EnumSet.of(OutputFormat.JSON, OutputFormat.NDJSON, OutputFormat.SHARDED, OutputFormat.ARCHIVE),
+				null)) {
+			snapshot.replay(renderer);
+		}
+
+		assertTrue(new File(directory, OutputRenderer.NODE_DOCUMENTATION_FILE).isFile());
+		assertFalse(new File(directory, OutputRenderer.PORT_DOCUMENTATION_FILE).exists());
+
+		List<String> lines = Files.readAllLines(new File(directory, NdjsonDocSink.NDJSON_FILE).toPath());
+		assertEquals(2, lines.size());
+		assertTrue(lines.get(0).contains("\"categoryPath\":\"/\""));
+		assertTrue(lines.get(1).contains("\"categoryPath\":\"/io\""));
+
+		File plugins = new File(directory, ShardedDocSink.PLUGINS_DIRECTORY);
+		assertTrue(new File(plugins, "org.example.core.json").isFile());
+		assertTrue(new File(plugins, "org.example.io.json").isFile());
+
+		try (NodeDocArchiveReader reader = new NodeDocArchiveReader(
+				new File(directory, OutputRenderer.NODE_ARCHIVE_FILE))) {
+			assertEquals(2, reader.size());
+		}
+	}
+
+	private static NodeDoc node(String id, String plugin) {
+		NodeDocBuilder builder = new NodeDocBuilder();
+		builder.setId(id);
+		builder.setName(id);
+		builder.setContributingPlugin(plugin);
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,82 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.DynamicPortGroup;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
+import de.philippkatz.knime.jsondocgen.docs.PluginStatisticsDoc;
+
+public class PluginStatisticsTest {
+
+	private static final String TABLE = "org.knime.core.node.BufferedDataTable";
+	private static final String IMAGE = "org.knime.core.node.port.image.ImagePortObject";
+
+	@Test
+	public void counts_per_plugin() throws Exception {
+		PluginStatistics statistics = new PluginStatistics();
+
+		NodeDocBuilder builder = new NodeDocBuilder();
+		builder.setId("org.example.A");
+		builder.setName("Ä node with ✓ and 😀");
+		builder.setContributingPlugin("org.example.plugin");
+		builder.setStreamable(true);
+		builder.setHasModernDialog(true);
+		builder.setInPorts(List.of(new Port(0, TABLE, "In", null, null)));
+		NodeDoc a = builder.build();
+		statistics.add(a);
+
+		builder = new NodeDocBuilder();
+		builder.setId("org.example.B");
+		builder.setContributingPlugin("org.example.plugin");
+		builder.setDeprecated(true);
+		builder.setDynamicOutPorts(List.of(new DynamicPortGroup(null, "Out", "out", null, List.of(IMAGE, TABLE))));
+		NodeDoc b = builder.build();
+		statistics.add(b);
+
+		builder = new NodeDocBuilder();
+		builder.setId("org.other.C");
+		builder.setContributingPlugin("org.other.plugin");
+		NodeDoc c = builder.build();
+		statistics.add(c);
+
+		// the sizes are counted while writing
+		Gson gson = Utils.createGsonBuilder(false).registerTypeAdapterFactory(statistics.serializedBytes()).create();
+		StringWriter file = new StringWriter();
+		try (Writer writer = statistics.counting(file)) {
+			gson.toJson(List.of(a, b, c), TextArena.resolving(writer));
+		}
+
+		Map<String, PluginStatisticsDoc> result = statistics.getStatistics();
+		assertEquals(List.of("org.example.plugin", "org.other.plugin"), List.copyOf(result.keySet()));
+		PluginStatisticsDoc example = result.get("org.example.plugin");
+		assertEquals(2, example.nodes);
+		assertEquals(1, example.deprecatedNodes);
+		assertEquals(1, example.streamableNodes);
+		assertEquals(1, example.modernDialogNodes);
+		assertEquals(List.of(TABLE, IMAGE), example.portTypes);
+		Gson plainGson = Utils.createGson(false);
+		// "[a,b,c]": b and c include the separator before them
+		assertEquals(utf8Length(plainGson.toJson(a)) + 1 + utf8Length(plainGson.toJson(b)), example.serializedBytes);
+		assertEquals(1, result.get("org.other.plugin").nodes);
+		assertEquals(1 + utf8Length(plainGson.toJson(c)), result.get("org.other.plugin").serializedBytes);
+		assertEquals(utf8Length(file.toString()), 2 + example.serializedBytes
+				+ result.get("org.other.plugin").serializedBytes);
+	}
+
+	private static int utf8Length(String string) {
+		return string.getBytes(StandardCharsets.UTF_8).length;
+	}
+
+}
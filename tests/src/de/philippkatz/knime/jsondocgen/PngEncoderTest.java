@@ -0,0 +1,119 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.junit.Test;
+
+public class PngEncoderTest {
+
+	@Test
+	public void encodes_direct_palette_with_alpha() throws Exception {
+		ImageData imageData = directImage();
+		imageData.alphaData = new byte[] { (byte) 0xff, (byte) 0x80, 0, 0, 0, (byte) 0xff };
+
+		BufferedImage decoded = decode(imageData);
+		assertEquals(0xffff0000, decoded.getRGB(0, 0));
+		assertEquals(0x8000ff00, decoded.getRGB(1, 0));
+		assertEquals(0xff123456, decoded.getRGB(2, 1));
+		assertEquals(0, decoded.getRGB(0, 1) >>> 24);
+		assertSameAsImageLoader(imageData);
+	}
+
+	@Test
+	public void encodes_indexed_palette_with_transparent_pixel() throws Exception {
+		ImageData imageData = indexedImage();
+		imageData.transparentPixel = 0;
+
+		BufferedImage decoded = decode(imageData);
+		assertEquals(0, decoded.getRGB(0, 0) >>> 24);
+		assertEquals(0xff0000ff, decoded.getRGB(1, 0));
+		assertEquals(0xff0000ff, decoded.getRGB(0, 1));
+		assertSameAsImageLoader(imageData);
+	}
+
+	@Test
+	public void encodes_mask() throws Exception {
+		ImageData imageData = directImage();
+		// one bit per pixel, rows padded to two bytes: 101 and 011
+		imageData.maskPad = 2;
+		imageData.maskData = new byte[] { (byte) 0xa0, 0, (byte) 0x60, 0 };
+		assertEquals(SWT.TRANSPARENCY_MASK, imageData.getTransparencyType());
+
+		BufferedImage decoded = decode(imageData);
+		assertEquals(0xffff0000, decoded.getRGB(0, 0));
+		assertEquals(0, decoded.getRGB(1, 0) >>> 24);
+		assertEquals(0xff000000, decoded.getRGB(2, 0));
+		assertEquals(0, decoded.getRGB(0, 1) >>> 24);
+		assertEquals(0xff000000, decoded.getRGB(1, 1));
+		assertEquals(0xff123456, decoded.getRGB(2, 1));
+		assertSameAsImageLoader(imageData);
+	}
+
+	@Test
+	public void encodes_opaque_image_as_rgb() throws Exception {
+		ImageData imageData = new ImageData(1, 1, 24, new PaletteData(0xff0000, 0xff00, 0xff));
+		imageData.setPixel(0, 0, 0xabcdef);
+
+		BufferedImage decoded = decode(imageData);
+		assertEquals(0xffabcdef, decoded.getRGB(0, 0));
+		assertEquals(false, decoded.getColorModel().hasAlpha());
+		assertSameAsImageLoader(imageData);
+		assertSameAsImageLoader(indexedImage());
+	}
+
+	private static ImageData directImage() {
+		ImageData imageData = new ImageData(3, 2, 24, new PaletteData(0xff0000, 0xff00, 0xff));
+		imageData.setPixel(0, 0, 0xff0000);
+		imageData.setPixel(1, 0, 0x00ff00);
+		imageData.setPixel(2, 1, 0x123456);
+		return imageData;
+	}
+
+	private static ImageData indexedImage() {
+		PaletteData palette = new PaletteData(new RGB[] { new RGB(255, 255, 255), new RGB(0, 0, 255) });
+		ImageData imageData = new ImageData(2, 2, 1, palette);
+		imageData.setPixel(1, 0, 1);
+		imageData.setPixel(0, 1, 1);
+		return imageData;
+	}
+
+	/**
+	 * Encode the image with SWT's {@link ImageLoader} as well and compare the
+	 * decoded pixels; the color of fully transparent pixels does not matter.
+	 */
+	private static void assertSameAsImageLoader(ImageData imageData) throws Exception {
+		ImageLoader imageLoader = new ImageLoader();
+		imageLoader.data = new ImageData[] { imageData };
+		ByteArrayOutputStream swtPng = new ByteArrayOutputStream();
+		imageLoader.save(swtPng, SWT.IMAGE_PNG);
+		BufferedImage expected = ImageIO.read(new ByteArrayInputStream(swtPng.toByteArray()));
+		BufferedImage actual = decode(imageData);
+		for (int y = 0; y < imageData.height; y++) {
+			for (int x = 0; x < imageData.width; x++) {
+				String message = String.format("pixel %s,%s", x, y);
+				int expectedArgb = expected.getRGB(x, y);
+				if (expectedArgb >>> 24 == 0) {
+					assertEquals(message, 0, actual.getRGB(x, y) >>> 24);
+				} else {
+					assertEquals(message, Integer.toHexString(expectedArgb), Integer.toHexString(actual.getRGB(x, y)));
+				}
+			}
+		}
+	}
+
+	private static BufferedImage decode(ImageData imageData) throws Exception {
+		return ImageIO.read(new ByteArrayInputStream(PngEncoder.encode(imageData)));
+	}
+
+}
@@ -0,0 +1,64 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.philippkatz.knime.jsondocgen.docs.PortAncestryDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc.PortTypeDocBuilder;
+
+public class PortTypeHierarchyTest {
+
+	@Test
+	public void computes_ancestors_over_multiple_parents() {
+		PortTypeDocBuilder root = PortTypeDoc.builderForObjectClass("a.PortObject");
+		PortTypeDocBuilder left = PortTypeDoc.builderForObjectClass("b.Left");
+		PortTypeDocBuilder right = PortTypeDoc.builderForObjectClass("c.Right");
+		PortTypeDocBuilder both = PortTypeDoc.builderForObjectClass("d.Both");
+		root.addChild(left).addChild(right);
+		left.addChild(both);
+		right.addChild(both);
+		PortTypeHierarchy hierarchy = new PortTypeHierarchy(root.build());
+
+		assertEquals(List.of("a.PortObject", "b.Left", "c.Right", "d.Both"), hierarchy.getPortObjectClasses());
+		assertEquals(Set.of("d.Both", "b.Left", "c.Right", "a.PortObject"), hierarchy.getAncestors("d.Both"));
+		assertEquals(Set.of("a.PortObject"), hierarchy.getAncestors("a.PortObject"));
+		assertEquals(Set.of("x.Unknown"), hierarchy.getAncestors("x.Unknown"));
+		assertEquals(Set.of("b.Left", "d.Both"), hierarchy.getDescendants(Set.of()).get("b.Left"));
+
+		PortAncestryDoc ancestry = hierarchy.getAncestry();
+		assertEquals(hierarchy.getPortObjectClasses(), ancestry.objectClasses);
+		assertArrayEquals(new int[] { 0b1 }, ancestry.ancestors.get(0));
+		assertArrayEquals(new int[] { 0b11 }, ancestry.ancestors.get(1));
+		assertArrayEquals(new int[] { 0b1111 }, ancestry.ancestors.get(3));
+	}
+
+	@Test
+	public void ancestry_spans_multiple_words() {
+		PortTypeDocBuilder root = PortTypeDoc.builderForObjectClass("a.PortObject");
+		PortTypeDocBuilder parent = root;
+		List<String> classes = new ArrayList<>();
+		for (int i = 0; i < 70; i++) {
+			String objectClass = String.format("b.Type%02d", i);
+			classes.add(objectClass);
+			PortTypeDocBuilder child = PortTypeDoc.builderForObjectClass(objectClass);
+			parent.addChild(child);
+			parent = child;
+		}
+		PortAncestryDoc ancestry = new PortTypeHierarchy(root.build()).getAncestry();
+		// "a.PortObject" is class 0, "b.Type69" is class 70 and has all classes as ancestors
+		assertEquals(71, ancestry.objectClasses.size());
+		assertArrayEquals(new int[] { -1, -1, 0b1111111 }, ancestry.ancestors.get(70));
+		int[] type40 = ancestry.ancestors.get(41);
+		assertEquals(2, type40.length);
+		assertEquals(1, type40[41 >>> 5] >>> (41 & 31) & 1);
+		assertEquals(0, type40[1] >>> (42 & 31) & 1);
+	}
+
+}
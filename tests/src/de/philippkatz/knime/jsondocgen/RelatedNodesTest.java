@@ -0,0 +1,85 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Option;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
+import de.philippkatz.knime.jsondocgen.docs.RelatedNodeDoc;
+
+public class RelatedNodesTest {
+
+	private static final String TABLE = "org.knime.core.node.BufferedDataTable";
+
+	@Test
+	public void finds_similar_nodes() {
+		RelatedNodesFinder finder = new RelatedNodesFinder(new File("unused"));
+		finder.add(node("org.example.CsvReaderNodeFactory",
+				"Reads a comma separated <b>CSV</b> file from the local file system into a table", "File", "Encoding",
+				"Column delimiter"));
+		finder.add(node("org.example.CsvReaderNodeFactory2",
+				"Reads a comma separated <b>CSV</b> file from the local file system into a table", "File", "Encoding",
+				"Row delimiter"));
+		finder.add(node("org.example.RandomForestNodeFactory",
+				"Learns a random forest classification model with many decision trees", "Number of trees",
+				"Target column"));
+		// duplicate ID, ignored
+		finder.add(node("org.example.CsvReaderNodeFactory", "Something entirely different", "Other"));
+		// no features, ignored
+		NodeDocBuilder emptyBuilder = new NodeDocBuilder();
+		emptyBuilder.setId("org.example.EmptyNodeFactory");
+		finder.add(emptyBuilder.build());
+
+		Map<String, List<RelatedNodeDoc>> related = finder.findRelated();
+		assertEquals(Set.of("org.example.CsvReaderNodeFactory", "org.example.CsvReaderNodeFactory2"),
+				related.keySet());
+		List<RelatedNodeDoc> csvRelated = related.get("org.example.CsvReaderNodeFactory");
+		assertEquals(1, csvRelated.size());
+		assertEquals("org.example.CsvReaderNodeFactory2", csvRelated.get(0).id);
+		assertTrue(csvRelated.get(0).similarity > 0.7);
+	}
+
+	@Test
+	public void estimates_jaccard_similarity() {
+		Set<String> features1 = Set.of("a", "b", "c", "d", "e", "f", "g", "h");
+		Set<String> features2 = Set.of("a", "b", "c", "d", "e", "f", "g", "x");
+		long[] signature1 = RelatedNodesFinder.getSignature(features1);
+		long[] signature2 = RelatedNodesFinder.getSignature(features2);
+		assertEquals(1.0, RelatedNodesFinder.estimateSimilarity(signature1, signature1), 0);
+		// the exact Jaccard similarity is 7/9
+		assertEquals(7. / 9, RelatedNodesFinder.estimateSimilarity(signature1, signature2), 0.2);
+		long[] signature3 = RelatedNodesFinder.getSignature(Set.of("u", "v", "w", "y", "z"));
+		assertTrue(RelatedNodesFinder.estimateSimilarity(signature1, signature3) < 0.2);
+	}
+
+	@Test
+	public void features_contain_words_options_and_ports() {
+		Set<String> features = RelatedNodesFinder.getFeatures(node("org.example.NodeFactory", "A <i>csv</i> file",
+				"Column  Delimiter"));
+		assertTrue(features.contains("w:csv"));
+		assertFalse(features.contains("w:i"));
+		assertTrue(features.contains("o:column delimiter"));
+		assertTrue(features.contains("u:" + TABLE));
+		assertFalse(features.contains("i:" + TABLE));
+	}
+
+	private static NodeDoc node(String id, String description, String... optionNames) {
+		NodeDocBuilder builder = new NodeDocBuilder();
+		builder.setId(id);
+		builder.setDescription(description);
+		builder.setOptions(List.of(optionNames).stream().map(name -> new Option(null, name, null, false)).toList());
+		builder.setOutPorts(List.of(new Port(0, TABLE, "Table", null, null)));
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,55 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc.CategoryDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc;
+import de.philippkatz.knime.jsondocgen.docs.MigrationRuleDoc.MigrationRuleDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Option;
+import de.philippkatz.knime.jsondocgen.docs.PortTypeDoc;
+
+public class RepositorySnapshotTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void snapshot_renders_identical_output() throws Exception {
+		NodeDocBuilder node = new NodeDocBuilder();
+		node.setId("org.example.NodeFactory");
+		node.setName("Node");
+		node.setOptions(List.of(new Option("option", "Option", "<b>Description</b>", true)));
+		CategoryDocBuilder root = new CategoryDocBuilder();
+		root.setId("/");
+		root.addNode(node.build());
+		CategoryDoc rootCategory = root.build();
+
+		PortTypeDoc rootPortType = PortTypeDoc.builderForObjectClass("org.example.PortObject")
+				.addChild(PortTypeDoc.builderForObjectClass("org.example.SubPortObject")).build();
+
+		List<MigrationRuleDoc> migrationRules = List.of(new MigrationRuleDocBuilder()
+				.setOriginalNodeFactoryClass("org.example.Old").setReplacementNodeFactoryClass("org.example.New")
+				.build());
+
+		RepositorySnapshot snapshot = new RepositorySnapshot(rootCategory, rootPortType, null, migrationRules);
+		File snapshotFile = temporaryFolder.newFile("snapshot.json.gz");
+		snapshot.write(snapshotFile);
+
+		RepositorySnapshot readSnapshot = RepositorySnapshot.read(snapshotFile);
+		assertEquals(rootCategory.toJson(), readSnapshot.rootCategory.toJson());
+		assertEquals(Utils.toJson(rootPortType), Utils.toJson(readSnapshot.rootPortType));
+		assertEquals(Utils.toJson(migrationRules), Utils.toJson(readSnapshot.migrationRules));
+		assertNull(readSnapshot.splashIcons);
+	}
+
+}
@@ -0,0 +1,81 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.philippkatz.knime.jsondocgen.SearchIndexReader.Field;
+import de.philippkatz.knime.jsondocgen.SearchIndexReader.Posting;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Option;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.Port;
+
+public class SearchIndexTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void tokenizes_html() {
+		assertEquals(List.of("read", "a", "csv", "file", "ä", "b", "x2"),
+				SearchIndexReader.tokenize("<p>Read a <b>CSV</b>&nbsp;file &amp; &#228;<br/>b, x2</p>"));
+	}
+
+	@Test
+	public void write_and_read_postings() throws Exception {
+		NodeDocBuilder csvReader = new NodeDocBuilder();
+		csvReader.setId("org.example.CsvReaderNodeFactory");
+		csvReader.setName("CSV Reader");
+		csvReader.setIntro("<p>Reads a CSV file. The CSV file is parsed.</p>");
+		csvReader.setOptions(List.of(new Option("option", "File", "The <i>file</i> to read.", false)));
+		csvReader.setOutPorts(List.of(new Port(0, null, "Table", "The read table", null)));
+		csvReader.setKeywords(List.of("comma separated"));
+		NodeDocBuilder csvWriter = new NodeDocBuilder();
+		csvWriter.setId("org.example.CsvWriterNodeFactory");
+		csvWriter.setName("CSV Writer");
+		csvWriter.setIntro("Writes a CSV file.");
+		File file = temporaryFolder.newFile("nodes.index");
+		SearchIndexWriter.write(List.of(csvReader.build(), csvWriter.build(), csvReader.build()), file);
+
+		try (SearchIndexReader reader = new SearchIndexReader(file)) {
+			assertEquals(2, reader.getNumDocs());
+			assertEquals("org.example.CsvWriterNodeFactory", reader.getNodeId(1));
+			assertEquals(2, reader.getDocFrequency("csv"));
+			assertEquals(0, reader.getDocFrequency("json"));
+			assertTrue(reader.getPostings("json").isEmpty());
+
+			List<Posting> postings = reader.getPostings("csv");
+			assertEquals(4, postings.size());
+			assertPosting(postings.get(0), 0, Field.NAME, 0);
+			assertPosting(postings.get(1), 0, Field.INTRO, 2, 5);
+			assertPosting(postings.get(2), 1, Field.NAME, 0);
+			assertPosting(postings.get(3), 1, Field.INTRO, 2);
+
+			// second text of the field starts after the gap
+			postings = reader.getPostings("read");
+			assertPosting(postings.get(0), 0, Field.OPTION, SearchIndexReader.POSITION_GAP + 1 + 3);
+			assertPosting(postings.get(1), 0, Field.PORT, SearchIndexReader.POSITION_GAP + 1 + 1);
+			assertPosting(reader.getPostings("separated").get(0), 0, Field.KEYWORD, 1);
+
+			String previous = "";
+			for (int i = 0; i < reader.getNumTerms(); i++) {
+				assertTrue(previous.compareTo(reader.getTerm(i)) < 0);
+				previous = reader.getTerm(i);
+			}
+		}
+	}
+
+	private static void assertPosting(Posting posting, int doc, Field field, int... positions) {
+		assertEquals(doc, posting.doc);
+		assertEquals(field, posting.field);
+		assertArrayEquals(positions, posting.positions);
+	}
+
+}
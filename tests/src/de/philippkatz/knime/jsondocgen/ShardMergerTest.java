@@ -0,0 +1,125 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc;
+import de.philippkatz.knime.jsondocgen.docs.CategoryDoc.CategoryDocBuilder;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+
+public class ShardMergerTest {
+
+	private static final String PLUGIN_A = "org.example.a";
+	private static final String PLUGIN_B = "org.example.b";
+
+	private static final NodeDoc READ = node("org.example.Read", PLUGIN_A, null);
+	private static final NodeDoc WRITE = node("org.example.Write", PLUGIN_B, "org.example.Read");
+	private static final NodeDoc COPY = node("org.example.Copy", PLUGIN_A, "org.example.Write");
+	private static final NodeDoc DB = node("org.example.Db", PLUGIN_B, null);
+	private static final NodeDoc MISC = node("org.example.Misc", PLUGIN_A, null);
+	private static final NodeDoc ROOT = node("org.example.Root", PLUGIN_B, null);
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void merged_output_is_the_same_as_for_a_single_run() throws Exception {
+		File full = temporaryFolder.newFolder("full");
+		Utils.writeJson(tree(Set.of(PLUGIN_A, PLUGIN_B)), new File(full, OutputRenderer.NODE_DOCUMENTATION_FILE),
+				true);
+
+		File shardA = temporaryFolder.newFolder("a");
+		Utils.writeJson(tree(Set.of(PLUGIN_A)), new File(shardA, OutputRenderer.NODE_DOCUMENTATION_FILE), true);
+		Utils.writeJson(Map.of(PLUGIN_A, Map.of("nodes", 3)), new File(shardA, OutputRenderer.PLUGINS_FILE), true);
+		Files.writeString(new File(shardA, OutputRenderer.PORT_DOCUMENTATION_FILE).toPath(), "{}");
+		File shardB = temporaryFolder.newFolder("b");
+		Utils.writeJson(tree(Set.of(PLUGIN_B)), new File(shardB, OutputRenderer.NODE_DOCUMENTATION_FILE), true);
+		Utils.writeJson(Map.of(PLUGIN_B, Map.of("nodes", 3)), new File(shardB, OutputRenderer.PLUGINS_FILE), true);
+
+		File merged = temporaryFolder.newFolder("merged");
+		ShardMerger.merge(List.of(shardA, shardB), merged);
+
+		assertEquals(read(new File(full, OutputRenderer.NODE_DOCUMENTATION_FILE)),
+				read(new File(merged, OutputRenderer.NODE_DOCUMENTATION_FILE)));
+		Map<String, Object> plugins = new TreeMap<>();
+		plugins.put(PLUGIN_A, Map.of("nodes", 3));
+		plugins.put(PLUGIN_B, Map.of("nodes", 3));
+		assertEquals(Utils.createGson(true).toJson(plugins), read(new File(merged, OutputRenderer.PLUGINS_FILE)));
+		assertTrue(new File(merged, OutputRenderer.PORT_DOCUMENTATION_FILE).isFile());
+	}
+
+	@Test
+	public void siblings_are_ordered_by_after_id() {
+		List<String[]> merged = new ArrayList<>(List.of(sibling("a", null), sibling("c", "b"), sibling("x", null)));
+		ShardMerger.mergeSiblings(merged, List.of(sibling("b", "a"), sibling("d", null), sibling("x", null),
+				sibling("y", null)), s -> s[0], s -> s[1], (existing, duplicate) -> {
+				});
+		assertEquals(List.of("a", "b", "d", "c", "x", "y"), merged.stream().map(s -> s[0]).toList());
+	}
+
+	/** The tree as generated with the given plugins. */
+	private static CategoryDoc tree(Set<String> plugins) {
+		CategoryDocBuilder root = category("repository", null);
+		CategoryDocBuilder io = category("io", null);
+		CategoryDocBuilder db = category("db", "io");
+		CategoryDocBuilder misc = category("misc", null);
+		addNodes(io, plugins, READ, WRITE, COPY);
+		addNodes(db, plugins, DB);
+		addNodes(misc, plugins, MISC);
+		addNodes(root, plugins, ROOT);
+		for (CategoryDocBuilder category : List.of(io, db, misc)) {
+			CategoryDoc categoryDoc = category.build();
+			if (!categoryDoc.getNodes().isEmpty()) {
+				root.addChild(categoryDoc);
+			}
+		}
+		return root.build();
+	}
+
+	private static void addNodes(CategoryDocBuilder category, Set<String> plugins, NodeDoc... nodes) {
+		Arrays.stream(nodes).filter(node -> plugins.contains(node.contributingPlugin)).forEach(category::addNode);
+	}
+
+	private static CategoryDocBuilder category(String id, String afterId) {
+		CategoryDocBuilder builder = new CategoryDocBuilder();
+		builder.setId(id);
+		builder.setName(id.toUpperCase());
+		builder.setContributingPlugin("org.knime.base");
+		builder.setAfterId(afterId);
+		return builder;
+	}
+
+	private static NodeDoc node(String id, String plugin, String afterId) {
+		NodeDocBuilder builder = new NodeDocBuilder();
+		builder.setId(id);
+		builder.setName(id.substring(id.lastIndexOf('.') + 1));
+		builder.setIntro("<p>Intro of \"" + id + "\" & more</p>");
+		builder.setContributingPlugin(plugin);
+		builder.setAfterId(afterId);
+		return builder.build();
+	}
+
+	private static String[] sibling(String id, String afterId) {
+		return new String[] { id, afterId };
+	}
+
+	private static String read(File file) throws Exception {
+		return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,44 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ShardedCrawlTest {
+
+	@Test
+	public void partitions_plugins_by_node_count() {
+		Map<String, Integer> nodesByPlugin = Map.of("base", 10, "io", 6, "db", 5, "js", 3, "r", 1);
+		assertEquals(List.of(List.of("base", "js"), List.of("db", "io", "r")),
+				ShardedCrawl.partition(nodesByPlugin, 2));
+		assertEquals(List.of(List.of("base")), ShardedCrawl.partition(Map.of("base", 10), 4));
+	}
+
+	@Test
+	public void replaces_destination_and_plugins() {
+		List<String> arguments = List.of("-jar", "launcher.jar", "-application", "generator", "-data", "ws",
+				"-destination", "out", "-processes", "2", "-plugin", "base", "-textArena");
+		File shardDirectory = new File("out/shards/1").getAbsoluteFile();
+		assertEquals(List.of("-jar", "launcher.jar", "-application", "generator", "-textArena", "-data",
+				new File(shardDirectory, "workspace").getPath(), "-destination", shardDirectory.getPath(), "-plugin",
+				"db", "-plugin", "io", "-skipPortDocumentation", "-skipSplashIcons", "-skipMigrationRules"),
+				ShardedCrawl.getShardArguments(arguments, shardDirectory, List.of("db", "io"), false, null));
+	}
+
+	@Test
+	public void keeps_vm_arguments_last_and_replaces_introspection_cache() {
+		List<String> arguments = List.of("-application", "generator", "-destination", "out", "-introspectionCache",
+				"cache.json", "-vmargs", "-Xmx4g", "-destination", "jvm");
+		File shardDirectory = new File("out/shards/0").getAbsoluteFile();
+		File shardCache = new File(shardDirectory, "introspectionCache.json");
+		assertEquals(List.of("-application", "generator", "-data", new File(shardDirectory, "workspace").getPath(),
+				"-destination", shardDirectory.getPath(), "-plugin", "base", "-introspectionCache",
+				shardCache.getPath(), "-vmargs", "-Xmx4g", "-destination", "jvm"),
+				ShardedCrawl.getShardArguments(arguments, shardDirectory, List.of("base"), true, shardCache));
+	}
+
+}
@@ -0,0 +1,94 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import org.eclipse.core.runtime.ContributorFactorySimple;
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.RegistryFactory;
+import org.junit.Test;
+
+import de.philippkatz.knime.jsondocgen.docs.SplashIconDoc;
+
+public class SplashIconReaderTest {
+
+	/*
+	 * the icons are looked up in the host and its fragments, relative to the
+	 * bundle root, i.e. the tests project
+	 */
+	private static final String CONTRIBUTING_PLUGIN = "de.philippkatz.knime.jsondocgen.application";
+
+	@Test
+	public void reads_splash_icons() throws Exception {
+		Map<String, SplashIconDoc> splashIcons = SplashIconReader
+				.readSplashIcons(createRegistry(), UnaryOperator.identity()).stream()
+				.collect(Collectors.toMap(doc -> doc.id, Function.identity()));
+		assertEquals(3, splashIcons.size());
+
+		SplashIconDoc withIcon = splashIcons.get("withIcon");
+		assertEquals(CONTRIBUTING_PLUGIN, withIcon.contributingPlugin);
+		assertEquals("With icon", withIcon.tooltip);
+		assertEquals(readBase64("/splashIcons/splash.png"), withIcon.icon);
+		// the sizes fall back to the icon attribute
+		assertEquals(withIcon.icon, withIcon.icon24);
+		assertEquals(withIcon.icon, withIcon.icon32);
+
+		SplashIconDoc withoutIcon = splashIcons.get("withoutIcon");
+		assertNotNull(withoutIcon);
+		assertNull(withoutIcon.icon);
+		assertNull(withoutIcon.icon24);
+		assertNull(withoutIcon.icon32);
+
+		SplashIconDoc missingIcon = splashIcons.get("missingIcon");
+		assertNotNull(missingIcon);
+		assertEquals("Missing icon", missingIcon.tooltip);
+		assertNull(missingIcon.icon);
+	}
+
+	@Test
+	public void reads_each_icon_file_once() throws Exception {
+		List<String> processed = new CopyOnWriteArrayList<>();
+		SplashIconReader.readSplashIcons(createRegistry(), icon -> {
+			processed.add(String.valueOf(icon));
+			return icon;
+		});
+		// splash.png for three sizes, and missing.png
+		assertEquals(2, processed.size());
+		assertTrue(processed.contains("null"));
+	}
+
+	private static IExtensionRegistry createRegistry() throws IOException {
+		Object token = new Object();
+		IExtensionRegistry registry = RegistryFactory.createRegistry(null, token, null);
+		addContribution(registry, "org.knime.product", "/splashIcons/extensionPoint.xml", token);
+		addContribution(registry, CONTRIBUTING_PLUGIN, "/splashIcons/plugin.xml", token);
+		return registry;
+	}
+
+	private static void addContribution(IExtensionRegistry registry, String contributor, String resourcePath,
+			Object token) throws IOException {
+		try (InputStream stream = SplashIconReaderTest.class.getResourceAsStream(resourcePath)) {
+			assertTrue(registry.addContribution(stream, ContributorFactorySimple.createContributor(contributor), false,
+					resourcePath, null, token));
+		}
+	}
+
+	private static String readBase64(String resourcePath) throws IOException {
+		try (InputStream stream = SplashIconReaderTest.class.getResourceAsStream(resourcePath)) {
+			return Base64.getEncoder().encodeToString(stream.readAllBytes());
+		}
+	}
+
+}
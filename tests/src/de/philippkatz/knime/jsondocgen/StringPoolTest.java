@@ -0,0 +1,26 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class StringPoolTest {
+
+	@Test
+	public void returns_one_instance_per_value() {
+		StringPool pool = new StringPool();
+		String first = pool.intern(new String("org.knime.core.node.BufferedDataTable"));
+		String second = pool.intern(new String("org.knime.core.node.BufferedDataTable"));
+		assertSame(first, second);
+		assertNull(pool.intern((String) null));
+
+		List<String> list = pool.intern(List.of(new String("org.knime.core.node.BufferedDataTable"), "other"));
+		assertSame(first, list.get(0));
+		assertEquals(2, pool.size());
+	}
+
+}
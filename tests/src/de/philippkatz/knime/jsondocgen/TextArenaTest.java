@@ -0,0 +1,108 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import com.google.gson.Gson;
+
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc;
+import de.philippkatz.knime.jsondocgen.docs.NodeDoc.NodeDocBuilder;
+
+public class TextArenaTest {
+
+	private static final String TEXT = "<p>A \"quoted\" back\\slash, a\ttab,\r\na control \u0001 char, "
+			+ "separators \u2028\u2029, an emoji \uD83D\uDE00, umlauts \u00e4\u00f6\u00fc and <b>markup</b> & more.</p>";
+
+	@Test
+	public void stores_and_resolves_fragments() throws Exception {
+		try (TextArena arena = new TextArena()) {
+			String handle = arena.store(TEXT);
+			assertEquals(TextArena.MARKER, handle.charAt(0));
+			assertTrue(handle.length() < 20);
+			assertEquals(TEXT, TextArena.resolve(handle));
+
+			String shortText = "<p>short</p>";
+			assertSame(shortText, arena.store(shortText));
+			assertSame(shortText, TextArena.resolve(shortText));
+
+			// a short text which looks like a handle is stored nevertheless
+			String lookalike = TextArena.MARKER + "1:0";
+			assertNotEquals(lookalike, arena.store(lookalike));
+			assertEquals(lookalike, TextArena.resolve(arena.store(lookalike)));
+		}
+	}
+
+	@Test
+	public void fragments_larger_than_a_chunk_get_their_own_chunk() throws Exception {
+		try (TextArena arena = new TextArena(256)) {
+			String large = TEXT.repeat(20);
+			String first = arena.store(TEXT);
+			String second = arena.store(large);
+			String third = arena.store(TEXT + TEXT);
+			assertEquals(TEXT, TextArena.resolve(first));
+			assertEquals(large, TextArena.resolve(second));
+			assertEquals(TEXT + TEXT, TextArena.resolve(third));
+		}
+	}
+
+	@Test
+	public void output_is_the_same_as_without_arena() throws Exception {
+		Document doc = NodeDocJsonParserTest.readDoc("/StartWebDriverNodeFactory.xml");
+		NodeDoc plain = NodeDocJsonParser.parse(doc, new NodeDocBuilder(), new StringPool()).build();
+		NodeDocBuilder plainBuilder = new NodeDocBuilder();
+		plainBuilder.setIntro(TEXT);
+		NodeDoc plainText = plainBuilder.build();
+
+		try (TextArena arena = new TextArena(1024)) {
+			NodeDoc stored = NodeDocJsonParser.parse(doc, new NodeDocBuilder(), new StringPool(), arena).build();
+			assertEquals(TextArena.MARKER, stored.intro.charAt(0));
+			NodeDocBuilder storedBuilder = new NodeDocBuilder();
+			storedBuilder.setIntro(arena.store(TEXT));
+			NodeDoc storedText = storedBuilder.build();
+
+			for (boolean prettyPrinting : new boolean[] { true, false }) {
+				Gson gson = Utils.createGson(prettyPrinting);
+				assertEquals(write(gson, plain), write(gson, stored));
+				assertEquals(write(gson, plainText), write(gson, storedText));
+			}
+			assertTrue(stored.toJson().contains("\"contentHash\""));
+			assertEquals(plain.toJson(), stored.toJson());
+		}
+	}
+
+	@Test
+	public void texts_which_look_like_handles_are_not_resolved() throws Exception {
+		try (TextArena arena = new TextArena(256)) {
+			String handle = arena.store(TEXT);
+			String[] lookalikes = { TextArena.MARKER + "1:zz", TextArena.MARKER + "00000000" + "1:zz",
+					// a valid handle with a wrong checksum
+					TextArena.MARKER + (handle.charAt(1) == '0' ? "1" : "0") + handle.substring(2),
+					// a valid handle within a longer text
+					"icon " + handle, handle + " icon" };
+			for (String lookalike : lookalikes) {
+				assertEquals(lookalike, TextArena.resolve(lookalike));
+				NodeDocBuilder builder = new NodeDocBuilder();
+				builder.setName(lookalike);
+				NodeDoc node = builder.build();
+				Gson gson = Utils.createGson(false);
+				assertEquals(gson.toJson(node), write(gson, node));
+			}
+		}
+	}
+
+	private static String write(Gson gson, NodeDoc node) {
+		StringWriter stringWriter = new StringWriter();
+		Writer writer = TextArena.resolving(stringWriter);
+		gson.toJson(node, writer);
+		return stringWriter.toString();
+	}
+
+}
@@ -0,0 +1,36 @@
+package de.philippkatz.knime.jsondocgen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Base64;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class UtilsTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void png_bytes_are_passed_through() throws Exception {
+		byte[] png = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 13, 'I', 'H', 'D', 'R' };
+		File file = temporaryFolder.newFile("icon.png");
+		Files.write(file.toPath(), png);
+		assertArrayEquals(png, Base64.getDecoder().decode(Utils.getPngBase64(file.toURI().toURL())));
+	}
+
+	@Test
+	public void non_png_falls_back() throws Exception {
+		File file = temporaryFolder.newFile("icon.gif");
+		Files.write(file.toPath(), "GIF89a".getBytes());
+		assertNull(Utils.getPngBase64(file.toURI().toURL()));
+		assertNull(Utils.getPngBase64(new File(temporaryFolder.getRoot(), "missing.png").toURI().toURL()));
+		assertNull(Utils.getPngBase64(null));
+	}
+
+}